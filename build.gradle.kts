@@ -26,6 +26,13 @@ tasks.test {
     useJUnitPlatform()
 }
 
+// Lets the jar run the headless build, see HytalorBuild
+tasks.shadowJar {
+    manifest {
+        attributes("Main-Class" to "com.hypersonicsharkz.cli.HytalorBuild")
+    }
+}
+
 hytale {
     // Add `--allow-op` to server args (allows you to run `/op self` in-game)
     allowOp.set(true)
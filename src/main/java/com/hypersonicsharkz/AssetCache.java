@@ -0,0 +1,84 @@
+package com.hypersonicsharkz;
+
+import com.hypersonicsharkz.tree.TreeObject;
+import com.hypersonicsharkz.util.JSONUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Cache of parsed base assets and patches.
+ * <p>
+ * Entries are validated against the file's modification time, at the full resolution the file system keeps, and
+ * its size, so changed files are parsed again. Only the most recently used files are kept, patches applying to
+ * many bases stay cached while bases read once per rebuild make way. The cached trees are immutable, which means
+ * builds can use them directly without copying. Safe to use from several threads, two threads asking for the same
+ * changed file may both parse it.
+ */
+public class AssetCache {
+    private final int maxEntries;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); //In access order
+
+    public AssetCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public TreeObject get(Path path) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            invalidate(path);
+            return JSONUtil.readTree(path); //Let the reader report the failure
+        }
+
+        FileTime modified = attributes.lastModifiedTime();
+        long size = attributes.size();
+
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(path);
+        }
+        if (entry != null && entry.modified.equals(modified) && entry.size == size) {
+            return entry.tree;
+        }
+
+        //Parsed outside the lock, so other files are served meanwhile
+        TreeObject tree = JSONUtil.readTree(path);
+        if (tree == null) {
+            invalidate(path);
+            return null;
+        }
+
+        put(path, new Entry(modified, size, tree));
+        return tree;
+    }
+
+    private synchronized void put(Path path, Entry entry) {
+        if (maxEntries <= 0)
+            return;
+
+        entries.put(path, entry);
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    public synchronized void invalidate(Path path) {
+        entries.remove(path);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private record Entry(FileTime modified, long size, TreeObject tree) {}
+}
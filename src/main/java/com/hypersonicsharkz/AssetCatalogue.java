@@ -0,0 +1,128 @@
+package com.hypersonicsharkz;
+
+import com.hypersonicsharkz.util.JSONUtil;
+import com.hypixel.hytale.assetstore.AssetPack;
+import com.hypixel.hytale.common.plugin.PluginManifest;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Relative paths of the assets in a pack, kept on disk so packs that can't change aren't walked on every boot and
+ * reload.
+ * <p>
+ * A catalogue is stored with the {@link #key key} of the pack it was read from, and only used while the pack still
+ * has that key. Immutable packs are keyed by their version, archives by their size and modification time. Packs
+ * that are neither, like mods being worked on, are always walked.
+ * <p>
+ * Paths are sorted and stored with the length of the prefix they share with the previous path, so the catalogue of
+ * the base game is a fraction of the size of the paths.
+ */
+public final class AssetCatalogue {
+    private static final int MAGIC = 0x48594341; //HYCA
+    private static final int FORMAT = 1;
+
+    private AssetCatalogue() {}
+
+    /**
+     * Returns what the catalogue of the pack depends on, or null if the pack can change without it changing.
+     */
+    public static String key(AssetPack pack) {
+        StringBuilder key = new StringBuilder(pack.getName());
+        key.append('|').append(JSONUtil.VALID_JSON_EXTENSIONS);
+
+        Path location = pack.getPackLocation();
+        if (location != null) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(location, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    return key.append('|').append(location.toAbsolutePath())
+                            .append('|').append(attributes.size())
+                            .append('|').append(attributes.lastModifiedTime())
+                            .toString();
+                }
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        PluginManifest manifest = pack.getManifest();
+        if (!pack.isImmutable() || manifest == null || manifest.getVersion() == null)
+            return null;
+
+        return key.append('|').append(location != null ? location.toAbsolutePath() : pack.getRoot())
+                .append('|').append(manifest.getVersion())
+                .toString();
+    }
+
+    public static Path pathFor(Path cacheRoot, String packName) {
+        return cacheRoot.resolve(packName.replaceAll("[^A-Za-z0-9._-]", "_") + ".catalogue");
+    }
+
+    /**
+     * Returns the paths in the catalogue, or null if there is none for this key.
+     */
+    public static List<String> read(Path file, String key) {
+        if (!Files.isRegularFile(file))
+            return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT || !in.readUTF().equals(key))
+                return null;
+
+            int count = in.readInt();
+            List<String> paths = new ArrayList<>(count);
+            String previous = "";
+            for (int i = 0; i < count; i++) {
+                int shared = in.readUnsignedShort();
+                previous = previous.substring(0, shared) + in.readUTF();
+                paths.add(previous);
+            }
+            return paths;
+        } catch (IOException | RuntimeException e) {
+            HytalorLog.log(Level.WARNING, "Failed to read asset catalogue " + file + ", walking the pack", e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the catalogue, replacing the previous one at once so a server starting meanwhile never reads half of it.
+     */
+    public static void write(Path file, String key, Collection<String> paths) throws IOException {
+        List<String> sorted = new ArrayList<>(paths);
+        sorted.sort(null);
+
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeUTF(key);
+            out.writeInt(sorted.size());
+
+            String previous = "";
+            for (String path : sorted) {
+                int shared = Math.min(sharedPrefix(previous, path), 0xFFFF);
+                out.writeShort(shared);
+                out.writeUTF(path.substring(shared));
+                previous = path;
+            }
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int sharedPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+}
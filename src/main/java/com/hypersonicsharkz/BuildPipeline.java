@@ -0,0 +1,89 @@
+package com.hypersonicsharkz;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs the build of each base asset as its own task.
+ * <p>
+ * Tasks run on virtual threads, so a task waiting on a slow disk doesn't hold up the others. Reads and writes go
+ * through {@link #io}, which limits how many files are open at once, and merges go through {@link #cpu}, which runs
+ * them on a pool bounded to the number of cores so they don't compete with each other.
+ */
+public class BuildPipeline {
+    private final ExecutorService taskExecutor;
+    private final ExecutorService cpuExecutor;
+    private final Semaphore openFiles;
+
+    public BuildPipeline(ExecutorService taskExecutor, int cpuThreads, int maxOpenFiles) {
+        this.taskExecutor = taskExecutor;
+        this.cpuExecutor = Executors.newFixedThreadPool(Math.max(cpuThreads, 1), Thread.ofPlatform()
+                .name("Hytalor-Merge-", 0)
+                .daemon(true)
+                .factory());
+        this.openFiles = new Semaphore(Math.max(maxOpenFiles, 1));
+    }
+
+    public static BuildPipeline virtualThreads(int cpuThreads, int maxOpenFiles) {
+        return new BuildPipeline(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Hytalor-Build-", 0).factory()), cpuThreads, maxOpenFiles);
+    }
+
+    /**
+     * Same limits, but every task holds a platform thread from a fixed pool for its whole run.
+     */
+    public static BuildPipeline platformThreads(int threads, int cpuThreads, int maxOpenFiles) {
+        return new BuildPipeline(Executors.newFixedThreadPool(threads, Thread.ofPlatform()
+                .name("Hytalor-Build-", 0)
+                .daemon(true)
+                .factory()), cpuThreads, maxOpenFiles);
+    }
+
+    public CompletableFuture<Void> submit(Runnable task) {
+        return CompletableFuture.runAsync(task, taskExecutor);
+    }
+
+    /**
+     * Runs blocking file access on the calling task, waiting while too many files are open.
+     */
+    public <T> T io(IOSupplier<T> action) {
+        try {
+            openFiles.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting to open a file");
+        }
+
+        try {
+            return action.get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            openFiles.release();
+        }
+    }
+
+    /**
+     * Runs CPU bound work on the merge pool, and waits for the result.
+     */
+    public <T> T cpu(Supplier<T> action) {
+        try {
+            return CompletableFuture.supplyAsync(action, cpuExecutor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        taskExecutor.shutdown();
+        cpuExecutor.shutdown();
+    }
+
+    @FunctionalInterface
+    public interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+}
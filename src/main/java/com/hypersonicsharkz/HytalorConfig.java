@@ -0,0 +1,44 @@
+package com.hypersonicsharkz;
+
+import com.hypixel.hytale.server.core.plugin.PluginManager;
+
+import java.nio.file.Path;
+
+/**
+ * Runtime options, read from system properties (e.g. {@code -Dhytalor.diagnostics.dump=true}).
+ */
+public class HytalorConfig {
+    //Write every diagnostic event of a rebuild to DIAGNOSTICS_PATH, in addition to the summary in the log
+    public static boolean DUMP_DIAGNOSTICS = Boolean.getBoolean("hytalor.diagnostics.dump");
+    public static Path DIAGNOSTICS_PATH = PluginManager.MODS_PATH.resolve("HytalorDiagnostics.log");
+
+    //Record where boot time goes, and write it to PROFILE_PATH as a Chrome trace once patches are applied
+    public static boolean PROFILE_STARTUP = Boolean.getBoolean("hytalor.profile.startup");
+    public static Path PROFILE_PATH = PluginManager.MODS_PATH.resolve("HytalorStartupTrace.json");
+
+    //Limits for rebuilds, see BuildPipeline
+    public static int BUILD_MAX_OPEN_FILES = Integer.getInteger("hytalor.build.maxOpenFiles", 64);
+    public static int BUILD_CPU_THREADS = Integer.getInteger("hytalor.build.cpuThreads", Runtime.getRuntime().availableProcessors());
+
+    //Parsed base assets and patches kept between reads, see AssetCache. 0 turns it off
+    public static int BUILD_CACHE_ASSETS = Integer.getInteger("hytalor.build.cacheAssets", 4096);
+
+    //Serialized outputs kept to reuse identical merges, see MergeMemo. 0 turns it off
+    public static long BUILD_MEMO_BYTES = Long.getLong("hytalor.build.memoBytes", 64L * 1024 * 1024);
+
+    //Bases whose merged states after their first patches are kept, see PrefixCheckpoints. 0 turns it off
+    public static int BUILD_CHECKPOINT_BASES = Integer.getInteger("hytalor.build.checkpointBases", 256);
+
+    //Assets at least this large are memory mapped instead of read into the heap, see AssetCodecs.read. 0 turns it off
+    public static long READ_MAP_THRESHOLD = Long.getLong("hytalor.read.mapThreshold", 1024L * 1024);
+
+    //Keep the overrides pack in memory instead of writing it under MODS_PATH, see MemoryFileSystem.
+    //Memory file systems can't be watched, so the server doesn't notice overrides rebuilt after boot on its own
+    public static boolean OVERRIDES_IN_MEMORY = Boolean.getBoolean("hytalor.overrides.inMemory");
+
+    //Where the asset paths of packs that can't change are kept between boots, see AssetCatalogue
+    public static Path CACHE_PATH = Path.of(System.getProperty("hytalor.cache.path", PluginManager.MODS_PATH.resolve("HytalorCache").toString()));
+
+    //Overrides built by HytalorBuild, used instead of applying patches at boot if they match the loaded patches
+    public static Path PREBUILT_PATH = Path.of(System.getProperty("hytalor.prebuilt.path", PluginManager.MODS_PATH.resolve("HytalorPrebuilt").toString()));
+}
@@ -0,0 +1,59 @@
+package com.hypersonicsharkz;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logging for code that runs both in the plugin and in the {@link com.hypersonicsharkz.cli.HytalorBuild headless build}.
+ * <p>
+ * The plugin points it at its own logger in {@code setup()}, until then, and outside the server, messages go to
+ * {@link java.util.logging}. Messages use {@link String#format} placeholders, and a {@link Throwable} as the last
+ * argument is logged as the cause.
+ */
+public final class HytalorLog {
+    private static final Logger fallback = Logger.getLogger("Hytalor");
+
+    private static volatile Backend backend = new Backend() {
+        @Override
+        public boolean isEnabled(Level level) {
+            return fallback.isLoggable(level);
+        }
+
+        @Override
+        public void log(Level level, String message, Throwable cause) {
+            fallback.log(level, message, cause);
+        }
+    };
+
+    private HytalorLog() {}
+
+    public static void setBackend(Backend backend) {
+        HytalorLog.backend = backend;
+    }
+
+    public static void log(Level level, String message, Object... args) {
+        Backend backend = HytalorLog.backend;
+        if (!backend.isEnabled(level))
+            return;
+
+        Throwable cause = null;
+        int argCount = args.length;
+        if (argCount > 0 && args[argCount - 1] instanceof Throwable throwable) {
+            cause = throwable;
+            argCount--;
+        }
+
+        if (argCount > 0) {
+            Object[] formatArgs = argCount == args.length ? args : Arrays.copyOf(args, argCount);
+            message = String.format(message, formatArgs);
+        }
+        backend.log(level, message, cause);
+    }
+
+    public interface Backend {
+        boolean isEnabled(Level level);
+
+        void log(Level level, String message, Throwable cause);
+    }
+}
@@ -1,6 +1,8 @@
 package com.hypersonicsharkz;
 
 import com.hypersonicsharkz.commands.HytalorCommandCollection;
+import com.hypersonicsharkz.memfs.MemoryFileSystem;
+import com.hypersonicsharkz.profiling.StartupProfiler;
 import com.hypixel.hytale.assetstore.AssetPack;
 import com.hypixel.hytale.common.plugin.PluginManifest;
 import com.hypixel.hytale.common.semver.Semver;
@@ -35,6 +37,9 @@ public class HytalorPlugin extends JavaPlugin {
 
     private static HytalorPlugin instance;
 
+    private MemoryFileSystem overridesFileSystem; //Null unless overrides are kept in memory
+    private Path overridesPath = OVERRIDES_TEMP_PATH;
+
     public static HytalorPlugin get() {
         return instance;
     }
@@ -60,9 +65,34 @@ public class HytalorPlugin extends JavaPlugin {
     @Override
     protected void setup() {
         instance = this;
+        HytalorLog.setBackend(new HytalorLog.Backend() {
+            @Override
+            public boolean isEnabled(Level level) {
+                return getLogger().at(level).isEnabled();
+            }
+
+            @Override
+            public void log(Level level, String message, Throwable cause) {
+                if (cause != null) {
+                    getLogger().at(level).withCause(cause).log(message);
+                } else {
+                    getLogger().at(level).log(message);
+                }
+            }
+        });
+
+        if (HytalorConfig.PROFILE_STARTUP) {
+            StartupProfiler.start();
+        }
 
         super.setup();
 
+        if (HytalorConfig.OVERRIDES_IN_MEMORY) {
+            overridesFileSystem = MemoryFileSystem.create("Hytalor-Overrides");
+            overridesPath = overridesFileSystem.root();
+            PatchManager.get().setOutputPath(overridesPath);
+        }
+
         this.getCommandRegistry().registerCommand(new HytalorCommandCollection());
 
         this.getEventRegistry().register((short)128, LoadAssetEvent.class, (event) -> {
@@ -70,8 +100,10 @@ public class HytalorPlugin extends JavaPlugin {
             long start = System.nanoTime();
             List<AssetPack> assetPacks = AssetModule.get().getAssetPacks();
 
-            for (AssetPack assetPack : assetPacks) {
-                PatchManager.get().loadPatchAssets(assetPack);
+            try (var _ = StartupProfiler.span("LoadAssetEvent")) {
+                for (AssetPack assetPack : assetPacks) {
+                    PatchManager.get().loadPatchAssets(assetPack);
+                }
             }
 
             this.getLogger()
@@ -95,7 +127,13 @@ public class HytalorPlugin extends JavaPlugin {
             PatchManager.get().applyAllPatches();
         });
 
-        getEventRegistry().register(BootEvent.class, _ -> initializePatches());
+        getEventRegistry().register(BootEvent.class, _ -> {
+            try (var _ = StartupProfiler.span("BootEvent")) {
+                initializePatches();
+            }
+
+            finishStartupProfile();
+        });
     }
 
     @Override
@@ -103,20 +141,39 @@ public class HytalorPlugin extends JavaPlugin {
         super.shutdown();
 
         clearOverrideDirectory(true);
+        if (overridesFileSystem != null) {
+            overridesFileSystem.close();
+        }
     }
 
     public void initializePatches() {
-        clearOverrideDirectory(false);
-        initializeOverrideDirectory();
-
-        PatchManager.get().applyAllPatches();
+        try (var _ = StartupProfiler.span("clear overrides")) {
+            clearOverrideDirectory(false);
+        }
+        try (var _ = StartupProfiler.span("mirror directories")) {
+            initializeOverrideDirectory();
+        }
+        try (var _ = StartupProfiler.span("apply all patches")) {
+            PatchManager.get().applyPrebuiltOrAllPatches(HytalorConfig.PREBUILT_PATH);
+        }
+        try (var _ = StartupProfiler.span("register pack")) {
+            registerAssetPack();
+        }
+    }
 
-        registerAssetPack();
+    private void finishStartupProfile() {
+        try {
+            if (StartupProfiler.finish(HytalorConfig.PROFILE_PATH)) {
+                getLogger().at(Level.INFO).log("Hytalor startup profile written to %s", HytalorConfig.PROFILE_PATH);
+            }
+        } catch (IOException e) {
+            getLogger().at(Level.WARNING).withCause(e).log("Failed to write Hytalor startup profile to %s", HytalorConfig.PROFILE_PATH);
+        }
     }
 
     public void initializeOverrideDirectory() {
         try {
-            Path targetRoot = OVERRIDES_TEMP_PATH;
+            Path targetRoot = overridesPath;
             Files.createDirectories(targetRoot);
             Path sourceRoot = AssetModule.get().getBaseAssetPack().getRoot();
 
@@ -126,7 +183,7 @@ public class HytalorPlugin extends JavaPlugin {
                 public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
                     // Resolve the relative path from source into target
                     Path relativePath = sourceRoot.relativize(dir);
-                    Path targetDir = targetRoot.resolve(relativePath.toString());
+                    Path targetDir = targetRoot.resolve(relativePath.toString().replace("\\", "/"));
 
                     // Create directory if it doesn't exist
                     if (Files.notExists(targetDir)) {
@@ -149,6 +206,11 @@ public class HytalorPlugin extends JavaPlugin {
     }
 
     public void clearOverrideDirectory(boolean includingDirectories) {
+        if (overridesFileSystem != null) {
+            overridesFileSystem.clear();
+            return;
+        }
+
         if (!Files.isDirectory(OVERRIDES_TEMP_PATH)) {
             return;
         }
@@ -176,7 +238,7 @@ public class HytalorPlugin extends JavaPlugin {
     }
 
     public void registerAssetPack() {
-        Path filePath = OVERRIDES_TEMP_PATH;
+        Path filePath = overridesPath;
 
         PluginManifest manifest = new PluginManifest(
                 "com.hypersonicsharkz",
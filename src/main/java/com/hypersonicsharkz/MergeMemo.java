@@ -0,0 +1,106 @@
+package com.hypersonicsharkz;
+
+import com.hypersonicsharkz.codec.AssetCodec;
+import com.hypersonicsharkz.diagnostics.PatchDiagnostics;
+import com.hypersonicsharkz.tree.TreeObject;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Remembers merge results, keyed by the content of the base asset and of its patches in apply order.
+ * <p>
+ * Many base assets are copies of a shared template, and a wildcard patch turns all of them into the same output.
+ * With the memo only the first one is merged and serialized, the others reuse its bytes. Keys are
+ * {@link com.hypersonicsharkz.tree.TreeNode#contentHash() content hashes}, so unchanged files still hit after a
+ * reload parsed them again. Once the stored outputs exceed the byte limit the least recently used are evicted.
+ * Safe to use from several threads.
+ */
+public class MergeMemo {
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); //In access order
+
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public MergeMemo(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    public synchronized Entry get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return entry;
+    }
+
+    public synchronized void put(Key key, Entry entry) {
+        if (entry.bytes.length > maxBytes)
+            return;
+
+        Entry previous = entries.put(key, entry);
+        if (previous != null)
+            bytes -= previous.bytes.length;
+        bytes += entry.bytes.length;
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            bytes -= iterator.next().bytes.length;
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                + ", entries=" + entries.size() + ", bytes=" + bytes + "/" + maxBytes;
+    }
+
+    /**
+     * The output is written with the codec, so the same merge written as JSON and as BSON are different entries.
+     */
+    public record Key(AssetCodec codec, long baseHash, long[] patchHashes) {
+        @Override
+        public boolean equals(Object o) {
+            return o == this || (o instanceof Key other
+                    && codec == other.codec
+                    && baseHash == other.baseHash
+                    && Arrays.equals(patchHashes, other.patchHashes));
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(baseHash) * 31 + Arrays.hashCode(patchHashes);
+        }
+    }
+
+    /**
+     * A merged tree, its serialized bytes, and the diagnostics its merge recorded, so a reused merge reports the same.
+     */
+    public record Entry(TreeObject tree, byte[] bytes, List<PatchDiagnostics.Event> events) {}
+}
@@ -0,0 +1,94 @@
+package com.hypersonicsharkz;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a patch in code, the same way it would be written in a patch file.
+ * <pre>{@code
+ * PatchManager.get().registerPatch("mymod:damage", PatchBuilder.create()
+ *         .target("Server/Item/Items/Weapon/*")
+ *         .priority(10)
+ *         .set("$.Stats.Damage", 12));
+ * }</pre>
+ */
+public class PatchBuilder {
+    private final List<String> targets = new ArrayList<>();
+    private final JsonObject values = new JsonObject();
+    private Integer priority;
+
+    public static PatchBuilder create() {
+        return new PatchBuilder();
+    }
+
+    /**
+     * Adds a base asset path pattern, same as {@code _BaseAssetPath}. Supports globs and {@code regex:} patterns.
+     */
+    public PatchBuilder target(String basePathPattern) {
+        targets.add(basePathPattern);
+        return this;
+    }
+
+    public PatchBuilder priority(int priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * Sets a key or JsonPath query to a value, which can use every patch operation a patch file can.
+     */
+    public PatchBuilder set(String key, JsonElement value) {
+        values.add(key, value);
+        return this;
+    }
+
+    public PatchBuilder set(String key, String value) {
+        return set(key, new JsonPrimitive(value));
+    }
+
+    public PatchBuilder set(String key, Number value) {
+        return set(key, new JsonPrimitive(value));
+    }
+
+    public PatchBuilder set(String key, boolean value) {
+        return set(key, new JsonPrimitive(value));
+    }
+
+    /**
+     * Adds every member of the object to the patch.
+     */
+    public PatchBuilder merge(JsonObject patch) {
+        for (Map.Entry<String, JsonElement> entry : patch.entrySet()) {
+            values.add(entry.getKey(), entry.getValue());
+        }
+        return this;
+    }
+
+    public JsonObject build() {
+        if (targets.isEmpty())
+            throw new IllegalStateException("Patch has no target, add one with target()");
+
+        JsonObject patch = new JsonObject();
+        if (targets.size() == 1) {
+            patch.addProperty("_BaseAssetPath", targets.getFirst());
+        } else {
+            JsonArray array = new JsonArray(targets.size());
+            targets.forEach(array::add);
+            patch.add("_BaseAssetPath", array);
+        }
+
+        if (priority != null)
+            patch.addProperty("_priority", priority);
+
+        for (Map.Entry<String, JsonElement> entry : values.entrySet()) {
+            patch.add(entry.getKey(), entry.getValue().deepCopy());
+        }
+        return patch;
+    }
+}
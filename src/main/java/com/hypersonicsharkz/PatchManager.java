@@ -1,11 +1,26 @@
 package com.hypersonicsharkz;
 
-import com.google.gson.*;
+import com.google.gson.JsonObject;
+import com.hypersonicsharkz.codec.AssetCodecs;
+import com.hypersonicsharkz.diagnostics.DiagnosticKind;
+import com.hypersonicsharkz.diagnostics.PatchCosts;
+import com.hypersonicsharkz.diagnostics.PatchDiagnostics;
+import com.hypersonicsharkz.profiling.AssetBuildEvent;
+import com.hypersonicsharkz.profiling.AssetWriteEvent;
+import com.hypersonicsharkz.profiling.PatchLoadEvent;
+import com.hypersonicsharkz.profiling.PatchMonitorEvent;
+import com.hypersonicsharkz.profiling.StartupProfiler;
+import com.hypersonicsharkz.tree.JsonTree;
+import com.hypersonicsharkz.tree.TreeNode;
+import com.hypersonicsharkz.tree.TreeObject;
 import com.hypersonicsharkz.util.Color;
+import com.hypersonicsharkz.util.GlobMatcher;
 import com.hypersonicsharkz.util.JSONUtil;
+import com.hypersonicsharkz.util.MergeContext;
+import com.hypersonicsharkz.util.PatternResolver;
 import com.hypersonicsharkz.util.QueryUtil;
+import com.hypersonicsharkz.util.StripedLock;
 import com.hypixel.hytale.assetstore.AssetPack;
-import com.hypixel.hytale.common.util.FormatUtil;
 import com.hypixel.hytale.logger.sentry.SkipSentryException;
 import com.hypixel.hytale.server.core.asset.AssetModule;
 import com.hypixel.hytale.server.core.asset.monitor.AssetMonitor;
@@ -15,20 +30,61 @@ import com.hypixel.hytale.server.core.util.io.FileUtil;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.regex.Pattern;
 
+/**
+ * Keeps track of all loaded patches and builds the patched assets.
+ * <p>
+ * Patches are loaded and unloaded from the boot thread, asset pack events, commands and the asset monitor, so all
+ * state lives in concurrent maps. Loading or unloading one patch is serialized by a lock striped on the patch, and
+ * building one base asset by a lock striped on the base, so unrelated patches and assets never wait for each other.
+ * Builds read from a {@link Snapshot} of the immutable {@link PatchOrder}s taken when they start, so patches can be
+ * changed while a build runs, and a changed patch is rebuilt by its own event afterwards.
+ */
 public class PatchManager {
     private static final PatchManager instance = new PatchManager();
-
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-
-    private final Map<String, List<Path>> patchesMap = new HashMap<>(); //Cache for base -> patches
-    private final Map<Path, List<String>> cachedPatchtoBaseMap = new HashMap<>(); //Cache for patchPath -> baseName
-    private final Map<String, Path> cachedBasePathMap = new HashMap<>(); //Cache for baseName -> basePath
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<String, PatchOrder> patchesMap = new ConcurrentHashMap<>(); //Cache for base -> patches, in apply order
+    private final Map<PatchSource, List<String>> cachedPatchtoBaseMap = new ConcurrentHashMap<>(); //Cache for patch -> baseName
+    private final Map<PatchSource, PatchOrder.Entry> patchEntries = new ConcurrentHashMap<>(); //Cache for patch -> priority and load sequence
+    private final Map<PatchSource, Long> patchSequences = new ConcurrentHashMap<>(); //Load sequence, kept so a reloaded patch keeps its place
+    private final Map<String, Path> cachedBasePathMap = new ConcurrentHashMap<>(); //Cache for baseName -> basePath
+    private final AssetCache assetCache = new AssetCache(HytalorConfig.BUILD_CACHE_ASSETS); //Cache for parsed base assets and patches, the most recently used only
+    private final Map<String, TreeObject> builtOutputs = new ConcurrentHashMap<>(); //Cache for baseName -> last written override
+    private final Map<String, TreeObject> memoryPatches = Collections.synchronizedMap(new LinkedHashMap<>()); //Patches registered through code, id -> patch
+    private final ReferenceGraph referenceGraph = new ReferenceGraph(); //Cache for patch -> assets referenced with _ref
+    private final Set<PatchSource> unscannedPatches = ConcurrentHashMap.newKeySet(); //Patches loaded from their header only, whose references aren't known yet
+    private final PatchCosts patchCosts = new PatchCosts(); //Cache for patch -> merge time and work, over all its bases
+    private final MergeMemo mergeMemo = new MergeMemo(HytalorConfig.BUILD_MEMO_BYTES); //Cache for base and patch content -> output, kept across reloads
+    private final PrefixCheckpoints prefixCheckpoints = new PrefixCheckpoints(HytalorConfig.BUILD_CHECKPOINT_BASES); //Cache for base and first patches -> merged state, kept across reloads
+
+    private final StripedLock patchLocks = new StripedLock(LOCK_STRIPES);
+    private final StripedLock baseLocks = new StripedLock(LOCK_STRIPES);
+    private final ReentrantReadWriteLock changeLock = new ReentrantReadWriteLock(); //Shared by changes to the loaded patches, exclusive for snapshots
+    private final AtomicLong version = new AtomicLong(); //Incremented on every change to the loaded patches
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final BuildPipeline pipeline = BuildPipeline.virtualThreads(HytalorConfig.BUILD_CPU_THREADS, HytalorConfig.BUILD_MAX_OPEN_FILES);
+
+    private volatile boolean patchesApplied; //Memory patches are resolved and built right away once the initial build ran
+    private volatile Path outputPath = HytalorPlugin.OVERRIDES_TEMP_PATH; //Where overrides are written, the headless build writes elsewhere
 
     public static PatchManager get() {
         return instance;
@@ -36,87 +92,227 @@ public class PatchManager {
 
     private PatchManager() {}
 
+    /**
+     * Clears all loaded patches and caches. Patches registered through code are kept, and are loaded again by
+     * the next {@link #applyAllPatches()}.
+     */
     public void clear() {
-        patchesMap.clear();
-        cachedPatchtoBaseMap.clear();
-        cachedBasePathMap.clear();
+        changeLock.readLock().lock();
+        try {
+            patchesMap.clear();
+            cachedPatchtoBaseMap.clear();
+            patchEntries.clear();
+            patchSequences.clear();
+            cachedBasePathMap.clear();
+            assetCache.clear();
+            builtOutputs.clear();
+            referenceGraph.clear();
+            unscannedPatches.clear();
+            patchCosts.clear();
+            version.incrementAndGet();
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the patches that took the longest to merge since they were loaded, most expensive first.
+     */
+    public List<PatchCosts.Summary> getTopPatches(int limit) {
+        return patchCosts.top(limit);
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Returns a consistent view of the patches of every base asset. The {@link PatchOrder}s are immutable, so this
+     * only copies the map.
+     */
+    public Snapshot snapshot() {
+        return snapshot(patchesMap.keySet());
+    }
+
+    private Snapshot snapshot(Collection<String> baseNames) {
+        //A change adds or removes a patch on each of its bases in turn, so no change may run while copying
+        changeLock.writeLock().lock();
+        try {
+            Map<String, PatchOrder> patches = new HashMap<>();
+            for (String baseName : baseNames) {
+                PatchOrder order = patchesMap.get(baseName);
+                if (order != null) {
+                    patches.put(baseName, order);
+                }
+            }
+
+            return new Snapshot(version.get(), Collections.unmodifiableMap(patches));
+        } finally {
+            changeLock.writeLock().unlock();
+        }
     }
 
     public void addPatchAsset(String basePath, Path patchPath) {
-        if (patchesMap.containsKey(basePath)) {
-            List<Path> patches = patchesMap.get(basePath);
-            int index = patches.indexOf(patchPath);
+        PatchSource source = new PatchSource.FilePatch(patchPath);
 
-            if (index != -1) { //Place at same index to retain load order
-                patches.remove(index);
-                patches.add(index, patchPath);
-                patchesMap.put(basePath, patches);
-            } else { //Otherwise just append
-                patches.add(patchPath);
+        ReentrantLock lock = patchLocks.get(source);
+        lock.lock();
+        try {
+            PatchOrder.Entry entry = patchEntries.get(source);
+            if (entry == null) {
+                TreeObject data = assetCache.get(patchPath);
+                entry = createEntry(source, data != null ? data : TreeObject.EMPTY);
+            }
+
+            changeLock.readLock().lock();
+            try {
+                addPatchAsset(basePath, entry);
+                cachedPatchtoBaseMap.merge(source, List.of(basePath), (existing, added) -> {
+                    List<String> baseNames = new ArrayList<>(existing);
+                    baseNames.addAll(added);
+                    return List.copyOf(baseNames);
+                });
+                version.incrementAndGet();
+            } finally {
+                changeLock.readLock().unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addPatchAsset(String basePath, PatchOrder.Entry entry) {
+        //A patch loaded again keeps its sequence, so it retains its place in the load order
+        patchesMap.merge(basePath, PatchOrder.EMPTY.with(entry), (patches, added) -> patches.with(entry));
+    }
+
+    private PatchOrder.Entry createEntry(PatchSource source, TreeObject data) {
+        TreeNode priority = data.get("_priority");
+        long sequence = patchSequences.computeIfAbsent(source, k -> nextSequence.getAndIncrement());
+
+        PatchOrder.Entry entry = new PatchOrder.Entry(priority != null ? priority.asValue().getAsInt() : 0, sequence, source);
+        patchEntries.put(source, entry);
+        patchCosts.setPayloadBytes(source, getPayloadBytes(source, data));
+        return entry;
+    }
+
+    private static long getPayloadBytes(PatchSource source, TreeObject data) {
+        if (source instanceof PatchSource.FilePatch filePatch) {
+            try {
+                return Files.size(filePatch.path());
+            } catch (IOException e) {
+                return 0;
             }
-        } else {
-            patchesMap.put(basePath, new ArrayList<>(List.of(patchPath)));
         }
 
-        cachedPatchtoBaseMap.computeIfAbsent(patchPath, k -> new ArrayList<>()).add(basePath);
+        return data.toString().length();
     }
 
     private List<Map.Entry<String, Path>> getBaseAssets(String input) {
-        Pattern pattern;
+        Predicate<String> pattern;
 
         if (input.startsWith("regex:")) {
             String rawRegex = input.substring("regex:".length());
-            pattern = Pattern.compile(rawRegex);
+            pattern = Pattern.compile(rawRegex).asMatchPredicate();
         } else {
-            pattern = QueryUtil.globToRegex(input);
+            GlobMatcher glob = GlobMatcher.compile(input);
+            if (glob.isLiteral()) { //No need to look at every asset
+                Path basePath = cachedBasePathMap.get(input);
+                return basePath != null ? List.of(Map.entry(input, basePath)) : List.of();
+            }
+
+            pattern = glob::matches;
         }
 
         return cachedBasePathMap.entrySet()
                 .stream()
-                .filter(entry -> pattern.matcher(entry.getKey()).matches())
+                .filter(entry -> pattern.test(entry.getKey()))
                 .toList();
     }
 
     public void loadPatchAssets(AssetPack pack) {
-        Path path = pack.getRoot().resolve(HytalorPlugin.PATCHES_ASSET_PATH);
+        try (var _ = StartupProfiler.span("load pack", pack.getName())) {
+            loadPatchAssets(pack, pack.getRoot().resolve(HytalorPlugin.PATCHES_ASSET_PATH));
+        }
+    }
 
-        HytalorPlugin.get().getLogger().at(Level.FINE).log(
+    private void loadPatchAssets(AssetPack pack, Path path) {
+        HytalorLog.log(Level.FINE,
                 "Loading patch assets for pack: " + pack.getName()
         );
 
         if (!pack.getName().equals("com.hypersonicsharkz:Hytalor-Overrides")) {
-            cacheAssetPaths(pack);
+            try (var _ = StartupProfiler.span("catalogue")) {
+                cacheAssetPaths(pack);
+            }
         }
 
-        try {
-            AssetMonitor assetMonitor = AssetModule.get().getAssetMonitor();
-            if (assetMonitor != null && !pack.isImmutable() && Files.isDirectory(path)) {
-                assetMonitor.removeMonitorDirectoryFiles(path, pack);
-                assetMonitor.monitorDirectoryFiles(path, new PatchAssetMonitorHandler("PatchMonitor_" + pack.getName(), this));
+        AssetMonitor assetMonitor = AssetModule.get().getAssetMonitor();
+        if (assetMonitor != null && !pack.isImmutable() && Files.isDirectory(path)) {
+            assetMonitor.removeMonitorDirectoryFiles(path, pack);
+            assetMonitor.monitorDirectoryFiles(path, new PatchAssetMonitorHandler("PatchMonitor_" + pack.getName(), this));
+        }
+
+        loadPatchDirectory(path);
+    }
+
+    /**
+     * Loads a pack from its root directory without the asset module, for the {@link com.hypersonicsharkz.cli.HytalorBuild
+     * headless build}. Packs have to be loaded in the order the server registers them, base assets first.
+     */
+    public void loadPack(Path root) {
+        try (var _ = StartupProfiler.span("load pack", root)) {
+            HytalorLog.log(Level.FINE, "Loading patch assets for pack: %s", root);
+
+            try (var _ = StartupProfiler.span("catalogue")) {
+                cacheAssetPaths(root);
             }
 
-            if (Files.isDirectory(path)) {
+            loadPatchDirectory(root.resolve(HytalorPlugin.PATCHES_ASSET_PATH));
+        }
+    }
+
+    private void loadPatchDirectory(Path path) {
+        if (!Files.isDirectory(path))
+            return;
+
+        try {
+            Map<PatchSource, TreeObject> patches = new LinkedHashMap<>();
+
+            try (var _ = StartupProfiler.span("patch walk")) {
                 Files.walkFileTree(path, FileUtil.DEFAULT_WALK_TREE_OPTIONS_SET, Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
                     @Nonnull
                     public FileVisitResult visitFile(@Nonnull Path file, @Nonnull BasicFileAttributes attrs) {
                         if (PatchManager.isJsonFile(file) && !PatchManager.isIgnoredFile(file)) {
-                            PatchManager.this.loadPatch(file, false);
+                            HytalorLog.log(Level.FINE, "Loading Patch: %s", file);
+
+                            TreeObject header;
+                            try (var _ = StartupProfiler.span("header", file)) {
+                                header = JSONUtil.readPatchHeader(file);
+                            }
+
+                            if (header != null) {
+                                patches.put(new PatchSource.FilePatch(file), header);
+                            }
                         }
 
                         return FileVisitResult.CONTINUE;
                     }
                 });
             }
+
+            try (var _ = StartupProfiler.span("resolve targets", patches.size() + " patches")) {
+                loadPatches(patches);
+            }
         } catch (IOException e) {
             throw new SkipSentryException(new RuntimeException(e));
         }
-
     }
 
     public void unloadPatchAssets(AssetPack pack) {
         Path path = pack.getRoot().resolve(HytalorPlugin.PATCHES_ASSET_PATH);
 
-        HytalorPlugin.get().getLogger().at(Level.FINE).log(
+        HytalorLog.log(Level.FINE,
                 "Unloading patch assets for pack: " + pack.getName()
         );
 
@@ -144,110 +340,215 @@ public class PatchManager {
     }
 
     public void loadPatch(Path path, boolean refresh) {
-        HytalorPlugin.get().getLogger().at(Level.INFO).log(
-                "Loading Patch: " + path
-        );
-
-        JsonObject data = JSONUtil.readJSON(path);
-        if (data == null)
-            return;
+        HytalorLog.log(Level.FINE, "Loading Patch: %s", path);
 
-        if (data.has("BaseAssetPath")) {
-            loadPatch_Deprecated(path, refresh, data);
-            return;
+        PatchLoadEvent event = new PatchLoadEvent();
+        event.begin();
+        try {
+            TreeObject header = JSONUtil.readPatchHeader(path);
+            if (header == null)
+                return;
+
+            loadPatch(new PatchSource.FilePatch(path), header, refresh);
+        } finally {
+            if (event.shouldCommit()) {
+                event.patch = path.toString();
+                event.rebuild = refresh;
+                event.commit();
+            }
         }
+    }
 
-        JsonElement basePathPattern = data.get("_BaseAssetPath");
-        if (basePathPattern == null)
+    private void loadPatch(PatchSource path, TreeObject data, boolean refresh) {
+        List<String> patterns = getTargetPatterns(data);
+        if (patterns.isEmpty())
             return;
 
         Set<Map.Entry<String, Path>> baseAssets = new HashSet<>();
-        if (basePathPattern.isJsonArray()) {
-            for (JsonElement asset : basePathPattern.getAsJsonArray()) {
-                baseAssets.addAll(getBaseAssets(asset.getAsString()));
-            }
-        } else {
-            baseAssets.addAll(getBaseAssets(basePathPattern.getAsString()));
+        for (String pattern : patterns) {
+            baseAssets.addAll(getBaseAssets(pattern));
         }
 
         if (baseAssets.isEmpty()) {
-            HytalorPlugin.get().getLogger().at(Level.INFO).log(
-                    "%s    ⚠ No base assets found for patch using base path pattern: " + basePathPattern.getAsString(),
-                    Color.RED
-            );
+            logNoBaseAssets(patterns);
             return;
         }
 
-        if (cachedPatchtoBaseMap.containsKey(path)) {
-            unloadPatch(path, false);
+        addPatch(path, data, baseAssets, refresh);
+    }
+
+    /**
+     * Loads many patches without rebuilding. All their target patterns are resolved together, in a single
+     * pass over the asset catalogue.
+     */
+    private void loadPatches(Map<PatchSource, TreeObject> patches) {
+        PatternResolver<PendingPatch> resolver = new PatternResolver<>();
+        List<PendingPatch> pending = new ArrayList<>(patches.size());
+
+        for (Map.Entry<PatchSource, TreeObject> entry : patches.entrySet()) {
+            List<String> patterns = getTargetPatterns(entry.getValue());
+            if (patterns.isEmpty())
+                continue;
+
+            PendingPatch patch = new PendingPatch(entry.getKey(), entry.getValue(), patterns, new HashMap<>());
+            for (String pattern : patterns) {
+                resolver.add(pattern, patch);
+            }
+            pending.add(patch);
         }
 
-        for (Map.Entry<String, Path> basePath : baseAssets) {
-            addPatchAsset(basePath.getKey(), path);
+        resolver.resolve(cachedBasePathMap.keySet(), (patch, baseName) -> {
+            Path basePath = cachedBasePathMap.get(baseName);
+            if (basePath != null) {
+                patch.baseAssets.put(baseName, basePath);
+            }
+        });
+
+        for (PendingPatch patch : pending) {
+            if (patch.baseAssets.isEmpty()) {
+                logNoBaseAssets(patch.patterns);
+                continue;
+            }
 
-            if (refresh)
-                applyPatches(basePath.getKey());
+            addPatch(patch.source, patch.data, patch.baseAssets.entrySet(), false);
         }
     }
 
-    private void loadPatch_Deprecated(Path path, boolean refresh, JsonObject data) {
-        HytalorPlugin.get().getLogger().at(Level.WARNING).log(
-                "   ⚠ \"BaseAssetPath\" is DEPRECATED, please visit GitHub for more information: https://github.com/HypersonicSharkz/Hytalor?tab=readme-ov-file#-patch-files"
-        );
+    /**
+     * Returns the base asset path patterns of a patch, converting the deprecated {@code BaseAssetPath}.
+     */
+    private static List<String> getTargetPatterns(TreeObject data) {
+        TreeNode deprecatedPattern = data.get("BaseAssetPath");
+        if (deprecatedPattern != null) {
+            HytalorLog.log(Level.WARNING,
+                    "   ⚠ \"BaseAssetPath\" is DEPRECATED, please visit GitHub for more information: https://github.com/HypersonicSharkz/Hytalor?tab=readme-ov-file#-patch-files"
+            );
 
-        JsonElement basePathPattern = data.get("BaseAssetPath");
-        if (basePathPattern == null)
-            return;
+            return List.of("Server/" + deprecatedPattern.asValue().getAsString() + ".json");
+        }
 
-        String pattern = "Server/" + basePathPattern.getAsString() + ".json";
+        TreeNode basePathPattern = data.get("_BaseAssetPath");
+        if (basePathPattern == null)
+            return List.of();
 
-        List<Map.Entry<String, Path>> baseAssets = getBaseAssets(pattern);
+        if (!basePathPattern.isArray())
+            return List.of(basePathPattern.asValue().getAsString());
 
-        if (baseAssets.isEmpty()) {
-            HytalorPlugin.get().getLogger().at(Level.INFO).log(
-                    "%s⚠ No base assets found for patch using base path pattern: " + basePathPattern.getAsString(),
-                    Color.RED
-            );
-            return;
+        List<String> patterns = new ArrayList<>(basePathPattern.asArray().size());
+        for (TreeNode asset : basePathPattern.asArray().asList()) {
+            patterns.add(asset.asValue().getAsString());
         }
+        return patterns;
+    }
 
-        if (cachedPatchtoBaseMap.containsKey(path)) {
-            unloadPatch(path, false);
-        }
+    private static void logNoBaseAssets(List<String> patterns) {
+        HytalorLog.log(Level.INFO,
+                "%s    ⚠ No base assets found for patch using base path pattern: %s",
+                Color.RED, String.join(", ", patterns)
+        );
+    }
+
+    /**
+     * Adds the patch to the base assets. File patches are only loaded with their header, their references are
+     * found when a build first reads the whole patch, see {@link #scanReferences()}.
+     */
+    private void addPatch(PatchSource source, TreeObject data, Collection<Map.Entry<String, Path>> baseAssets, boolean refresh) {
+        List<String> baseNames = new ArrayList<>(baseAssets.size());
 
-        for (Map.Entry<String, Path> basePath : baseAssets) {
-            addPatchAsset(basePath.getKey(), path);
+        ReentrantLock lock = patchLocks.get(source);
+        lock.lock();
+        changeLock.readLock().lock();
+        try {
+            detachPatch(source);
+
+            PatchOrder.Entry entry = createEntry(source, data);
+            for (Map.Entry<String, Path> basePath : baseAssets) {
+                addPatchAsset(basePath.getKey(), entry);
+                baseNames.add(basePath.getKey());
+            }
 
-            if (refresh)
-                applyPatches(basePath.getKey());
+            cachedPatchtoBaseMap.put(source, List.copyOf(baseNames));
+            if (source instanceof PatchSource.FilePatch) {
+                unscannedPatches.add(source);
+            } else {
+                trackReferences(source, data);
+            }
+            version.incrementAndGet();
+        } finally {
+            changeLock.readLock().unlock();
+            lock.unlock();
         }
+
+        if (refresh)
+            rebuild(baseNames);
     }
 
-    public void savePatchAsset(JsonObject combined, Path overridePath) {
+    public void savePatchAsset(TreeObject combined, Path overridePath) {
+        AssetWriteEvent event = new AssetWriteEvent();
+        event.begin();
         try {
             Files.createDirectories(overridePath.getParent());
-            Files.writeString(overridePath, gson.toJson(combined));
+            AssetCodecs.write(combined, overridePath);
+
+            if (event.shouldCommit()) {
+                event.path = overridePath.toString();
+                event.bytes = Files.size(overridePath);
+                event.commit();
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private static byte[] encodePatchAsset(TreeObject combined, Path overridePath) {
+        try {
+            return AssetCodecs.encode(combined, overridePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     public void unloadPatch(Path path, boolean refresh) {
-        List<String> baseNames = cachedPatchtoBaseMap.get(path);
+        unloadPatch(new PatchSource.FilePatch(path), refresh);
+    }
+
+    private void unloadPatch(PatchSource path, boolean refresh) {
+        List<String> baseNames;
+
+        ReentrantLock lock = patchLocks.get(path);
+        lock.lock();
+        changeLock.readLock().lock();
+        try {
+            baseNames = detachPatch(path);
+        } finally {
+            changeLock.readLock().unlock();
+            lock.unlock();
+        }
+
+        if (baseNames != null && refresh)
+            rebuild(baseNames);
+    }
+
+    /**
+     * Removes the patch from every base it applies to, and returns those bases. Must hold the patch's lock and the shared side of the change lock.
+     */
+    private List<String> detachPatch(PatchSource path) {
+        List<String> baseNames = cachedPatchtoBaseMap.remove(path);
         if (baseNames == null)
-            return;
+            return null;
 
-        for (String baseName : baseNames) {
-            List<Path> patches = patchesMap.get(baseName);
-            if (patches != null) {
-                patches.remove(path);
+        PatchOrder.Entry entry = patchEntries.remove(path);
+        if (entry != null) {
+            for (String baseName : baseNames) {
+                patchesMap.computeIfPresent(baseName, (k, patches) -> patches.without(entry));
             }
-
-            if (refresh)
-                applyPatches(baseName);
         }
 
-        cachedPatchtoBaseMap.remove(path);
+        referenceGraph.remove(path);
+        unscannedPatches.remove(path);
+        patchCosts.remove(path);
+        version.incrementAndGet();
+        return baseNames;
     }
 
     private static boolean isJsonFile(@Nonnull Path path) {
@@ -267,99 +568,751 @@ public class PatchManager {
     }
 
     public void applyPatches(String basePathPattern) {
-        List<Map.Entry<String, Path>> baseAssets = getBaseAssets(basePathPattern);
-        for (Map.Entry<String, Path> entry : baseAssets) {
-            applyPatches(entry.getKey(), entry.getValue());
+        List<String> baseNames = new ArrayList<>();
+        for (Map.Entry<String, Path> entry : getBaseAssets(basePathPattern)) {
+            baseNames.add(entry.getKey());
         }
+
+        rebuild(baseNames);
     }
 
     public void applyPatches(String baseName, Path basePath) {
-        long start = System.nanoTime();
-        var logger = HytalorPlugin.get().getLogger();
+        PatchDiagnostics diagnostics = new PatchDiagnostics();
+        try {
+            applyPatches(baseName, basePath, new MergeContext(diagnostics));
+        } finally {
+            reportDiagnostics(diagnostics);
+        }
+    }
 
-        JsonObject combined = JSONUtil.readJSON(basePath);
-        if (combined == null) {
-            HytalorPlugin.get().getLogger().at(Level.INFO).log(
-                    "%s✖ Base asset not found for path: " + baseName,
-                    Color.RED
-            );
-            return;
+    void applyPatches(String baseName, Path basePath, MergeContext context) {
+        scanReferences();
+        pipeline.submit(() -> applyPatches(baseName, basePath, patchesMap.get(baseName), List.of(), context)).join();
+    }
+
+    /**
+     * Builds and writes one base asset, runs as a {@link BuildPipeline} task.
+     */
+    private void applyPatches(String baseName, Path basePath, PatchOrder patches, List<CompletableFuture<Void>> dependencies, MergeContext context) {
+        AssetBuildEvent event = new AssetBuildEvent();
+        int reused = context.diagnostics().count(DiagnosticKind.MERGE_REUSED);
+        event.begin();
+
+        try (var _ = StartupProfiler.span("build", baseName)) {
+            buildAndWrite(baseName, basePath, patches, dependencies, context);
+        } finally {
+            if (event.shouldCommit()) {
+                event.base = baseName;
+                event.patches = patches != null ? patches.size() : 0;
+                event.reused = context.diagnostics().count(DiagnosticKind.MERGE_REUSED) > reused;
+                event.commit();
+            }
         }
+    }
 
-        List<Path> patches = patchesMap.get(baseName);
-        if (patches == null) {
-            HytalorPlugin.get().getLogger().at(Level.WARNING).log(
-                    "• No patches found for base asset path: " + baseName
-            );
-            return;
+    private void buildAndWrite(String baseName, Path basePath, PatchOrder patches, List<CompletableFuture<Void>> dependencies, MergeContext context) {
+        BuildInput input;
+        try (var _ = StartupProfiler.span("read")) {
+            input = readInput(baseName, basePath, patches, context.diagnostics(), pipeline);
         }
 
-        logger.at(Level.INFO).log("══════════════════════════════════════════════════════════════════════════");
+        //Referenced assets have to be written before their values are read, failed ones are read as they are
+        for (CompletableFuture<Void> dependency : dependencies) {
+            dependency.exceptionally(e -> null).join();
+        }
+
+        //Builds of the same base are serialized, so the last one to start is the one written last
+        ReentrantLock lock = baseLocks.get(baseName);
+        lock.lock();
+        try {
+            if (input == null) {
+                builtOutputs.remove(baseName);
+                return;
+            }
+
+            Path overridePath = outputPath.resolve(baseName);
+
+            MergeMemo.Key key;
+            try (var _ = StartupProfiler.span("hash")) {
+                key = pipeline.cpu(() -> memoKey(input, overridePath));
+            }
+
+            MergeMemo.Entry memoized = key != null ? mergeMemo.get(key) : null;
+            TreeObject combined;
+            byte[] encoded;
+
+            if (memoized != null) {
+                PatchDiagnostics diagnostics = context.diagnostics();
+                diagnostics.replay(memoized.events());
+                diagnostics.record(DiagnosticKind.MERGE_REUSED, null);
+                diagnostics.record(DiagnosticKind.BASE_BUILT, System.nanoTime() - input.start);
+
+                combined = memoized.tree();
+                encoded = memoized.bytes();
+            } else {
+                List<PatchDiagnostics.Event> events = context.diagnostics().getEvents();
+                int firstEvent = events.size();
+
+                try (var _ = StartupProfiler.span("merge")) {
+                    combined = pipeline.cpu(() -> merge(baseName, input, context, patchCosts, prefixCheckpoints));
+                }
+
+                try (var _ = StartupProfiler.span("serialize")) {
+                    encoded = pipeline.cpu(() -> encodePatchAsset(combined, overridePath));
+                }
+
+                if (key != null) {
+                    //Kept without the build time and how the merge ran, a reuse records its own
+                    List<PatchDiagnostics.Event> mergeEvents = events.subList(firstEvent, events.size())
+                            .stream()
+                            .filter(event -> event.kind() != DiagnosticKind.BASE_BUILT && event.kind() != DiagnosticKind.MERGE_RESUMED)
+                            .toList();
+                    mergeMemo.put(key, new MergeMemo.Entry(combined, encoded, mergeEvents));
+                }
+            }
+
+            AssetWriteEvent writeEvent = new AssetWriteEvent();
+            writeEvent.begin();
+            try (var _ = StartupProfiler.span("write")) {
+                pipeline.io(() -> {
+                    Files.createDirectories(overridePath.getParent());
+                    return Files.write(overridePath, encoded);
+                });
+            }
+            if (writeEvent.shouldCommit()) {
+                writeEvent.base = baseName;
+                writeEvent.path = overridePath.toString();
+                writeEvent.bytes = encoded.length;
+                writeEvent.commit();
+            }
+            builtOutputs.put(baseName, combined);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the memo key of the build, or null if its result can't be reused.
+     */
+    private MergeMemo.Key memoKey(BuildInput input, Path overridePath) {
+        if (!mergeMemo.isEnabled())
+            return null;
+
+        long[] patchHashes = new long[input.patches.size()];
+        for (int i = 0; i < patchHashes.length; i++) {
+            PatchInput patch = input.patches.get(i);
+
+            //Resolved references depend on other assets, which aren't part of the key
+            if (referenceGraph.hasReferences(patch.source))
+                return null;
+
+            patchHashes[i] = patch.data.contentHash();
+        }
+
+        return new MergeMemo.Key(AssetCodecs.forPath(overridePath), input.base.contentHash(), patchHashes);
+    }
+
+    /**
+     * Builds the base in memory like a rebuild does, resuming from and storing into the checkpoints, without writing
+     * it. Returns null if the base could not be built.
+     */
+    TreeObject buildPatched(String baseName, Path basePath, MergeContext context, PrefixCheckpoints checkpoints) {
+        scanReferences();
+
+        BuildInput input = readInput(baseName, basePath, patchesMap.get(baseName), context.diagnostics(), null);
+        if (input == null)
+            return null;
+
+        return merge(baseName, input, context, null, checkpoints);
+    }
+
+    /**
+     * Builds the bases in memory from one snapshot without writing them, each as its own pipeline task like a
+     * rebuild. Completes with the results in the order of the bases, null where a base could not be built, once every
+     * task has recorded its problems into the diagnostics.
+     */
+    public CompletableFuture<List<TreeObject>> buildAllPatched(List<Map.Entry<String, Path>> bases, PatchDiagnostics diagnostics) {
+        scanReferences();
+
+        Snapshot snapshot = snapshot();
+        TreeObject[] results = new TreeObject[bases.size()];
+        CompletableFuture<?>[] builds = new CompletableFuture[bases.size()];
+        List<PatchDiagnostics> buildDiagnostics = new ArrayList<>();
+
+        for (int i = 0; i < bases.size(); i++) {
+            int index = i;
+            String baseName = bases.get(i).getKey();
+            Path basePath = bases.get(i).getValue();
+            PatchOrder patches = snapshot.patches().get(baseName);
+
+            //Diagnostics aren't thread safe, so each task records into its own
+            PatchDiagnostics taskDiagnostics = new PatchDiagnostics();
+            buildDiagnostics.add(taskDiagnostics);
+
+            builds[i] = pipeline.submit(() -> {
+                BuildInput input = readInput(baseName, basePath, patches, taskDiagnostics, pipeline);
+                if (input != null) {
+                    results[index] = pipeline.cpu(() -> merge(baseName, input, new MergeContext(taskDiagnostics), null, null));
+                }
+            });
+        }
+
+        return CompletableFuture.allOf(builds).whenComplete((_, _) -> {
+            for (PatchDiagnostics taskDiagnostics : buildDiagnostics) {
+                diagnostics.addAll(taskDiagnostics);
+            }
+        }).thenApply(_ -> Arrays.asList(results));
+    }
+
+    /**
+     * Reads the base asset and its patches, going through the pipeline's open file limit when there is one.
+     */
+    private BuildInput readInput(String baseName, Path basePath, PatchOrder patches, PatchDiagnostics diagnostics, BuildPipeline pipeline) {
+        long start = System.nanoTime();
+        diagnostics.setBase(baseName);
+
+        TreeObject base = pipeline != null ? pipeline.io(() -> assetCache.get(basePath)) : assetCache.get(basePath);
+        if (base == null) {
+            diagnostics.record(DiagnosticKind.BASE_READ_FAILED, basePath);
+            return null;
+        }
 
-        logger.at(Level.INFO).log( "Found " + patches.size() + " patches for base asset path: " + baseName + ". Applying patches..." );
+        if (patches == null) {
+            diagnostics.record(DiagnosticKind.NO_PATCHES, null);
+            return null;
+        }
 
-        List<PatchObject> patchesJSON = new ArrayList<>();
-        int failedLoads = 0;
+        List<PatchInput> inputs = new ArrayList<>(patches.size());
+        for (PatchOrder.Entry entry : patches) {
+            PatchSource patch = entry.source();
 
-        for (Path patch : patches) {
-            JsonObject patchData = JSONUtil.readJSON(patch);
+            TreeObject patchData = pipeline != null ? pipeline.io(() -> readPatch(patch)) : readPatch(patch);
             if (patchData == null) {
-                failedLoads++;
-                HytalorPlugin.get().getLogger().at(Level.INFO).log(
-                        "%s   ⚠ Failed to read patch: " + patch,
-                        Color.RED
-                );
+                diagnostics.setPatch(patch);
+                diagnostics.record(DiagnosticKind.PATCH_READ_FAILED, null);
                 continue;
             }
 
-            patchesJSON.add(new PatchObject(patchData, patch));
+            inputs.add(new PatchInput(patch, patchData));
         }
 
-        patchesJSON.sort((a, b) -> {
-            int weightA = a.patch.has("_priority") ? a.patch.get("_priority").getAsInt() : 0;
-            int weightB = b.patch.has("_priority") ? b.patch.get("_priority").getAsInt() : 0;
+        diagnostics.setPatch(null);
+        return new BuildInput(base, inputs, start);
+    }
 
-            return Integer.compare(weightB, weightA);
-        });
+    /**
+     * Merges the patches into the base. The cost of each patch is added to the costs, and the merge resumes from and
+     * stores checkpoints, unless they are null.
+     */
+    private TreeObject merge(String baseName, BuildInput input, MergeContext context, PatchCosts costs, PrefixCheckpoints checkpoints) {
+        PatchDiagnostics diagnostics = context.diagnostics();
+        diagnostics.setBase(baseName);
+
+        long[] chain = checkpoints != null && checkpoints.isEnabled() ? prefixHashes(input) : null;
+        PrefixCheckpoints.Checkpoint resumed = chain != null ? checkpoints.find(baseName, chain) : null;
+
+        List<PatchDiagnostics.Event> events = diagnostics.getEvents();
+        int firstEvent = events.size();
+
+        TreeObject combined = input.base;
+        int first = 0;
+        if (resumed != null) {
+            diagnostics.replay(resumed.events());
+            combined = resumed.tree();
+            first = resumed.length();
+        }
 
-        int applied = 0;
-        for (PatchObject patchData : patchesJSON) {
-            logger.at(Level.INFO).log(
-                    "%s   ✔ Applying patch: " + QueryUtil.getFullPath(patchData.path),
-                    Color.GREEN
-            );
+        Map<String, TreeObject> referencedAssets = new HashMap<>(); //Each referenced asset is looked up once per build
+        List<PendingCheckpoint> pending = new ArrayList<>();
 
-            JSONUtil.deepMerge(patchData.patch, combined);
+        //Patches are kept in apply order, highest priority first
+        for (int i = first; i < input.patches.size(); i++) {
+            PatchInput patch = input.patches.get(i);
+            diagnostics.setPatch(patch.source);
+
+            long patchStart = System.nanoTime();
+            long queries = context.getQueries();
+            long elementsScanned = context.getElementsScanned();
+
+            TreeObject patchData = patch.data;
+            if (referenceGraph.hasReferences(patch.source)) {
+                patchData = JSONUtil.resolveReferences(patchData, name -> name.equals(baseName) ? input.base : referencedAssets.computeIfAbsent(name, this::getReferencedAsset), context);
+            }
+
+            combined = JSONUtil.deepMerge(patchData, combined, context);
+
+            if (costs != null) {
+                costs.recordMerge(patch.source, System.nanoTime() - patchStart,
+                        context.getQueries() - queries, context.getElementsScanned() - elementsScanned);
+            }
 
-            applied++;
+            diagnostics.record(DiagnosticKind.PATCH_APPLIED, null);
+
+            //The full merge isn't a checkpoint, the merge memo keeps it
+            int length = i + 1;
+            if (chain != null && length < chain.length && length < input.patches.size()) {
+                pending.add(new PendingCheckpoint(length, combined, events.size()));
+            }
         }
 
-        long duration = System.nanoTime() - start;
+        diagnostics.setPatch(null);
 
-        logger.at(Level.INFO).log(
-                "Patches Applied — base=%s | applied=" + Color.GREEN + "%d" + Color.RESET +" | failed="+ (failedLoads > 0 ? Color.RED : "") + "%d" + Color.RESET +" | time=%s",
-                baseName,
-                applied,
-                failedLoads,
-                FormatUtil.nanosToString(duration)
-        );
+        if (chain != null) {
+            List<PatchDiagnostics.Event> merged = List.copyOf(events.subList(firstEvent, events.size()));
+            List<PrefixCheckpoints.Checkpoint> added = new ArrayList<>(pending.size());
+            for (PendingCheckpoint checkpoint : pending) {
+                added.add(new PrefixCheckpoints.Checkpoint(checkpoint.length, chain[checkpoint.length], checkpoint.tree,
+                        merged.subList(0, checkpoint.eventEnd - firstEvent)));
+            }
+            checkpoints.put(baseName, chain, added);
+        }
 
-        Path overridePath = HytalorPlugin.OVERRIDES_TEMP_PATH.resolve(baseName);
+        if (resumed != null)
+            diagnostics.record(DiagnosticKind.MERGE_RESUMED, resumed.length());
+        diagnostics.record(DiagnosticKind.BASE_BUILT, System.nanoTime() - input.start);
 
-        savePatchAsset(combined, overridePath);
+        return combined;
+    }
+
+    /**
+     * Returns the hashes of the prefixes of the patches that can be resumed. Those end before the first patch with
+     * references, since resolved references depend on other assets.
+     */
+    private long[] prefixHashes(BuildInput input) {
+        int length = 0;
+        while (length < input.patches.size() && !referenceGraph.hasReferences(input.patches.get(length).source)) {
+            length++;
+        }
+
+        long[] chain = new long[length + 1];
+        chain[0] = input.base.contentHash();
+        for (int i = 0; i < length; i++) {
+            chain[i + 1] = PrefixCheckpoints.chain(chain[i], input.patches.get(i).data.contentHash());
+        }
+        return chain;
+    }
+
+    /**
+     * Returns the names of patched base assets matching the pattern, and where they are read from.
+     */
+    public List<Map.Entry<String, Path>> getPatchedBaseAssets(String basePathPattern) {
+        return getBaseAssets(basePathPattern)
+                .stream()
+                .filter(entry -> patchesMap.containsKey(entry.getKey()))
+                .toList();
+    }
+
+    /**
+     * Returns the asset that is currently live for the base: the last written override, or the base itself if it
+     * has not been overridden.
+     */
+    public TreeObject getCurrentOutput(String baseName, Path basePath) {
+        TreeObject output = builtOutputs.get(baseName);
+        if (output != null)
+            return output;
+
+        Path overridePath = outputPath.resolve(baseName);
+        if (Files.isRegularFile(overridePath)) {
+            output = assetCache.get(overridePath);
+            if (output != null)
+                return output;
+        }
+
+        return assetCache.get(basePath);
     }
 
     public void applyAllPatches() {
-        for (String basePath : patchesMap.keySet()) {
-            applyPatches(basePath);
+        loadRegisteredPatches();
+
+        patchesApplied = true;
+        rebuild(new ArrayList<>(patchesMap.keySet()));
+    }
+
+    /**
+     * Uses the prebuilt overrides if they were built from the loaded assets and patches, and applies every patch
+     * otherwise.
+     */
+    public void applyPrebuiltOrAllPatches(Path prebuiltPath) {
+        if (!applyPrebuiltPatches(prebuiltPath)) {
+            applyAllPatches();
+        }
+    }
+
+    /**
+     * Uses the overrides of a {@link com.hypersonicsharkz.cli.HytalorBuild headless build} instead of building them,
+     * if they were built from the same assets and patches as the loaded ones. Returns false if they weren't, then
+     * the patches still have to be applied.
+     */
+    public boolean applyPrebuiltPatches(Path prebuiltPath) {
+        String prebuilt = PrebuiltPack.readFingerprint(prebuiltPath);
+        if (prebuilt == null)
+            return false;
+
+        loadRegisteredPatches();
+
+        String fingerprint;
+        try (var _ = StartupProfiler.span("fingerprint")) {
+            fingerprint = fingerprint();
         }
 
-        HytalorPlugin.get().getLogger().at(Level.INFO).log("══════════════════════════════════════════════════════════════════════════");
+        if (!fingerprint.equals(prebuilt)) {
+            HytalorLog.log(Level.INFO, "Prebuilt overrides at %s were built from other assets or patches, applying patches", prebuiltPath);
+            return false;
+        }
+
+        try (var _ = StartupProfiler.span("copy prebuilt")) {
+            PrebuiltPack.copyInto(prebuiltPath, outputPath);
+        } catch (IOException e) {
+            HytalorLog.log(Level.WARNING, "Failed to copy prebuilt overrides from " + prebuiltPath + ", applying patches", e);
+            return false;
+        }
+
+        patchesApplied = true;
+        HytalorLog.log(Level.INFO, "Using prebuilt overrides from %s", prebuiltPath);
+        return true;
+    }
+
+    private void loadRegisteredPatches() {
+        Map<PatchSource, TreeObject> registered = new LinkedHashMap<>();
+        synchronized (memoryPatches) {
+            for (Map.Entry<String, TreeObject> entry : memoryPatches.entrySet()) {
+                registered.put(new PatchSource.MemoryPatch(entry.getKey()), entry.getValue());
+            }
+        }
+
+        loadPatches(registered);
+    }
+
+    /**
+     * Returns a fingerprint of everything the overrides are built from: this build of Hytalor, the patched base
+     * assets, their patches in apply order and the assets those reference. Only content is hashed, not paths, so
+     * the same assets read from a zip or a directory have the same fingerprint.
+     */
+    public String fingerprint() {
+        scanReferences();
+        Snapshot snapshot = snapshot();
+
+        //Base and referenced files are read in parallel, patches are read once however many bases they apply to
+        Set<String> referenced = new TreeSet<>();
+        Set<PatchSource> patches = new HashSet<>();
+        for (PatchOrder order : snapshot.patches().values()) {
+            for (PatchOrder.Entry entry : order) {
+                patches.add(entry.source());
+                referenced.addAll(referenceGraph.getReferences(entry.source()));
+            }
+        }
+
+        Map<Object, String> checksums = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> reads = new ArrayList<>();
+        for (String name : snapshot.patches().keySet()) {
+            reads.add(pipeline.submit(() -> checksums.put(name, pipeline.io(() -> checksum(cachedBasePathMap.get(name))))));
+        }
+        for (String name : referenced) {
+            reads.add(pipeline.submit(() -> checksums.putIfAbsent(name, pipeline.io(() -> checksum(cachedBasePathMap.get(name))))));
+        }
+        for (PatchSource source : patches) {
+            reads.add(pipeline.submit(() -> checksums.put(source, pipeline.io(() -> checksum(source)))));
+        }
+        CompletableFuture.allOf(reads.toArray(new CompletableFuture[0])).join();
+
+        MessageDigest digest = sha256();
+        update(digest, "hytalor " + pipeline.io(() -> checksum(getCodePath())));
+        for (String baseName : new TreeSet<>(snapshot.patches().keySet())) {
+            update(digest, "base " + baseName + " " + checksums.get(baseName));
+            for (PatchOrder.Entry entry : snapshot.patches().get(baseName)) {
+                update(digest, "patch " + checksums.get(entry.source()));
+            }
+        }
+        for (String name : referenced) {
+            update(digest, "ref " + name + " " + checksums.get(name));
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String line) {
+        digest.update((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String checksum(PatchSource source) throws IOException {
+        if (source instanceof PatchSource.MemoryPatch memoryPatch) {
+            TreeObject data = memoryPatches.get(memoryPatch.id());
+            if (data == null)
+                return "none";
+
+            MessageDigest digest = sha256();
+            update(digest, JsonTree.toGson(data).toString());
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        return checksum(((PatchSource.FilePatch) source).path());
+    }
+
+    /**
+     * Returns the SHA-256 of the file, or "none" if there is none.
+     */
+    private static String checksum(Path path) throws IOException {
+        if (path == null || !Files.isRegularFile(path))
+            return "none";
+
+        MessageDigest digest = sha256();
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Path getCodePath() {
+        try {
+            CodeSource codeSource = PatchManager.class.getProtectionDomain().getCodeSource();
+            return codeSource != null ? Path.of(codeSource.getLocation().toURI()) : null;
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            return null;
+        }
+    }
+
+    public Path getOutputPath() {
+        return outputPath;
+    }
+
+    public void setOutputPath(Path outputPath) {
+        this.outputPath = outputPath;
+    }
+
+    /**
+     * Registers a patch from code, it works exactly like a patch file with the same content.
+     * Registering a patch with an id that is already used updates that patch.
+     * <p>
+     * Before the initial build the patch is only stored, afterwards the affected assets are rebuilt right away.
+     */
+    public void registerPatch(String id, JsonObject patch) {
+        TreeObject data = JsonTree.fromGson(patch);
+        memoryPatches.put(id, data);
+
+        if (!patchesApplied)
+            return;
+
+        //Assets the previous version targeted but this one doesn't have to be rebuilt without it
+        PatchSource source = new PatchSource.MemoryPatch(id);
+        List<String> previous = cachedPatchtoBaseMap.get(source);
+        unloadPatch(source, false);
+
+        loadMemoryPatch(id, data, true);
+
+        if (previous != null) {
+            List<String> current = cachedPatchtoBaseMap.getOrDefault(source, List.of());
+            rebuild(previous.stream().filter(baseName -> !current.contains(baseName)).toList());
+        }
+    }
+
+    public void registerPatch(String id, PatchBuilder patch) {
+        registerPatch(id, patch.build());
+    }
+
+    /**
+     * Removes a patch registered from code, and rebuilds the assets it was applied to.
+     */
+    public void removePatch(String id) {
+        if (memoryPatches.remove(id) == null)
+            return;
+
+        unloadPatch(new PatchSource.MemoryPatch(id), patchesApplied);
+    }
+
+    public boolean hasPatch(String id) {
+        return memoryPatches.containsKey(id);
+    }
+
+    private void loadMemoryPatch(String id, TreeObject data, boolean refresh) {
+        HytalorLog.log(Level.FINE, "Loading Patch: memory:%s", id);
+
+        loadPatch(new PatchSource.MemoryPatch(id), data, refresh);
+    }
+
+    private void trackReferences(PatchSource source, TreeObject data) {
+        Set<String> references = new HashSet<>();
+        JSONUtil.collectReferences(data, references);
+        referenceGraph.setReferences(source, references);
+    }
+
+    /**
+     * Reads every patch loaded since the last build, and tracks the assets it references. Any patch can make an asset
+     * depend on another, so this has to happen before a build is planned. The patches are read in parallel, into the
+     * {@link AssetCache} the builds read them from.
+     */
+    private void scanReferences() {
+        if (unscannedPatches.isEmpty())
+            return;
+
+        List<CompletableFuture<Void>> scans = new ArrayList<>();
+        for (PatchSource source : List.copyOf(unscannedPatches)) {
+            scans.add(pipeline.submit(() -> scanReferences(source)));
+        }
+
+        CompletableFuture.allOf(scans.toArray(new CompletableFuture[0])).join();
+    }
+
+    private void scanReferences(PatchSource source) {
+        //Under the patch's lock, so a patch reloaded meanwhile isn't tracked with the references of its old content
+        ReentrantLock lock = patchLocks.get(source);
+        lock.lock();
+        try {
+            if (!unscannedPatches.contains(source))
+                return;
+
+            TreeObject data = pipeline.io(() -> readPatch(source));
+            if (data != null) {
+                trackReferences(source, data);
+            }
+            unscannedPatches.remove(source);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the patched state of a referenced asset, or the asset itself if it has no patches.
+     * Build order makes sure referenced assets are built first.
+     */
+    private TreeObject getReferencedAsset(String name) {
+        Path path = cachedBasePathMap.get(name);
+        if (path == null)
+            return builtOutputs.get(name);
+
+        //Overrides copied from a prebuilt pack were never built here, so they are read back
+        return patchesMap.containsKey(name) ? getCurrentOutput(name, path) : assetCache.get(path);
+    }
+
+    private TreeObject readPatch(PatchSource source) {
+        if (source instanceof PatchSource.MemoryPatch memoryPatch) {
+            return memoryPatches.get(memoryPatch.id());
+        }
+
+        return assetCache.get(((PatchSource.FilePatch) source).path());
+    }
+
+    /**
+     * Rebuilds the given base assets, and logs one summary of everything that happened.
+     * Every base is its own pipeline task, and waits only for the assets it references.
+     */
+    private void rebuild(Collection<String> baseNames) {
+        try (var _ = StartupProfiler.span("rebuild", baseNames.size() + " assets")) {
+            rebuildAll(baseNames);
+        }
+    }
+
+    private void rebuildAll(Collection<String> baseNames) {
+        try (var _ = StartupProfiler.span("scan references", unscannedPatches.size() + " patches")) {
+            scanReferences();
+        }
+
+        PatchDiagnostics diagnostics = new PatchDiagnostics();
+        ReferenceGraph.Plan plan = referenceGraph.plan(baseNames, cachedPatchtoBaseMap, diagnostics);
+        Snapshot snapshot = snapshot(plan.order());
+
+        Map<String, CompletableFuture<Void>> builds = new HashMap<>();
+        List<PatchDiagnostics> buildDiagnostics = new ArrayList<>();
+
+        for (String baseName : plan.order()) {
+            Path basePath = cachedBasePathMap.get(baseName);
+            if (basePath == null)
+                continue;
+
+            //Tasks are submitted in build order, so referenced assets already have a task unless they are in a cycle
+            List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+            for (String dependency : plan.dependenciesOf(baseName)) {
+                CompletableFuture<Void> build = builds.get(dependency);
+                if (build != null && !dependency.equals(baseName)) {
+                    dependencies.add(build);
+                }
+            }
+
+            //Diagnostics aren't thread safe, so each task records into its own
+            PatchDiagnostics taskDiagnostics = new PatchDiagnostics();
+            buildDiagnostics.add(taskDiagnostics);
+
+            PatchOrder patches = snapshot.patches().get(baseName);
+            builds.put(baseName, pipeline.submit(() -> applyPatches(baseName, basePath, patches, dependencies, new MergeContext(taskDiagnostics))));
+        }
+
+        try {
+            CompletableFuture.allOf(builds.values().toArray(new CompletableFuture[0])).join();
+        } finally {
+            for (PatchDiagnostics taskDiagnostics : buildDiagnostics) {
+                diagnostics.addAll(taskDiagnostics);
+            }
+            reportDiagnostics(diagnostics);
+
+            if (mergeMemo.isEnabled())
+                HytalorLog.log(Level.FINE, "Merge memo: %s", mergeMemo);
+            if (prefixCheckpoints.isEnabled())
+                HytalorLog.log(Level.FINE, "Prefix checkpoints: %s", prefixCheckpoints);
+        }
+    }
+
+    private void reportDiagnostics(PatchDiagnostics diagnostics) {
+        if (diagnostics.isEmpty())
+            return;
+
+        Level level = diagnostics.problemCount() > 0 ? Level.WARNING : Level.INFO;
+        for (String line : diagnostics.summarize()) {
+            HytalorLog.log(level, line);
+        }
+
+        if (HytalorConfig.DUMP_DIAGNOSTICS) {
+            try {
+                diagnostics.dump(HytalorConfig.DIAGNOSTICS_PATH);
+                HytalorLog.log(Level.INFO, "Full diagnostics written to %s", HytalorConfig.DIAGNOSTICS_PATH);
+            } catch (IOException e) {
+                HytalorLog.log(Level.WARNING, "Failed to write Hytalor diagnostics to " + HytalorConfig.DIAGNOSTICS_PATH, e);
+            }
+        }
     }
 
     private void cacheAssetPaths(AssetPack pack) {
-        Path path = pack.getRoot();
+        Path root = pack.getRoot();
+        String key = AssetCatalogue.key(pack);
+        if (key == null) {
+            cacheAssetPaths(root);
+            return;
+        }
+
+        Path file = AssetCatalogue.pathFor(HytalorConfig.CACHE_PATH, pack.getName());
+        List<String> paths = AssetCatalogue.read(file, key);
+        if (paths == null) {
+            paths = walkAssetPaths(root);
+            try {
+                AssetCatalogue.write(file, key, paths);
+            } catch (IOException e) {
+                HytalorLog.log(Level.WARNING, "Failed to write asset catalogue " + file, e);
+            }
+        }
+
+        for (String relativePath : paths) {
+            cachedBasePathMap.put(relativePath, root.resolve(relativePath));
+        }
+    }
+
+    private void cacheAssetPaths(Path path) {
+        for (String relativePath : walkAssetPaths(path)) {
+            cachedBasePathMap.put(relativePath, path.resolve(relativePath));
+        }
+    }
 
+    private static List<String> walkAssetPaths(Path path) {
+        List<String> paths = new ArrayList<>();
         try {
             if (Files.isDirectory(path)) {
                 Files.walkFileTree(path, FileUtil.DEFAULT_WALK_TREE_OPTIONS_SET, Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
@@ -367,8 +1320,7 @@ public class PatchManager {
                     public FileVisitResult visitFile(@Nonnull Path file, @Nonnull BasicFileAttributes attrs) {
                         if (PatchManager.isJsonFile(file) && !PatchManager.isIgnoredFile(file)) {
                             String relativePath = path.relativize(file).toString();
-                            relativePath = relativePath.replace("\\", "/");
-                            cachedBasePathMap.put(relativePath, file);
+                            paths.add(relativePath.replace("\\", "/"));
                         }
 
                         return FileVisitResult.CONTINUE;
@@ -378,8 +1330,22 @@ public class PatchManager {
         } catch (IOException e) {
             throw new SkipSentryException(new RuntimeException(e));
         }
+        return paths;
     }
 
+    /**
+     * Patches of each base asset at one {@link #getVersion() version} of the loaded patches.
+     */
+    public record Snapshot(long version, Map<String, PatchOrder> patches) {}
+
+    private record PendingPatch(PatchSource source, TreeObject data, List<String> patterns, Map<String, Path> baseAssets) {}
+
+    private record BuildInput(TreeObject base, List<PatchInput> patches, long start) {}
+
+    private record PatchInput(PatchSource source, TreeObject data) {}
+
+    private record PendingCheckpoint(int length, TreeObject tree, int eventEnd) {}
+
     public static class PatchAssetMonitorHandler implements AssetMonitorHandler {
         private final String key;
         private final PatchManager overloadManager;
@@ -396,22 +1362,35 @@ public class PatchManager {
 
         @Override
         public boolean test(Path path, EventKind eventKind) {
-            return path.toString().endsWith(".json");
+            String extension = QueryUtil.getExtension(path.getFileName().toString());
+            return extension != null && JSONUtil.VALID_JSON_EXTENSIONS.contains(extension);
         }
 
         @Override
         public void accept(Map<Path, EventKind> pathEventKindMap) {
+            PatchMonitorEvent event = new PatchMonitorEvent();
+            event.begin();
+
+            int changed = 0;
+            int deleted = 0;
             for (Map.Entry<Path, EventKind> entry : pathEventKindMap.entrySet()) {
                 Path path = entry.getKey();
                 EventKind eventKind = entry.getValue();
                 if (eventKind == EventKind.ENTRY_CREATE || eventKind == EventKind.ENTRY_MODIFY) {
                     overloadManager.loadPatch(path, true);
+                    changed++;
                 } else if (eventKind == EventKind.ENTRY_DELETE) {
                     overloadManager.unloadPatch(path, true);
+                    deleted++;
                 }
             }
+
+            if (event.shouldCommit()) {
+                event.monitor = key;
+                event.changed = changed;
+                event.deleted = deleted;
+                event.commit();
+            }
         }
     }
-
-    private record PatchObject(JsonObject patch, Path path) {}
 }
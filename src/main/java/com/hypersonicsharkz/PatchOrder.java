@@ -0,0 +1,170 @@
+package com.hypersonicsharkz;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable set of the patches applied to one base asset, in the order they are applied: highest
+ * {@code _priority} first, and load order between patches with the same priority.
+ * <p>
+ * Backed by a persistent AVL tree, so adding or removing a patch is O(log n) and shares everything else with
+ * the previous version, and builds just iterate it without sorting.
+ */
+public final class PatchOrder implements Iterable<PatchOrder.Entry> {
+    public static final PatchOrder EMPTY = new PatchOrder(null);
+
+    private final Node root;
+
+    private PatchOrder(Node root) {
+        this.root = root;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Height of the tree, at most about 1.44 log2(n) while it stays balanced.
+     */
+    int height() {
+        return height(root);
+    }
+
+    public PatchOrder with(Entry entry) {
+        Node newRoot = insert(root, entry);
+        return newRoot == root ? this : new PatchOrder(newRoot);
+    }
+
+    public PatchOrder without(Entry entry) {
+        Node newRoot = delete(root, entry);
+        return newRoot == root ? this : new PatchOrder(newRoot);
+    }
+
+    @Override
+    public Iterator<Entry> iterator() {
+        Deque<Node> stack = new ArrayDeque<>();
+        for (Node node = root; node != null; node = node.left) {
+            stack.push(node);
+        }
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public Entry next() {
+                if (stack.isEmpty())
+                    throw new NoSuchElementException();
+
+                Node node = stack.pop();
+                for (Node child = node.right; child != null; child = child.left) {
+                    stack.push(child);
+                }
+                return node.entry;
+            }
+        };
+    }
+
+    /**
+     * A loaded patch. The sequence is unique per patch, so no two entries compare equal.
+     */
+    public record Entry(int priority, long sequence, PatchSource source) implements Comparable<Entry> {
+        @Override
+        public int compareTo(Entry other) {
+            int compare = Integer.compare(other.priority, priority);
+            return compare != 0 ? compare : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private record Node(Entry entry, Node left, Node right, int height, int size) {
+        static Node of(Entry entry, Node left, Node right) {
+            return new Node(entry, left, right, Math.max(PatchOrder.height(left), PatchOrder.height(right)) + 1,
+                    PatchOrder.size(left) + PatchOrder.size(right) + 1);
+        }
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node insert(Node node, Entry entry) {
+        if (node == null)
+            return Node.of(entry, null, null);
+
+        int compare = entry.compareTo(node.entry);
+        if (compare == 0)
+            return node.entry.equals(entry) ? node : Node.of(entry, node.left, node.right);
+
+        if (compare < 0)
+            return balance(node.entry, insert(node.left, entry), node.right);
+        return balance(node.entry, node.left, insert(node.right, entry));
+    }
+
+    private static Node delete(Node node, Entry entry) {
+        if (node == null)
+            return null;
+
+        int compare = entry.compareTo(node.entry);
+        if (compare < 0) {
+            Node left = delete(node.left, entry);
+            return left == node.left ? node : balance(node.entry, left, node.right);
+        }
+        if (compare > 0) {
+            Node right = delete(node.right, entry);
+            return right == node.right ? node : balance(node.entry, node.left, right);
+        }
+
+        if (node.left == null)
+            return node.right;
+        if (node.right == null)
+            return node.left;
+
+        //Replace with the next entry in order
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.entry, node.left, delete(node.right, successor.entry));
+    }
+
+    private static Node balance(Entry entry, Node left, Node right) {
+        int difference = height(left) - height(right);
+
+        if (difference > 1) {
+            if (height(left.left) < height(left.right)) {
+                left = rotateLeft(left);
+            }
+            return rotateRight(Node.of(entry, left, right));
+        }
+        if (difference < -1) {
+            if (height(right.right) < height(right.left)) {
+                right = rotateRight(right);
+            }
+            return rotateLeft(Node.of(entry, left, right));
+        }
+
+        return Node.of(entry, left, right);
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        return Node.of(right.entry, Node.of(node.entry, node.left, right.left), right.right);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        return Node.of(left.entry, left.left, Node.of(node.entry, left.right, node.right));
+    }
+}
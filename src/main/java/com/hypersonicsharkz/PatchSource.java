@@ -0,0 +1,28 @@
+package com.hypersonicsharkz;
+
+import java.nio.file.Path;
+
+/**
+ * Where a patch comes from. Identifies the patch in {@link PatchManager}, so a patch loaded again replaces itself.
+ */
+public interface PatchSource {
+    /**
+     * Patch read from a file in a pack's patch directory.
+     */
+    record FilePatch(Path path) implements PatchSource {
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+    }
+
+    /**
+     * Patch registered through code, see {@link PatchManager#registerPatch(String, com.google.gson.JsonObject)}.
+     */
+    record MemoryPatch(String id) implements PatchSource {
+        @Override
+        public String toString() {
+            return "memory:" + id;
+        }
+    }
+}
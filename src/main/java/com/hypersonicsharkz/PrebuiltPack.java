@@ -0,0 +1,111 @@
+package com.hypersonicsharkz;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Overrides built ahead of time by {@link com.hypersonicsharkz.cli.HytalorBuild}, laid out like the overrides pack,
+ * with a manifest holding the {@link PatchManager#fingerprint() fingerprint} of what they were built from.
+ */
+public final class PrebuiltPack {
+    public static final String MANIFEST_NAME = "HytalorBuild.json";
+
+    private PrebuiltPack() {}
+
+    /**
+     * Returns the fingerprint in the manifest, or null if there is no prebuilt pack at the path.
+     */
+    public static String readFingerprint(Path root) {
+        Path manifestPath = root.resolve(MANIFEST_NAME);
+        if (!Files.isRegularFile(manifestPath))
+            return null;
+
+        try (BufferedReader reader = Files.newBufferedReader(manifestPath, StandardCharsets.UTF_8)) {
+            JsonObject manifest = JsonParser.parseReader(reader).getAsJsonObject();
+            return manifest.has("Fingerprint") ? manifest.get("Fingerprint").getAsString() : null;
+        } catch (IOException | RuntimeException e) {
+            HytalorLog.log(Level.WARNING, "Failed to read prebuilt overrides manifest at " + manifestPath, e);
+            return null;
+        }
+    }
+
+    public static void writeManifest(Path root, String fingerprint, int assetCount) throws IOException {
+        JsonObject manifest = new JsonObject();
+        manifest.addProperty("Fingerprint", fingerprint);
+        manifest.addProperty("Assets", assetCount);
+        manifest.addProperty("BuiltAt", Instant.now().toString());
+
+        Files.writeString(root.resolve(MANIFEST_NAME), manifest.toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Empties the directory so a build can be written into it. Only directories that are empty or hold a previous
+     * build are emptied, anything else is most likely a wrong path.
+     */
+    public static void prepare(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            Files.createDirectories(root);
+            return;
+        }
+
+        boolean empty;
+        try (Stream<Path> entries = Files.list(root)) {
+            empty = entries.findAny().isEmpty();
+        }
+
+        if (empty)
+            return;
+
+        if (!Files.isRegularFile(root.resolve(MANIFEST_NAME)))
+            throw new IOException(root + " is not empty and holds no previous build");
+
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (!dir.equals(root))
+                    Files.delete(dir);
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Copies the overrides, without the manifest, into the target directory.
+     */
+    public static void copyInto(Path root, Path target) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(root.relativize(dir).toString().replace("\\", "/")));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                //Separators are normalized, the target may be on another file system
+                String relativePath = root.relativize(file).toString().replace("\\", "/");
+                if (!relativePath.equals(MANIFEST_NAME)) {
+                    Files.copy(file, target.resolve(relativePath), StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
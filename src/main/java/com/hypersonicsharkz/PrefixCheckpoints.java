@@ -0,0 +1,118 @@
+package com.hypersonicsharkz;
+
+import com.hypersonicsharkz.diagnostics.PatchDiagnostics;
+import com.hypersonicsharkz.tree.TreeObject;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Merged states of a base asset after the first patches of its apply order, so a rebuild after one patch changed
+ * only reapplies the patches from that one on.
+ * <p>
+ * A prefix is identified by a hash chained over the {@link com.hypersonicsharkz.tree.TreeNode#contentHash() content
+ * hashes} of the base and its patches in apply order, so a checkpoint only matches while everything before it is
+ * unchanged, and stays valid across reloads. Trees share every node a patch didn't touch, so a checkpoint only costs
+ * what its patch changed. Only the most recently built bases are kept, each with a limited number of checkpoints
+ * spread over its patches. Safe to use from several threads.
+ */
+public class PrefixCheckpoints {
+    static final int MAX_PER_BASE = 16;
+
+    private final int maxBases;
+    private final LinkedHashMap<String, List<Checkpoint>> bases = new LinkedHashMap<>(16, 0.75f, true); //In access order
+
+    private long resumes;
+    private long skippedPatches;
+
+    public PrefixCheckpoints(int maxBases) {
+        this.maxBases = maxBases;
+    }
+
+    public boolean isEnabled() {
+        return maxBases > 0;
+    }
+
+    /**
+     * Returns the hash of a prefix extended by one more patch.
+     */
+    public static long chain(long prefixHash, long patchHash) {
+        long hash = (prefixHash ^ patchHash) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Returns the checkpoint of the longest prefix of the chain, or null. {@code chain[n]} is the hash after the
+     * first n patches, and {@code chain[0]} the hash of the base.
+     */
+    public synchronized Checkpoint find(String baseName, long[] chain) {
+        List<Checkpoint> checkpoints = bases.get(baseName);
+        if (checkpoints == null)
+            return null;
+
+        for (int i = checkpoints.size() - 1; i >= 0; i--) {
+            Checkpoint checkpoint = checkpoints.get(i);
+            if (checkpoint.length < chain.length && checkpoint.hash == chain[checkpoint.length]) {
+                resumes++;
+                skippedPatches += checkpoint.length;
+                return checkpoint;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores the checkpoints of a merge, ordered by length. Previous checkpoints of the base are kept where they
+     * still match the chain.
+     */
+    public synchronized void put(String baseName, long[] chain, List<Checkpoint> added) {
+        List<Checkpoint> candidates = new ArrayList<>();
+        List<Checkpoint> previous = bases.getOrDefault(baseName, List.of());
+        int firstAdded = added.isEmpty() ? Integer.MAX_VALUE : added.getFirst().length;
+        for (Checkpoint checkpoint : previous) {
+            if (checkpoint.length < firstAdded && checkpoint.length < chain.length && checkpoint.hash == chain[checkpoint.length]) {
+                candidates.add(checkpoint);
+            }
+        }
+        candidates.addAll(added);
+
+        if (candidates.isEmpty()) {
+            bases.remove(baseName);
+            return;
+        }
+
+        //Keep the last one, and others evenly spaced before it
+        List<Checkpoint> kept = candidates;
+        if (candidates.size() > MAX_PER_BASE) {
+            int step = (candidates.size() + MAX_PER_BASE - 1) / MAX_PER_BASE;
+            kept = new ArrayList<>(MAX_PER_BASE);
+            for (int i = (candidates.size() - 1) % step; i < candidates.size(); i += step) {
+                kept.add(candidates.get(i));
+            }
+        }
+        bases.put(baseName, List.copyOf(kept));
+
+        Iterator<List<Checkpoint>> iterator = bases.values().iterator();
+        while (bases.size() > maxBases && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        bases.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "resumes=" + resumes + ", skipped patches=" + skippedPatches + ", bases=" + bases.size() + "/" + maxBases;
+    }
+
+    /**
+     * The merged tree after the first {@code length} patches, and the diagnostics those patches recorded, so a
+     * resumed merge reports the same.
+     */
+    public record Checkpoint(int length, long hash, TreeObject tree, List<PatchDiagnostics.Event> events) {}
+}
@@ -0,0 +1,117 @@
+package com.hypersonicsharkz;
+
+import com.hypersonicsharkz.diagnostics.DiagnosticKind;
+import com.hypersonicsharkz.diagnostics.PatchDiagnostics;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which assets the patches reference with {@code _ref}, so referenced assets are built before the assets
+ * using their values, and rebuilding an asset also rebuilds everything that depends on it.
+ * <p>
+ * Only patches that contain references are stored, so without references the build order is just the given order.
+ */
+public class ReferenceGraph {
+    private final Map<PatchSource, Set<String>> patchReferences = new ConcurrentHashMap<>(); //Cache for patch -> referenced assets
+
+    public void setReferences(PatchSource patch, Set<String> references) {
+        if (references.isEmpty()) {
+            patchReferences.remove(patch);
+        } else {
+            patchReferences.put(patch, Set.copyOf(references));
+        }
+    }
+
+    public boolean hasReferences(PatchSource patch) {
+        return patchReferences.containsKey(patch);
+    }
+
+    public Set<String> getReferences(PatchSource patch) {
+        return patchReferences.getOrDefault(patch, Set.of());
+    }
+
+    public void remove(PatchSource patch) {
+        patchReferences.remove(patch);
+    }
+
+    public void clear() {
+        patchReferences.clear();
+    }
+
+    /**
+     * Plans a rebuild of the given base assets: adds every asset depending on them, and orders them so that
+     * referenced assets come first. Cycles are recorded into the diagnostics, and the assets in them are
+     * built against the previous output of the asset closing the cycle.
+     */
+    public Plan plan(Collection<String> baseNames, Map<PatchSource, List<String>> patchBases, PatchDiagnostics diagnostics) {
+        if (patchReferences.isEmpty())
+            return new Plan(new ArrayList<>(baseNames), Map.of());
+
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        Map<String, Set<String>> dependents = new HashMap<>();
+
+        for (Map.Entry<PatchSource, Set<String>> entry : patchReferences.entrySet()) {
+            List<String> bases = patchBases.get(entry.getKey());
+            if (bases == null)
+                continue;
+
+            for (String base : bases) {
+                dependencies.computeIfAbsent(base, k -> new HashSet<>()).addAll(entry.getValue());
+                for (String reference : entry.getValue()) {
+                    dependents.computeIfAbsent(reference, k -> new HashSet<>()).add(base);
+                }
+            }
+        }
+
+        Set<String> affected = new LinkedHashSet<>(baseNames);
+        Deque<String> queue = new ArrayDeque<>(baseNames);
+        while (!queue.isEmpty()) {
+            for (String dependent : dependents.getOrDefault(queue.poll(), Set.of())) {
+                if (affected.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+
+        List<String> order = new ArrayList<>(affected.size());
+        Map<String, Boolean> visited = new HashMap<>(); //false while visiting, true when done
+        for (String base : affected) {
+            visit(base, affected, dependencies, visited, order, diagnostics);
+        }
+        return new Plan(order, dependencies);
+    }
+
+    /**
+     * Base assets in build order, and the assets each of them references.
+     */
+    public record Plan(List<String> order, Map<String, Set<String>> dependencies) {
+        public Set<String> dependenciesOf(String baseName) {
+            return dependencies.getOrDefault(baseName, Set.of());
+        }
+    }
+
+    private void visit(String base, Set<String> affected, Map<String, Set<String>> dependencies,
+                       Map<String, Boolean> visited, List<String> order, PatchDiagnostics diagnostics) {
+        if (visited.containsKey(base))
+            return;
+
+        visited.put(base, false);
+        for (String dependency : dependencies.getOrDefault(base, Set.of())) {
+            //Assets referencing themselves read their unpatched base, so that is not a cycle
+            if (dependency.equals(base) || !affected.contains(dependency))
+                continue;
+
+            Boolean done = visited.get(dependency);
+            if (done == null) {
+                visit(dependency, affected, dependencies, visited, order, diagnostics);
+            } else if (!done) {
+                diagnostics.setBase(base);
+                diagnostics.record(DiagnosticKind.CYCLIC_REFERENCE, dependency);
+            }
+        }
+
+        visited.put(base, true);
+        order.add(base);
+    }
+}
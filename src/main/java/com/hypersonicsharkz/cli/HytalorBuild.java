@@ -0,0 +1,119 @@
+package com.hypersonicsharkz.cli;
+
+import com.hypersonicsharkz.HytalorConfig;
+import com.hypersonicsharkz.HytalorLog;
+import com.hypersonicsharkz.PatchManager;
+import com.hypersonicsharkz.PrebuiltPack;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Applies all patches without a server, and writes the overrides with a manifest a server picks up from
+ * {@link HytalorConfig#PREBUILT_PATH} instead of applying the patches at boot.
+ * <p>
+ * Packs are given in the order the server loads them, the base assets first. Each is a directory or a zip.
+ * <pre>
+ * java -cp Hytalor.jar:HytaleServer.jar com.hypersonicsharkz.cli.HytalorBuild --assets Assets.zip --mod mods/MyMod --out mods/HytalorPrebuilt
+ * </pre>
+ */
+public final class HytalorBuild {
+    private static final String USAGE = "Usage: HytalorBuild --assets <directory|zip> [--mod <directory|zip>]... --out <directory>";
+
+    private HytalorBuild() {}
+
+    public static void main(String[] args) {
+        //The merge pool isn't shut down, so the build ends the VM itself
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        Path assets = null;
+        List<Path> mods = new ArrayList<>();
+        Path out = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                System.err.println(USAGE);
+                return 2;
+            }
+
+            switch (arg) {
+                case "--assets" -> assets = Path.of(args[++i]);
+                case "--mod" -> mods.add(Path.of(args[++i]));
+                case "--out" -> out = Path.of(args[++i]);
+                default -> {
+                    System.err.println("Unknown argument: " + arg);
+                    System.err.println(USAGE);
+                    return 2;
+                }
+            }
+        }
+
+        if (assets == null || out == null) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        List<FileSystem> archives = new ArrayList<>();
+        try {
+            PrebuiltPack.prepare(out);
+
+            PatchManager manager = PatchManager.get();
+            manager.setOutputPath(out);
+
+            long start = System.nanoTime();
+            manager.loadPack(openPack(assets, archives));
+            for (Path mod : mods) {
+                manager.loadPack(openPack(mod, archives));
+            }
+
+            manager.applyAllPatches();
+
+            int assetCount = countAssets(out);
+            PrebuiltPack.writeManifest(out, manager.fingerprint(), assetCount);
+
+            HytalorLog.log(Level.INFO, "Built %d overrides into %s in %d ms", assetCount, out, (System.nanoTime() - start) / 1_000_000);
+            return 0;
+        } catch (IOException | RuntimeException e) {
+            HytalorLog.log(Level.SEVERE, "Hytalor build failed", e);
+            return 1;
+        } finally {
+            for (FileSystem archive : archives) {
+                try {
+                    archive.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the root of the pack, opening zips as a file system that is closed after the build.
+     */
+    private static Path openPack(Path path, List<FileSystem> archives) throws IOException {
+        if (Files.isDirectory(path))
+            return path;
+
+        if (!Files.isRegularFile(path))
+            throw new IOException("No pack at " + path);
+
+        FileSystem archive = FileSystems.newFileSystem(path);
+        archives.add(archive);
+        return archive.getPath("/");
+    }
+
+    private static int countAssets(Path out) throws IOException {
+        try (Stream<Path> files = Files.walk(out)) {
+            return (int) files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.hypersonicsharkz.codec;
+
+import com.hypersonicsharkz.tree.TreeObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes an asset file format straight to and from the merge tree.
+ */
+public interface AssetCodec {
+    TreeObject read(InputStream input) throws IOException;
+
+    /**
+     * Reads the asset from its bytes, like a {@link java.nio.MappedByteBuffer memory mapped} file. Codecs that can
+     * parse bytes in place override this, the rest read them as a stream.
+     */
+    default TreeObject read(ByteBuffer bytes) throws IOException {
+        return read(new ByteBufferInputStream(bytes.duplicate()));
+    }
+
+    void write(TreeObject tree, OutputStream output) throws IOException;
+}
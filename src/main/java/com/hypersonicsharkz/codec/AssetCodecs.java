@@ -0,0 +1,70 @@
+package com.hypersonicsharkz.codec;
+
+import com.hypersonicsharkz.HytalorConfig;
+import com.hypersonicsharkz.tree.TreeObject;
+import com.hypersonicsharkz.util.QueryUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Picks the {@link AssetCodec} for an asset based on its file extension.
+ */
+public class AssetCodecs {
+    public static final AssetCodec JSON = new JsonAssetCodec();
+    public static final AssetCodec BSON = new BsonAssetCodec();
+
+    public static AssetCodec forPath(Path path) {
+        String extension = QueryUtil.getExtension(path.getFileName().toString());
+        if ("bson".equals(extension)) {
+            return BSON;
+        }
+
+        return JSON;
+    }
+
+    /**
+     * Reads the asset at the path, parsing it from its bytes. Files on disk of at least
+     * {@link HytalorConfig#READ_MAP_THRESHOLD} bytes are memory mapped, everything else is read into the heap first.
+     */
+    public static TreeObject read(Path path) throws IOException {
+        AssetCodec codec = forPath(path);
+        if (path.getFileSystem() != FileSystems.getDefault())
+            return codec.read(ByteBuffer.wrap(Files.readAllBytes(path)));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long threshold = HytalorConfig.READ_MAP_THRESHOLD;
+            if (threshold > 0 && size >= threshold && size <= Integer.MAX_VALUE) {
+                //The mapping outlives the channel until the buffer is collected, nothing keeps the buffer after parsing
+                return codec.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+
+            return codec.read(ByteBuffer.wrap(Channels.newInputStream(channel).readAllBytes()));
+        }
+    }
+
+    /**
+     * Serializes the tree the way {@link #write} would write it to the path.
+     */
+    public static byte[] encode(TreeObject tree, Path path) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        forPath(path).write(tree, output);
+        return output.toByteArray();
+    }
+
+    public static void write(TreeObject tree, Path path) throws IOException {
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(path))) {
+            forPath(path).write(tree, output);
+        }
+    }
+}
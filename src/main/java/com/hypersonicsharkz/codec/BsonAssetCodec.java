@@ -0,0 +1,190 @@
+package com.hypersonicsharkz.codec;
+
+import com.hypersonicsharkz.tree.StringPool;
+import com.hypersonicsharkz.tree.TreeArray;
+import com.hypersonicsharkz.tree.TreeNode;
+import com.hypersonicsharkz.tree.TreeObject;
+import com.hypersonicsharkz.tree.TreeValue;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.codecs.BsonValueCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Binary BSON, read and written with the server's BSON library without going through text JSON.
+ * <p>
+ * BSON types without a JSON equivalent act as the closest JSON value in patches: dates and timestamps become
+ * numbers, object ids hex strings, binary data a base64 string, and min and max keys null. They keep their
+ * {@link TreeValue#getOriginal() original value}, so unless a patch replaces them they are written back unchanged.
+ */
+public class BsonAssetCodec implements AssetCodec {
+    private static final BsonValueCodec VALUE_CODEC = new BsonValueCodec();
+
+    @Override
+    public TreeObject read(InputStream input) throws IOException {
+        return read(ByteBuffer.wrap(input.readAllBytes()));
+    }
+
+    @Override
+    public TreeObject read(ByteBuffer bytes) throws IOException {
+        try (BsonBinaryReader reader = new BsonBinaryReader(bytes.duplicate())) {
+            return readDocument(reader);
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid BSON document", e);
+        }
+    }
+
+    @Override
+    public void write(TreeObject tree, OutputStream output) throws IOException {
+        try (BasicOutputBuffer buffer = new BasicOutputBuffer();
+             BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            writeDocument(tree, writer);
+            writer.flush();
+            buffer.pipe(output);
+        }
+    }
+
+    private static TreeObject readDocument(BsonBinaryReader reader) {
+        TreeObject.Builder builder = TreeObject.builder();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String key = StringPool.intern(reader.readName());
+            builder.put(key, readValue(reader));
+        }
+        reader.readEndDocument();
+
+        return builder.build();
+    }
+
+    private static TreeArray readArray(BsonBinaryReader reader) {
+        List<TreeNode> elements = new ArrayList<>();
+
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            elements.add(readValue(reader));
+        }
+        reader.readEndArray();
+
+        return TreeArray.of(elements);
+    }
+
+    private static TreeNode readValue(BsonBinaryReader reader) {
+        BsonType type = reader.getCurrentBsonType();
+        return switch (type) {
+            case DOCUMENT -> readDocument(reader);
+            case ARRAY -> readArray(reader);
+            case STRING -> TreeValue.of(StringPool.intern(reader.readString()));
+            case INT32 -> TreeValue.of(reader.readInt32());
+            case INT64 -> TreeValue.of(reader.readInt64());
+            case DOUBLE -> TreeValue.of(reader.readDouble());
+            case BOOLEAN -> TreeValue.of(reader.readBoolean());
+            case NULL -> {
+                reader.readNull();
+                yield TreeValue.NULL;
+            }
+            default -> readOriginal(reader);
+        };
+    }
+
+    private static TreeValue readOriginal(BsonBinaryReader reader) {
+        BsonValue original = VALUE_CODEC.decode(reader, DecoderContext.builder().build());
+        TreeValue json = switch (original.getBsonType()) {
+            case SYMBOL -> TreeValue.of(original.asSymbol().getSymbol());
+            case JAVASCRIPT -> TreeValue.of(original.asJavaScript().getCode());
+            case JAVASCRIPT_WITH_SCOPE -> TreeValue.of(original.asJavaScriptWithScope().getCode());
+            case DECIMAL128 -> TreeValue.of(original.asDecimal128().getValue().bigDecimalValue());
+            case DATE_TIME -> TreeValue.of(original.asDateTime().getValue());
+            case TIMESTAMP -> TreeValue.of(original.asTimestamp().getValue());
+            case OBJECT_ID -> TreeValue.of(original.asObjectId().getValue().toHexString());
+            case BINARY -> TreeValue.of(Base64.getEncoder().encodeToString(original.asBinary().getData()));
+            case REGULAR_EXPRESSION -> TreeValue.of(original.asRegularExpression().getPattern());
+            case DB_POINTER -> TreeValue.of(original.asDBPointer().getNamespace());
+            default -> TreeValue.NULL; //Undefined, min key and max key
+        };
+        return TreeValue.ofOriginal(json, original);
+    }
+
+    private static void writeDocument(TreeObject object, BsonBinaryWriter writer) {
+        writer.writeStartDocument();
+        for (int i = 0; i < object.size(); i++) {
+            writer.writeName(object.keyAt(i));
+            writeValue(object.valueAt(i), writer);
+        }
+        writer.writeEndDocument();
+    }
+
+    private static void writeValue(TreeNode node, BsonBinaryWriter writer) {
+        if (node.isObject()) {
+            writeDocument(node.asObject(), writer);
+            return;
+        }
+
+        if (node.isArray()) {
+            writer.writeStartArray();
+            for (TreeNode element : node.asArray().asList()) {
+                writeValue(element, writer);
+            }
+            writer.writeEndArray();
+            return;
+        }
+
+        TreeValue value = node.asValue();
+        if (value.getOriginal() instanceof BsonValue original) {
+            VALUE_CODEC.encode(writer, original, EncoderContext.builder().build());
+        } else if (value.isNull()) {
+            writer.writeNull();
+        } else if (value.isBoolean()) {
+            writer.writeBoolean(value.getAsBoolean());
+        } else if (value.isNumber()) {
+            writeNumber(value.getAsNumber(), writer);
+        } else {
+            writer.writeString(value.getAsString());
+        }
+    }
+
+    private static void writeNumber(Number number, BsonBinaryWriter writer) {
+        if (number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            writer.writeInt32(number.intValue());
+            return;
+        }
+        if (number instanceof Long) {
+            writer.writeInt64(number.longValue());
+            return;
+        }
+        if (number instanceof Double || number instanceof Float) {
+            writer.writeDouble(number.doubleValue());
+            return;
+        }
+
+        //Numbers parsed from text, keep whole numbers as integers
+        String text = number.toString();
+        if (text.indexOf('.') < 0 && text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+            try {
+                long whole = Long.parseLong(text);
+                if (whole >= Integer.MIN_VALUE && whole <= Integer.MAX_VALUE) {
+                    writer.writeInt32((int) whole);
+                } else {
+                    writer.writeInt64(whole);
+                }
+                return;
+            } catch (NumberFormatException ignored) {
+                //Too large for a long, store it as a double
+            }
+        }
+
+        writer.writeDouble(number.doubleValue());
+    }
+}
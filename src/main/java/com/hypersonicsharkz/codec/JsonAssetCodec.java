@@ -0,0 +1,51 @@
+package com.hypersonicsharkz.codec;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.hypersonicsharkz.tree.JsonTree;
+import com.hypersonicsharkz.tree.TreeObject;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * UTF-8 text JSON, written pretty printed.
+ */
+public class JsonAssetCodec implements AssetCodec {
+    @Override
+    public TreeObject read(InputStream input) throws IOException {
+        JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        reader.setLenient(true);
+        return JsonTree.read(reader).asObject();
+    }
+
+    @Override
+    public TreeObject read(ByteBuffer bytes) throws IOException {
+        try {
+            return Utf8JsonParser.parse(bytes.duplicate());
+        } catch (Utf8JsonParser.Unsupported e) {
+            return read(new ByteBufferInputStream(bytes.duplicate()));
+        }
+    }
+
+    @Override
+    public void write(TreeObject tree, OutputStream output) throws IOException {
+        BufferedWriter bufferedWriter = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+        //Same output as the pretty printing Gson instance used before
+        JsonWriter writer = new JsonWriter(bufferedWriter);
+        writer.setIndent("  ");
+        writer.setSerializeNulls(false);
+        writer.setHtmlSafe(true);
+
+        JsonTree.write(tree, writer);
+        writer.flush();
+    }
+}
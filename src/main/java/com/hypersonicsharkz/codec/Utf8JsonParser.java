@@ -0,0 +1,420 @@
+package com.hypersonicsharkz.codec;
+
+import com.hypersonicsharkz.tree.StringPool;
+import com.hypersonicsharkz.tree.TreeArray;
+import com.hypersonicsharkz.tree.TreeNode;
+import com.hypersonicsharkz.tree.TreeObject;
+import com.hypersonicsharkz.tree.TreeValue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses UTF-8 JSON straight from its bytes into a tree, without decoding it to chars first, so a memory mapped
+ * file is parsed without copying it.
+ * <p>
+ * Only the JSON that lenient Gson, as used by {@link JsonAssetCodec}, reads the same way is parsed here: standard
+ * JSON with comments. Anything else lenient Gson accepts or rejects, like unquoted strings, single quotes or a
+ * missing brace, throws {@link Unsupported}, and the bytes are read by Gson instead, so both produce the same trees
+ * and the same errors.
+ */
+final class Utf8JsonParser {
+    private static final int MAX_DEPTH = 255; //Gson's default nesting limit
+    private static final int CACHED_LENGTH = 64;
+    private static final int CACHE_SLOTS = 512;
+
+    private final ByteBuffer bytes;
+    private final int limit;
+    private int pos;
+    private byte[] scratch = new byte[128]; //Holds strings of direct buffers while they are decoded
+
+    //Recently read short strings by their bytes, assets repeat the same keys and values over and over
+    private final byte[][] cachedBytes = new byte[CACHE_SLOTS][];
+    private final String[] cachedStrings = new String[CACHE_SLOTS];
+
+    private Utf8JsonParser(ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.limit = bytes.limit();
+        this.pos = bytes.position();
+    }
+
+    /**
+     * Parses the object at the start of the bytes. Content after it is ignored, like Gson does.
+     */
+    static TreeObject parse(ByteBuffer bytes) {
+        Utf8JsonParser parser = new Utf8JsonParser(bytes);
+
+        //Gson skips a byte order mark
+        if (parser.limit - parser.pos >= 3 && bytes.get(parser.pos) == (byte) 0xEF
+                && bytes.get(parser.pos + 1) == (byte) 0xBB && bytes.get(parser.pos + 2) == (byte) 0xBF) {
+            parser.pos += 3;
+        }
+
+        if (parser.skipWhitespace() != '{')
+            throw Unsupported.INSTANCE;
+
+        parser.pos++;
+        return parser.readObject(1);
+    }
+
+    private TreeNode readValue(int depth) {
+        int c = skipWhitespace();
+        switch (c) {
+            case '{' -> {
+                pos++;
+                return readObject(depth + 1);
+            }
+            case '[' -> {
+                pos++;
+                return readArray(depth + 1);
+            }
+            case '"' -> {
+                pos++;
+                return TreeValue.of(readString());
+            }
+            case 't' -> {
+                readKeyword("true");
+                return TreeValue.of(true);
+            }
+            case 'f' -> {
+                readKeyword("false");
+                return TreeValue.of(false);
+            }
+            case 'n' -> {
+                readKeyword("null");
+                return TreeValue.NULL;
+            }
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9'))
+                    return readNumber();
+
+                throw Unsupported.INSTANCE;
+            }
+        }
+    }
+
+    private TreeObject readObject(int depth) {
+        if (depth > MAX_DEPTH)
+            throw Unsupported.INSTANCE;
+
+        TreeObject.Builder builder = TreeObject.builder();
+        if (skipWhitespace() == '}') {
+            pos++;
+            return builder.build();
+        }
+
+        while (true) {
+            if (skipWhitespace() != '"')
+                throw Unsupported.INSTANCE;
+
+            pos++;
+            String key = readString();
+
+            if (skipWhitespace() != ':')
+                throw Unsupported.INSTANCE;
+
+            pos++;
+            builder.put(key, readValue(depth));
+
+            int c = skipWhitespace();
+            pos++;
+            if (c == '}')
+                return builder.build();
+            if (c != ',')
+                throw Unsupported.INSTANCE;
+        }
+    }
+
+    private TreeArray readArray(int depth) {
+        if (depth > MAX_DEPTH)
+            throw Unsupported.INSTANCE;
+
+        List<TreeNode> elements = new ArrayList<>();
+        if (skipWhitespace() == ']') {
+            pos++;
+            return TreeArray.of(elements);
+        }
+
+        while (true) {
+            //Gson reads a missing element as null
+            int c = skipWhitespace();
+            if (c == ',' || c == ']')
+                throw Unsupported.INSTANCE;
+
+            elements.add(readValue(depth));
+
+            c = skipWhitespace();
+            pos++;
+            if (c == ']')
+                return TreeArray.of(elements);
+            if (c != ',')
+                throw Unsupported.INSTANCE;
+        }
+    }
+
+    /**
+     * Reads a string, {@link StringPool#intern pooled}, up to and including its closing quote.
+     */
+    private String readString() {
+        int start = pos;
+        int hash = 0;
+        while (pos < limit) {
+            byte b = bytes.get(pos);
+            if (b == '"')
+                break;
+            if (b == '\\')
+                return StringPool.intern(readEscapedString(start));
+
+            hash = 31 * hash + b;
+            pos++;
+        }
+        if (pos >= limit)
+            throw Unsupported.INSTANCE; //Unterminated
+
+        int length = pos - start;
+        if (length > CACHED_LENGTH) {
+            String value = decode(start, pos);
+            pos++;
+            return StringPool.intern(value);
+        }
+
+        int slot = (hash ^ hash >>> 16) & (CACHE_SLOTS - 1);
+        byte[] cached = cachedBytes[slot];
+        if (cached == null || !matches(cached, start, length)) {
+            cached = new byte[length];
+            bytes.get(start, cached, 0, length);
+            cachedBytes[slot] = cached;
+            cachedStrings[slot] = StringPool.intern(new String(cached, StandardCharsets.UTF_8));
+        }
+
+        pos++;
+        return cachedStrings[slot];
+    }
+
+    private boolean matches(byte[] cached, int start, int length) {
+        if (cached.length != length)
+            return false;
+
+        for (int i = 0; i < length; i++) {
+            if (cached[i] != bytes.get(start + i))
+                return false;
+        }
+        return true;
+    }
+
+    private String readEscapedString(int start) {
+        StringBuilder builder = new StringBuilder(decode(start, pos));
+        while (pos < limit) {
+            byte b = bytes.get(pos);
+            if (b == '"') {
+                pos++;
+                return builder.toString();
+            }
+
+            if (b == '\\') {
+                pos++;
+                builder.append(readEscape());
+                continue;
+            }
+
+            int segmentStart = pos;
+            while (pos < limit && bytes.get(pos) != '"' && bytes.get(pos) != '\\') {
+                pos++;
+            }
+            builder.append(decode(segmentStart, pos));
+        }
+        throw Unsupported.INSTANCE; //Unterminated
+    }
+
+    private char readEscape() {
+        if (pos >= limit)
+            throw Unsupported.INSTANCE;
+
+        byte b = bytes.get(pos++);
+        return switch (b) {
+            case '"', '\\', '/', '\'' -> (char) b;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                if (limit - pos < 4)
+                    throw Unsupported.INSTANCE;
+
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(bytes.get(pos++), 16);
+                    if (digit < 0)
+                        throw Unsupported.INSTANCE;
+
+                    value = value << 4 | digit;
+                }
+                yield (char) value;
+            }
+            default -> throw Unsupported.INSTANCE;
+        };
+    }
+
+    private String decode(int start, int end) {
+        int length = end - start;
+        if (bytes.hasArray())
+            return new String(bytes.array(), bytes.arrayOffset() + start, length, StandardCharsets.UTF_8);
+
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        bytes.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private TreeValue readNumber() {
+        //Gson only reads numbers of this form as numbers, anything else is an unquoted string to it
+        int start = pos;
+        boolean negative = peek() == '-';
+        boolean whole = true;
+        if (negative) {
+            pos++;
+        }
+
+        int c = peek();
+        if (c == '0') {
+            pos++;
+        } else if (c >= '1' && c <= '9') {
+            skipDigits();
+        } else {
+            throw Unsupported.INSTANCE;
+        }
+
+        if (peek() == '.') {
+            whole = false;
+            pos++;
+            if (skipDigits() == 0)
+                throw Unsupported.INSTANCE;
+        }
+
+        c = peek();
+        if (c == 'e' || c == 'E') {
+            whole = false;
+            pos++;
+            c = peek();
+            if (c == '+' || c == '-') {
+                pos++;
+            }
+            if (skipDigits() == 0)
+                throw Unsupported.INSTANCE;
+        }
+
+        endLiteral();
+
+        //Whole numbers that always fit a long are read without their text, except -0 which isn't one to Gson
+        int length = pos - start;
+        if (whole && length < 19 && !(negative && length == 2 && bytes.get(start + 1) == '0')) {
+            long value = 0;
+            for (int i = negative ? start + 1 : start; i < pos; i++) {
+                value = value * 10 + (bytes.get(i) - '0');
+            }
+            return TreeValue.ofNumber(negative ? -value : value);
+        }
+
+        return TreeValue.ofNumber(decode(start, pos));
+    }
+
+    private int skipDigits() {
+        int start = pos;
+        while (pos < limit) {
+            byte b = bytes.get(pos);
+            if (b < '0' || b > '9')
+                break;
+
+            pos++;
+        }
+        return pos - start;
+    }
+
+    private void readKeyword(String keyword) {
+        if (limit - pos < keyword.length())
+            throw Unsupported.INSTANCE;
+
+        for (int i = 0; i < keyword.length(); i++) {
+            if (bytes.get(pos + i) != keyword.charAt(i))
+                throw Unsupported.INSTANCE;
+        }
+        pos += keyword.length();
+        endLiteral();
+    }
+
+    /**
+     * Checks that a number or keyword ends here, Gson reads {@code 12abc} or {@code nullable} as unquoted strings.
+     */
+    private void endLiteral() {
+        switch (peek()) {
+            case -1, ' ', '\t', '\n', '\r', ',', ':', ']', '}', '/', '#' -> {}
+            default -> throw Unsupported.INSTANCE;
+        }
+    }
+
+    /**
+     * Skips whitespace and comments, and returns the byte after them, or -1 at the end.
+     */
+    private int skipWhitespace() {
+        while (pos < limit) {
+            byte b = bytes.get(pos);
+            switch (b) {
+                case ' ', '\t', '\n', '\r' -> pos++;
+                case '#' -> skipToEndOfLine();
+                case '/' -> {
+                    byte next = pos + 1 < limit ? bytes.get(pos + 1) : 0;
+                    if (next == '/') {
+                        skipToEndOfLine();
+                    } else if (next == '*') {
+                        skipBlockComment();
+                    } else {
+                        throw Unsupported.INSTANCE;
+                    }
+                }
+                default -> {
+                    return b & 0xFF;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void skipToEndOfLine() {
+        while (pos < limit) {
+            byte b = bytes.get(pos++);
+            if (b == '\n' || b == '\r')
+                return;
+        }
+    }
+
+    private void skipBlockComment() {
+        pos += 2;
+        while (pos + 1 < limit) {
+            if (bytes.get(pos) == '*' && bytes.get(pos + 1) == '/') {
+                pos += 2;
+                return;
+            }
+            pos++;
+        }
+        throw Unsupported.INSTANCE; //Unterminated
+    }
+
+    private int peek() {
+        return pos < limit ? bytes.get(pos) & 0xFF : -1;
+    }
+
+    /**
+     * Thrown for input left to Gson. Carries no stack trace, it is only caught.
+     */
+    static final class Unsupported extends RuntimeException {
+        static final Unsupported INSTANCE = new Unsupported();
+
+        private Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+}
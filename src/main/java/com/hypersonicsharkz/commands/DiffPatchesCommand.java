@@ -0,0 +1,87 @@
+package com.hypersonicsharkz.commands;
+
+import com.hypersonicsharkz.PatchManager;
+import com.hypersonicsharkz.diagnostics.PatchDiagnostics;
+import com.hypersonicsharkz.tree.TreeDiff;
+import com.hypersonicsharkz.tree.TreeObject;
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.arguments.system.RequiredArg;
+import com.hypixel.hytale.server.core.command.system.arguments.types.ArgTypes;
+import com.hypixel.hytale.server.core.command.system.basecommands.AbstractAsyncCommand;
+
+import javax.annotation.Nonnull;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class DiffPatchesCommand extends AbstractAsyncCommand {
+    private static final int MAX_LINES = 100;
+
+    private final RequiredArg<String> assetPatternArg;
+
+    public DiffPatchesCommand() {
+        super("diff", "shows what the patches would change, without applying them");
+        assetPatternArg = withRequiredArg("assetPattern", "base asset path or glob pattern", ArgTypes.STRING);
+    }
+
+    @Nonnull
+    @Override
+    protected CompletableFuture<Void> executeAsync(@Nonnull CommandContext commandContext) {
+        String pattern = commandContext.get(assetPatternArg);
+        PatchManager patchManager = PatchManager.get();
+        List<Map.Entry<String, Path>> bases = patchManager.getPatchedBaseAssets(pattern);
+
+        if (bases.isEmpty()) {
+            commandContext.sendMessage(Message.raw("No patched assets match " + pattern));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        //Bases are built on the build pipeline, off the server thread, from one consistent view of the patches
+        PatchDiagnostics diagnostics = new PatchDiagnostics();
+        return patchManager.buildAllPatched(bases, diagnostics)
+                .thenAccept(results -> report(commandContext, patchManager, bases, results, diagnostics));
+    }
+
+    private void report(CommandContext commandContext, PatchManager patchManager, List<Map.Entry<String, Path>> bases,
+                        List<TreeObject> results, PatchDiagnostics diagnostics) {
+        int lines = 0;
+        int changedAssets = 0;
+
+        for (int i = 0; i < bases.size(); i++) {
+            Map.Entry<String, Path> base = bases.get(i);
+            TreeObject patched = results.get(i);
+            if (patched == null)
+                continue;
+
+            TreeObject current = patchManager.getCurrentOutput(base.getKey(), base.getValue());
+            List<TreeDiff.Change> changes = current == null ? List.of() : TreeDiff.diff(current, patched);
+            if (changes.isEmpty())
+                continue;
+
+            changedAssets++;
+            if (lines >= MAX_LINES)
+                continue;
+
+            commandContext.sendMessage(Message.raw(base.getKey() + " (" + changes.size() + " changes)"));
+            lines++;
+
+            for (TreeDiff.Change change : changes) {
+                if (lines >= MAX_LINES)
+                    break;
+
+                commandContext.sendMessage(Message.raw("  " + change));
+                lines++;
+            }
+        }
+
+        if (lines >= MAX_LINES) {
+            commandContext.sendMessage(Message.raw("Output truncated after " + MAX_LINES + " lines"));
+        }
+
+        int problems = diagnostics.problemCount();
+        commandContext.sendMessage(Message.raw("Diffed " + bases.size() + " assets, " + changedAssets + " would change"
+                + (problems > 0 ? ", " + problems + " patch warnings" : "")));
+    }
+}
@@ -8,5 +8,7 @@ public class HytalorCommandCollection extends AbstractCommandCollection {
     public HytalorCommandCollection() {
         super("hytalor", "Hytalor Commands");
         addSubCommand(new ReloadPatchesCommand());
+        addSubCommand(new DiffPatchesCommand());
+        addSubCommand(new TopPatchesCommand());
     }
 }
@@ -0,0 +1,53 @@
+package com.hypersonicsharkz.commands;
+
+import com.hypersonicsharkz.PatchManager;
+import com.hypersonicsharkz.diagnostics.PatchCosts;
+import com.hypixel.hytale.common.util.FormatUtil;
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.command.system.basecommands.AbstractAsyncCommand;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+public class TopPatchesCommand extends AbstractAsyncCommand {
+    private static final int SHOWN = 10;
+
+    public TopPatchesCommand() {
+        super("top", "lists the patches that took the longest to merge");
+    }
+
+    @Nonnull
+    @Override
+    protected CompletableFuture<Void> executeAsync(@Nonnull CommandContext commandContext) {
+        List<PatchCosts.Summary> top = PatchManager.get().getTopPatches(SHOWN);
+
+        if (top.isEmpty()) {
+            commandContext.sendMessage(Message.raw("No patches have been merged yet"));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        for (int i = 0; i < top.size(); i++) {
+            PatchCosts.Summary cost = top.get(i);
+
+            commandContext.sendMessage(Message.raw((i + 1) + ". " + cost.patch()));
+            commandContext.sendMessage(Message.raw("   time=" + FormatUtil.nanosToString(cost.mergeNanos())
+                    + " | targets=" + cost.targets()
+                    + " | queries=" + cost.queries()
+                    + " | scanned=" + cost.elementsScanned()
+                    + " | payload=" + formatBytes(cost.payloadBytes())));
+        }
+
+        return CompletableFuture.completedFuture(null);
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024)
+            return bytes + " B";
+        if (bytes < 1024 * 1024)
+            return String.format(Locale.ROOT, "%.1f KiB", bytes / 1024.0);
+        return String.format(Locale.ROOT, "%.1f MiB", bytes / (1024.0 * 1024));
+    }
+}
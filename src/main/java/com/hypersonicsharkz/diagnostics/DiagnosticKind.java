@@ -0,0 +1,34 @@
+package com.hypersonicsharkz.diagnostics;
+
+public enum DiagnosticKind {
+    MISSING_KEY(true, "Target asset does not contain a key expected by the patch"),
+    NO_QUERY_MATCH(true, "Query did not match any elements"),
+    UNKNOWN_OP(true, "Unknown array merge operation"),
+    INVALID_OBJECT_OP(true, "Operation is not valid for a JSON object patch"),
+    CONFLICTING_FIND(true, "Array merge object has both _find and _findAll"),
+    PATCH_READ_FAILED(true, "Failed to read patch"),
+    BASE_READ_FAILED(true, "Base asset not found"),
+    NO_PATCHES(true, "No patches found for base asset"),
+    UNRESOLVED_REFERENCE(true, "Referenced asset or path not found"),
+    CYCLIC_REFERENCE(true, "Assets reference each other in a cycle"),
+    PATCH_APPLIED(false, "Patch applied"),
+    MERGE_REUSED(false, "Reused the result of an identical merge"),
+    MERGE_RESUMED(false, "Resumed a merge after its unchanged first patches"),
+    BASE_BUILT(false, "Base asset built");
+
+    private final boolean problem;
+    private final String description;
+
+    DiagnosticKind(boolean problem, String description) {
+        this.problem = problem;
+        this.description = description;
+    }
+
+    public boolean isProblem() {
+        return problem;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,63 @@
+package com.hypersonicsharkz.diagnostics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What each patch has cost, added up over every base asset it was merged into since it was loaded.
+ * <p>
+ * Build threads record into it concurrently, so the counters are {@link LongAdder}s and only summed up when the
+ * costs are read.
+ */
+public class PatchCosts {
+    private final Map<Object, Cost> costs = new ConcurrentHashMap<>();
+
+    public void recordMerge(Object patch, long nanos, long queries, long elementsScanned) {
+        Cost cost = costs.computeIfAbsent(patch, k -> new Cost());
+        cost.mergeNanos.add(nanos);
+        cost.targets.increment();
+        cost.queries.add(queries);
+        cost.elementsScanned.add(elementsScanned);
+    }
+
+    public void setPayloadBytes(Object patch, long bytes) {
+        costs.computeIfAbsent(patch, k -> new Cost()).payloadBytes = bytes;
+    }
+
+    public void remove(Object patch) {
+        costs.remove(patch);
+    }
+
+    public void clear() {
+        costs.clear();
+    }
+
+    /**
+     * Returns the most expensive patches, by total merge time.
+     */
+    public List<Summary> top(int limit) {
+        return costs.entrySet()
+                .stream()
+                .map(entry -> entry.getValue().summarize(entry.getKey()))
+                .sorted(Comparator.comparingLong(Summary::mergeNanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public record Summary(Object patch, long mergeNanos, long targets, long queries, long elementsScanned, long payloadBytes) {}
+
+    private static class Cost {
+        private final LongAdder mergeNanos = new LongAdder();
+        private final LongAdder targets = new LongAdder();
+        private final LongAdder queries = new LongAdder();
+        private final LongAdder elementsScanned = new LongAdder();
+        private volatile long payloadBytes;
+
+        private Summary summarize(Object patch) {
+            return new Summary(patch, mergeNanos.sum(), targets.sum(), queries.sum(), elementsScanned.sum(), payloadBytes);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.hypersonicsharkz.diagnostics;
+
+import com.hypersonicsharkz.util.Color;
+import com.hypixel.hytale.common.util.FormatUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects what happened during one rebuild.
+ * <p>
+ * The merge code only records typed events here, which is cheap, and nothing is formatted until the rebuild is done.
+ * Then {@link #summarize()} renders a short report, and {@link #dump(Path)} can write every event to a file.
+ * Not thread safe, each build thread records into its own instance and they are combined with {@link #addAll}.
+ */
+public class PatchDiagnostics {
+    private static final int WORST_PATCHES_SHOWN = 5;
+
+    private final List<Event> events = new ArrayList<>();
+    private final int[] counts = new int[DiagnosticKind.values().length];
+    private final long start = System.nanoTime();
+
+    private String baseName;
+    private Object patch;
+
+    public void setBase(String baseName) {
+        this.baseName = baseName;
+        this.patch = null;
+    }
+
+    public void setPatch(Object patch) {
+        this.patch = patch;
+    }
+
+    public String getBase() {
+        return baseName;
+    }
+
+    public Object getPatch() {
+        return patch;
+    }
+
+    /**
+     * Records an event for the current base and patch. The detail is kept as is and only turned into
+     * a string when the report is rendered.
+     */
+    public void record(DiagnosticKind kind, Object detail) {
+        counts[kind.ordinal()]++;
+        events.add(new Event(kind, baseName, patch, detail));
+    }
+
+    public void addAll(PatchDiagnostics other) {
+        for (Event event : other.events) {
+            counts[event.kind.ordinal()]++;
+            events.add(event);
+        }
+    }
+
+    /**
+     * Records the events again for the current base, for a build that reused the result of an earlier merge.
+     */
+    public void replay(List<Event> replayed) {
+        for (Event event : replayed) {
+            patch = event.patch;
+            record(event.kind, event.detail);
+        }
+        patch = null;
+    }
+
+    public int count(DiagnosticKind kind) {
+        return counts[kind.ordinal()];
+    }
+
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    public int problemCount() {
+        int problems = 0;
+        for (DiagnosticKind kind : DiagnosticKind.values()) {
+            if (kind.isProblem()) {
+                problems += counts[kind.ordinal()];
+            }
+        }
+        return problems;
+    }
+
+    public List<String> summarize() {
+        List<String> lines = new ArrayList<>();
+        int problems = problemCount();
+
+        lines.add("══════════════════════════════════════════════════════════════════════════");
+        lines.add("Hytalor rebuild — bases=" + count(DiagnosticKind.BASE_BUILT)
+                + " | applied=" + Color.GREEN + count(DiagnosticKind.PATCH_APPLIED) + Color.RESET
+                + " | reused=" + count(DiagnosticKind.MERGE_REUSED)
+                + " | resumed=" + count(DiagnosticKind.MERGE_RESUMED)
+                + " | failed=" + (count(DiagnosticKind.PATCH_READ_FAILED) > 0 ? Color.RED : "") + count(DiagnosticKind.PATCH_READ_FAILED) + Color.RESET
+                + " | warnings=" + (problems > 0 ? Color.YELLOW : "") + problems + Color.RESET
+                + " | time=" + FormatUtil.nanosToString(System.nanoTime() - start));
+
+        for (DiagnosticKind kind : DiagnosticKind.values()) {
+            if (kind.isProblem() && count(kind) > 0) {
+                lines.add(Color.YELLOW + "   ⚠ " + count(kind) + "x " + kind.getDescription() + Color.RESET);
+            }
+        }
+
+        if (problems > 0) {
+            Map<Object, Integer> perPatch = new HashMap<>();
+            for (Event event : events) {
+                if (event.kind.isProblem() && event.patch != null) {
+                    perPatch.merge(event.patch, 1, Integer::sum);
+                }
+            }
+
+            perPatch.entrySet()
+                    .stream()
+                    .sorted(Map.Entry.<Object, Integer>comparingByValue().reversed())
+                    .limit(WORST_PATCHES_SHOWN)
+                    .forEach(entry -> lines.add("     " + entry.getValue() + " warning(s) from patch: " + entry.getKey()));
+        }
+
+        lines.add("══════════════════════════════════════════════════════════════════════════");
+        return lines;
+    }
+
+    public void dump(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (Event event : events) {
+                writer.write(event.toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    public record Event(DiagnosticKind kind, String baseName, Object patch, Object detail) {
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(kind.isProblem() ? "[WARN] " : "[INFO] ").append(kind.getDescription());
+            if (detail instanceof Long nanos && kind == DiagnosticKind.BASE_BUILT)
+                builder.append(": ").append(FormatUtil.nanosToString(nanos));
+            else if (detail != null)
+                builder.append(": ").append(detail);
+            if (baseName != null)
+                builder.append(" | base=").append(baseName);
+            if (patch != null)
+                builder.append(" | patch=").append(patch);
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.hypersonicsharkz.memfs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Channel over a copy of a file's content. A writable channel replaces the file with what was written when it is
+ * closed.
+ */
+final class MemoryByteChannel implements SeekableByteChannel {
+    private final MemoryFileSystem fileSystem;
+    private final MemoryPath path;
+    private final boolean writable;
+    private final boolean append;
+
+    private byte[] content;
+    private int size;
+    private int position;
+    private boolean open = true;
+
+    MemoryByteChannel(MemoryFileSystem fileSystem, MemoryPath path, byte[] content, boolean writable, boolean append) {
+        this.fileSystem = fileSystem;
+        this.path = path;
+        this.content = content;
+        this.size = content.length;
+        this.writable = writable;
+        this.append = append;
+    }
+
+    @Override
+    public int read(ByteBuffer destination) throws IOException {
+        checkOpen();
+        if (writable)
+            throw new NonReadableChannelException();
+
+        if (position >= size)
+            return -1;
+
+        int count = Math.min(destination.remaining(), size - position);
+        destination.put(content, position, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int write(ByteBuffer source) throws IOException {
+        checkOpen();
+        if (!writable)
+            throw new NonWritableChannelException();
+
+        if (append)
+            position = size;
+
+        int count = source.remaining();
+        int end = Math.addExact(position, count);
+        if (end > content.length) {
+            content = Arrays.copyOf(content, Math.max(end, content.length * 2));
+        }
+
+        source.get(content, position, count);
+        position = end;
+        size = Math.max(size, end);
+        return count;
+    }
+
+    @Override
+    public long position() throws IOException {
+        checkOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        checkOpen();
+        if (newPosition < 0 || newPosition > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Position out of range: " + newPosition);
+
+        position = (int) newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        checkOpen();
+        return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long newSize) throws IOException {
+        checkOpen();
+        if (!writable)
+            throw new NonWritableChannelException();
+
+        if (newSize < size) {
+            size = (int) newSize;
+        }
+        position = Math.min(position, size);
+        return this;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!open)
+            return;
+
+        open = false;
+        if (writable) {
+            fileSystem.write(path, size == content.length ? content : Arrays.copyOf(content, size));
+        }
+        content = null;
+    }
+
+    private void checkOpen() throws ClosedChannelException {
+        if (!open)
+            throw new ClosedChannelException();
+    }
+}
@@ -0,0 +1,248 @@
+package com.hypersonicsharkz.memfs;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.UserPrincipalLookupService;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File system that keeps its files in memory, so assets can be served to the server without touching the disk.
+ * <p>
+ * It supports what reading and writing asset files needs: directories, whole files, channels and basic attributes.
+ * Files are replaced when a writer closes, so readers always see a complete file. There are no links, permissions or
+ * watch services.
+ */
+public final class MemoryFileSystem extends FileSystem {
+    private final MemoryFileSystemProvider provider;
+    private final String name;
+    private final MemoryPath root;
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>(); //Key is the absolute, normalized path
+    private final AtomicLong lastModified = new AtomicLong();
+
+    private volatile boolean open = true;
+
+    MemoryFileSystem(MemoryFileSystemProvider provider, String name) {
+        this.provider = provider;
+        this.name = name;
+        this.root = new MemoryPath(this, true, new String[0]);
+        nodes.put(root.toString(), new Directory(now()));
+    }
+
+    /**
+     * Creates an empty file system. Its paths can be found by URI, with the scheme {@value MemoryFileSystemProvider#SCHEME},
+     * until it is closed.
+     */
+    public static MemoryFileSystem create(String name) {
+        return MemoryFileSystemProvider.INSTANCE.create(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /**
+     * Deletes every file and directory, only the root is left.
+     */
+    public synchronized void clear() {
+        nodes.clear();
+        nodes.put(root.toString(), new Directory(now()));
+    }
+
+    /**
+     * Returns the number of bytes held by all files.
+     */
+    public long size() {
+        long size = 0;
+        for (Node node : nodes.values()) {
+            if (node instanceof RegularFile file) {
+                size += file.content.length;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public FileSystemProvider provider() {
+        return provider;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        provider.remove(this);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    @Override
+    public String getSeparator() {
+        return "/";
+    }
+
+    @Override
+    public Iterable<Path> getRootDirectories() {
+        return List.of(root);
+    }
+
+    @Override
+    public Iterable<FileStore> getFileStores() {
+        return List.of();
+    }
+
+    @Override
+    public Set<String> supportedFileAttributeViews() {
+        return Set.of("basic");
+    }
+
+    @Override
+    public Path getPath(String first, String... more) {
+        String path = more.length == 0 ? first : first + "/" + String.join("/", more);
+        return MemoryPath.parse(this, path);
+    }
+
+    @Override
+    public PathMatcher getPathMatcher(String syntaxAndPattern) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher(syntaxAndPattern);
+        return path -> matcher.matches(Path.of(path.toString()));
+    }
+
+    @Override
+    public UserPrincipalLookupService getUserPrincipalLookupService() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public WatchService newWatchService() {
+        throw new UnsupportedOperationException("Memory file systems can't be watched");
+    }
+
+    Node get(MemoryPath path) {
+        return nodes.get(path.key());
+    }
+
+    Node getExisting(MemoryPath path) throws NoSuchFileException {
+        Node node = get(path);
+        if (node == null)
+            throw new NoSuchFileException(path.toString());
+
+        return node;
+    }
+
+    synchronized void createDirectory(MemoryPath path) throws IOException {
+        String key = path.key();
+        if (nodes.containsKey(key))
+            throw new FileAlreadyExistsException(path.toString());
+
+        parentOf(path).children.add(key);
+        nodes.put(key, new Directory(now()));
+    }
+
+    /**
+     * Creates the file or replaces its content.
+     */
+    synchronized void write(MemoryPath path, byte[] content) throws IOException {
+        String key = path.key();
+        Node existing = nodes.get(key);
+        if (existing instanceof Directory)
+            throw new FileSystemException(path.toString(), null, "Is a directory");
+
+        if (existing == null) {
+            parentOf(path).children.add(key);
+        }
+        nodes.put(key, new RegularFile(content, existing != null ? existing.created : now(), now()));
+    }
+
+    synchronized void delete(MemoryPath path) throws IOException {
+        String key = path.key();
+        Node node = getExisting(path);
+        if (key.equals(root.toString()))
+            throw new FileSystemException(path.toString(), null, "Can't delete the root");
+        if (node instanceof Directory directory && !directory.children.isEmpty())
+            throw new DirectoryNotEmptyException(path.toString());
+
+        nodes.remove(key);
+        Node parent = nodes.get(((MemoryPath) path.toAbsolutePath().normalize().getParent()).key());
+        if (parent instanceof Directory directory) {
+            directory.children.remove(key);
+        }
+    }
+
+    List<Path> list(MemoryPath path) throws IOException {
+        if (!(getExisting(path) instanceof Directory directory))
+            throw new NotDirectoryException(path.toString());
+
+        List<Path> children = new ArrayList<>(directory.children.size());
+        for (String child : directory.children) {
+            children.add(path.resolve(child.substring(child.lastIndexOf('/') + 1)));
+        }
+        return children;
+    }
+
+    private Directory parentOf(MemoryPath path) throws IOException {
+        Path parent = path.toAbsolutePath().normalize().getParent();
+        if (parent == null)
+            throw new FileAlreadyExistsException(path.toString());
+
+        Node node = nodes.get(((MemoryPath) parent).key());
+        if (node == null)
+            throw new NoSuchFileException(parent.toString());
+        if (!(node instanceof Directory directory))
+            throw new NotDirectoryException(parent.toString());
+
+        return directory;
+    }
+
+    /**
+     * Strictly increasing in milliseconds, so a file rewritten right away still looks modified.
+     */
+    private FileTime now() {
+        long millis = lastModified.updateAndGet(last -> Math.max(System.currentTimeMillis(), last + 1));
+        return FileTime.fromMillis(millis);
+    }
+
+    abstract static sealed class Node permits Directory, RegularFile {
+        final FileTime created;
+        final FileTime modified;
+
+        Node(FileTime created, FileTime modified) {
+            this.created = created;
+            this.modified = modified;
+        }
+    }
+
+    static final class Directory extends Node {
+        final Set<String> children = ConcurrentHashMap.newKeySet(); //Keys of the children
+
+        Directory(FileTime created) {
+            super(created, created);
+        }
+    }
+
+    static final class RegularFile extends Node {
+        final byte[] content; //Never modified, a write replaces the whole file
+
+        RegularFile(byte[] content, FileTime created, FileTime modified) {
+            super(created, modified);
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.hypersonicsharkz.memfs;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.FileAttributeView;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Provider of the {@link MemoryFileSystem}s. It isn't installed, file systems are created through
+ * {@link MemoryFileSystem#create(String)} and found by their paths.
+ */
+public final class MemoryFileSystemProvider extends FileSystemProvider {
+    public static final String SCHEME = "hytalor-mem";
+
+    static final MemoryFileSystemProvider INSTANCE = new MemoryFileSystemProvider();
+
+    private final Map<String, MemoryFileSystem> fileSystems = new ConcurrentHashMap<>();
+
+    private MemoryFileSystemProvider() {}
+
+    MemoryFileSystem create(String name) {
+        MemoryFileSystem fileSystem = new MemoryFileSystem(this, name);
+        if (fileSystems.putIfAbsent(name, fileSystem) != null)
+            throw new FileSystemAlreadyExistsException(name);
+
+        return fileSystem;
+    }
+
+    void remove(MemoryFileSystem fileSystem) {
+        fileSystems.remove(fileSystem.getName(), fileSystem);
+    }
+
+    @Override
+    public String getScheme() {
+        return SCHEME;
+    }
+
+    @Override
+    public FileSystem newFileSystem(URI uri, Map<String, ?> env) {
+        return create(uri.getAuthority());
+    }
+
+    @Override
+    public FileSystem getFileSystem(URI uri) {
+        MemoryFileSystem fileSystem = fileSystems.get(uri.getAuthority());
+        if (fileSystem == null)
+            throw new FileSystemNotFoundException(uri.toString());
+
+        return fileSystem;
+    }
+
+    @Override
+    public Path getPath(URI uri) {
+        return getFileSystem(uri).getPath(uri.getPath());
+    }
+
+    @Override
+    public SeekableByteChannel newByteChannel(Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs) throws IOException {
+        MemoryPath memoryPath = (MemoryPath) path;
+        MemoryFileSystem fileSystem = memoryPath.getFileSystem();
+        MemoryFileSystem.Node node = fileSystem.get(memoryPath);
+
+        if (node instanceof MemoryFileSystem.Directory)
+            throw new FileSystemException(path.toString(), null, "Is a directory");
+
+        boolean writable = options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND);
+        if (!writable) {
+            if (node == null)
+                throw new NoSuchFileException(path.toString());
+
+            return new MemoryByteChannel(fileSystem, memoryPath, ((MemoryFileSystem.RegularFile) node).content, false, false);
+        }
+
+        if (node != null && options.contains(StandardOpenOption.CREATE_NEW))
+            throw new FileAlreadyExistsException(path.toString());
+        if (node == null && !options.contains(StandardOpenOption.CREATE) && !options.contains(StandardOpenOption.CREATE_NEW))
+            throw new NoSuchFileException(path.toString());
+
+        //Created right away, so the file exists while it is written, like on disk
+        if (node == null) {
+            fileSystem.write(memoryPath, new byte[0]);
+        }
+
+        byte[] content = node == null || options.contains(StandardOpenOption.TRUNCATE_EXISTING)
+                ? new byte[0]
+                : ((MemoryFileSystem.RegularFile) node).content.clone();
+        return new MemoryByteChannel(fileSystem, memoryPath, content, true, options.contains(StandardOpenOption.APPEND));
+    }
+
+    @Override
+    public DirectoryStream<Path> newDirectoryStream(Path dir, DirectoryStream.Filter<? super Path> filter) throws IOException {
+        List<Path> children = ((MemoryPath) dir).getFileSystem().list((MemoryPath) dir);
+
+        return new DirectoryStream<>() {
+            @Override
+            public Iterator<Path> iterator() {
+                return children.stream().filter(child -> {
+                    try {
+                        return filter.accept(child);
+                    } catch (IOException e) {
+                        throw new DirectoryIteratorException(e);
+                    }
+                }).iterator();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Override
+    public void createDirectory(Path dir, FileAttribute<?>... attrs) throws IOException {
+        ((MemoryPath) dir).getFileSystem().createDirectory((MemoryPath) dir);
+    }
+
+    @Override
+    public void delete(Path path) throws IOException {
+        ((MemoryPath) path).getFileSystem().delete((MemoryPath) path);
+    }
+
+    @Override
+    public void copy(Path source, Path target, CopyOption... options) throws IOException {
+        MemoryPath from = (MemoryPath) source;
+        MemoryPath to = (MemoryPath) target;
+        MemoryFileSystem.Node node = from.getFileSystem().getExisting(from);
+
+        if (to.getFileSystem().get(to) != null) {
+            if (!List.of(options).contains(StandardCopyOption.REPLACE_EXISTING))
+                throw new FileAlreadyExistsException(target.toString());
+
+            if (node instanceof MemoryFileSystem.Directory) {
+                to.getFileSystem().delete(to);
+            }
+        }
+
+        if (node instanceof MemoryFileSystem.RegularFile file) {
+            to.getFileSystem().write(to, file.content);
+        } else {
+            to.getFileSystem().createDirectory(to);
+        }
+    }
+
+    @Override
+    public void move(Path source, Path target, CopyOption... options) throws IOException {
+        copy(source, target, options);
+        delete(source);
+    }
+
+    @Override
+    public boolean isSameFile(Path path, Path path2) {
+        return path.equals(path2) || (path2 instanceof MemoryPath other
+                && path.getFileSystem() == other.getFileSystem()
+                && ((MemoryPath) path).key().equals(other.key()));
+    }
+
+    @Override
+    public boolean isHidden(Path path) {
+        return false;
+    }
+
+    @Override
+    public FileStore getFileStore(Path path) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void checkAccess(Path path, AccessMode... modes) throws IOException {
+        ((MemoryPath) path).getFileSystem().getExisting((MemoryPath) path);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V extends FileAttributeView> V getFileAttributeView(Path path, Class<V> type, LinkOption... options) {
+        if (type != BasicFileAttributeView.class)
+            return null;
+
+        return (V) new BasicFileAttributeView() {
+            @Override
+            public String name() {
+                return "basic";
+            }
+
+            @Override
+            public BasicFileAttributes readAttributes() throws IOException {
+                return MemoryFileSystemProvider.this.readAttributes(path, BasicFileAttributes.class);
+            }
+
+            @Override
+            public void setTimes(FileTime lastModifiedTime, FileTime lastAccessTime, FileTime createTime) {
+                throw new UnsupportedOperationException("Times are set by writes");
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A extends BasicFileAttributes> A readAttributes(Path path, Class<A> type, LinkOption... options) throws IOException {
+        if (type != BasicFileAttributes.class)
+            throw new UnsupportedOperationException("Only basic attributes are supported");
+
+        MemoryFileSystem.Node node = ((MemoryPath) path).getFileSystem().getExisting((MemoryPath) path);
+        return (A) new Attributes(node, ((MemoryPath) path).key());
+    }
+
+    @Override
+    public Map<String, Object> readAttributes(Path path, String attributes, LinkOption... options) throws IOException {
+        String names = attributes.startsWith("basic:") ? attributes.substring("basic:".length()) : attributes;
+        if (names.contains(":"))
+            throw new UnsupportedOperationException("Only basic attributes are supported");
+
+        BasicFileAttributes read = readAttributes(path, BasicFileAttributes.class);
+        Map<String, Object> all = new HashMap<>();
+        all.put("lastModifiedTime", read.lastModifiedTime());
+        all.put("lastAccessTime", read.lastAccessTime());
+        all.put("creationTime", read.creationTime());
+        all.put("size", read.size());
+        all.put("isRegularFile", read.isRegularFile());
+        all.put("isDirectory", read.isDirectory());
+        all.put("isSymbolicLink", read.isSymbolicLink());
+        all.put("isOther", read.isOther());
+        all.put("fileKey", read.fileKey());
+
+        if (names.equals("*"))
+            return all;
+
+        Map<String, Object> selected = new HashMap<>();
+        for (String name : names.split(",")) {
+            if (!all.containsKey(name))
+                throw new IllegalArgumentException("Unknown attribute: " + name);
+
+            selected.put(name, all.get(name));
+        }
+        return selected;
+    }
+
+    @Override
+    public void setAttribute(Path path, String attribute, Object value, LinkOption... options) {
+        throw new UnsupportedOperationException("Attributes are set by writes");
+    }
+
+    private record Attributes(MemoryFileSystem.Node node, String key) implements BasicFileAttributes {
+        @Override
+        public FileTime lastModifiedTime() {
+            return node.modified;
+        }
+
+        @Override
+        public FileTime lastAccessTime() {
+            return node.modified;
+        }
+
+        @Override
+        public FileTime creationTime() {
+            return node.created;
+        }
+
+        @Override
+        public boolean isRegularFile() {
+            return node instanceof MemoryFileSystem.RegularFile;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return node instanceof MemoryFileSystem.Directory;
+        }
+
+        @Override
+        public boolean isSymbolicLink() {
+            return false;
+        }
+
+        @Override
+        public boolean isOther() {
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return node instanceof MemoryFileSystem.RegularFile file ? file.content.length : 0;
+        }
+
+        @Override
+        public Object fileKey() {
+            return key;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.hypersonicsharkz.memfs;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Path of a {@link MemoryFileSystem}. Names are separated by {@code /}, like on Unix.
+ */
+final class MemoryPath implements Path {
+    private final MemoryFileSystem fileSystem;
+    private final boolean absolute;
+    private final String[] names;
+
+    MemoryPath(MemoryFileSystem fileSystem, boolean absolute, String[] names) {
+        this.fileSystem = fileSystem;
+        this.absolute = absolute;
+        this.names = names;
+    }
+
+    static MemoryPath parse(MemoryFileSystem fileSystem, String path) {
+        List<String> names = new ArrayList<>();
+        for (String name : path.split("/")) {
+            if (!name.isEmpty()) {
+                names.add(name);
+            }
+        }
+        return new MemoryPath(fileSystem, path.startsWith("/"), names.toArray(new String[0]));
+    }
+
+    /**
+     * The absolute, normalized form used to look the path up.
+     */
+    String key() {
+        return ((MemoryPath) toAbsolutePath().normalize()).toString();
+    }
+
+    @Override
+    public MemoryFileSystem getFileSystem() {
+        return fileSystem;
+    }
+
+    @Override
+    public boolean isAbsolute() {
+        return absolute;
+    }
+
+    @Override
+    public Path getRoot() {
+        return absolute ? fileSystem.root() : null;
+    }
+
+    @Override
+    public Path getFileName() {
+        return names.length == 0 ? null : new MemoryPath(fileSystem, false, new String[]{names[names.length - 1]});
+    }
+
+    @Override
+    public Path getParent() {
+        if (names.length == 0 || (names.length == 1 && !absolute))
+            return null;
+
+        return new MemoryPath(fileSystem, absolute, Arrays.copyOf(names, names.length - 1));
+    }
+
+    @Override
+    public int getNameCount() {
+        return names.length;
+    }
+
+    @Override
+    public Path getName(int index) {
+        return subpath(index, index + 1);
+    }
+
+    @Override
+    public Path subpath(int beginIndex, int endIndex) {
+        if (beginIndex < 0 || endIndex > names.length || beginIndex >= endIndex)
+            throw new IllegalArgumentException();
+
+        return new MemoryPath(fileSystem, false, Arrays.copyOfRange(names, beginIndex, endIndex));
+    }
+
+    @Override
+    public boolean startsWith(Path other) {
+        MemoryPath path = check(other);
+        if (path.absolute != absolute || path.names.length > names.length)
+            return false;
+
+        for (int i = 0; i < path.names.length; i++) {
+            if (!names[i].equals(path.names[i]))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean endsWith(Path other) {
+        MemoryPath path = check(other);
+        if (path.absolute)
+            return equals(path);
+        if (path.names.length > names.length)
+            return false;
+
+        int offset = names.length - path.names.length;
+        for (int i = 0; i < path.names.length; i++) {
+            if (!names[offset + i].equals(path.names[i]))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Path normalize() {
+        List<String> normalized = new ArrayList<>(names.length);
+        for (String name : names) {
+            if (name.equals("."))
+                continue;
+
+            if (name.equals("..") && !normalized.isEmpty() && !normalized.getLast().equals("..")) {
+                normalized.removeLast();
+            } else if (!name.equals("..") || !absolute) {
+                normalized.add(name);
+            }
+        }
+        return new MemoryPath(fileSystem, absolute, normalized.toArray(new String[0]));
+    }
+
+    @Override
+    public Path resolve(Path other) {
+        MemoryPath path = check(other);
+        if (path.absolute)
+            return path;
+        if (path.names.length == 0)
+            return this;
+
+        String[] resolved = Arrays.copyOf(names, names.length + path.names.length);
+        System.arraycopy(path.names, 0, resolved, names.length, path.names.length);
+        return new MemoryPath(fileSystem, absolute, resolved);
+    }
+
+    @Override
+    public Path relativize(Path other) {
+        MemoryPath path = check(other);
+        if (path.absolute != absolute)
+            throw new IllegalArgumentException("Both paths have to be absolute or relative");
+
+        int common = 0;
+        while (common < names.length && common < path.names.length && names[common].equals(path.names[common])) {
+            common++;
+        }
+
+        List<String> relative = new ArrayList<>();
+        for (int i = common; i < names.length; i++) {
+            relative.add("..");
+        }
+        relative.addAll(Arrays.asList(path.names).subList(common, path.names.length));
+        return new MemoryPath(fileSystem, false, relative.toArray(new String[0]));
+    }
+
+    @Override
+    public URI toUri() {
+        try {
+            return new URI(MemoryFileSystemProvider.SCHEME, fileSystem.getName(), key(), null);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Path toAbsolutePath() {
+        return absolute ? this : fileSystem.root().resolve(this);
+    }
+
+    @Override
+    public Path toRealPath(LinkOption... options) throws IOException {
+        Path real = toAbsolutePath().normalize();
+        fileSystem.provider().checkAccess(real);
+        return real;
+    }
+
+    @Override
+    public WatchKey register(WatchService watcher, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers) {
+        throw new UnsupportedOperationException("Memory file systems can't be watched");
+    }
+
+    @Override
+    public int compareTo(Path other) {
+        return toString().compareTo(check(other).toString());
+    }
+
+    private MemoryPath check(Path other) {
+        if (!(other instanceof MemoryPath path) || path.fileSystem != fileSystem)
+            throw new ProviderMismatchException();
+
+        return path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || (o instanceof MemoryPath other
+                && fileSystem == other.fileSystem
+                && absolute == other.absolute
+                && Arrays.equals(names, other.names));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(names) * 31 + (absolute ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return (absolute ? "/" : "") + String.join("/", names);
+    }
+}
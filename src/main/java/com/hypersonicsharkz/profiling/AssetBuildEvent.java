@@ -0,0 +1,26 @@
+package com.hypersonicsharkz.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One base asset built by applying its patches, including reading its inputs and writing the override.
+ */
+@Name("hytalor.AssetBuild")
+@Label("Asset Build")
+@Category("Hytalor")
+@Description("A base asset patched and written to the overrides pack")
+public class AssetBuildEvent extends Event {
+    @Label("Base")
+    public String base;
+
+    @Label("Patches")
+    public int patches;
+
+    @Label("Reused")
+    @Description("Whether the result of an identical earlier merge was reused")
+    public boolean reused;
+}
@@ -0,0 +1,25 @@
+package com.hypersonicsharkz.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A patched asset written to the overrides pack.
+ */
+@Name("hytalor.AssetWrite")
+@Label("Asset Write")
+@Category("Hytalor")
+public class AssetWriteEvent extends Event {
+    @Label("Base")
+    public String base;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,41 @@
+package com.hypersonicsharkz.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * One merge operation of a patch. Operations nest, an object merge contains the merges of its arrays and queries,
+ * so only the ones over the threshold are recorded by default.
+ */
+@Name("hytalor.Merge")
+@Label("Patch Merge")
+@Category("Hytalor")
+@Description("An object merge, array merge or query of a patch applied to a base asset")
+@Threshold("1 ms")
+public class MergeEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(MergeEvent.class);
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Base")
+    public String base;
+
+    @Label("Patch")
+    public String patch;
+
+    @Label("Query")
+    public String query;
+
+    /**
+     * Returns whether a recording has the event enabled. Merges recurse, so they check this before creating an event.
+     */
+    public static boolean isRecording() {
+        return TYPE.isEnabled();
+    }
+}
@@ -0,0 +1,23 @@
+package com.hypersonicsharkz.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A patch file loaded or reloaded, from reading its header to rebuilding the assets it targets.
+ */
+@Name("hytalor.PatchLoad")
+@Label("Patch Load")
+@Category("Hytalor")
+@Description("A patch file read and resolved to its base assets")
+public class PatchLoadEvent extends Event {
+    @Label("Patch")
+    public String patch;
+
+    @Label("Rebuild")
+    @Description("Whether the targeted assets were rebuilt right away")
+    public boolean rebuild;
+}
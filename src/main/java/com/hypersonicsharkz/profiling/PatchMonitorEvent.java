@@ -0,0 +1,27 @@
+package com.hypersonicsharkz.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A batch of patch file changes handled by the asset monitor, including the rebuilds they caused.
+ */
+@Name("hytalor.PatchMonitor")
+@Label("Patch Monitor")
+@Category("Hytalor")
+@Description("Patch files changed on disk and the rebuilds they caused")
+public class PatchMonitorEvent extends Event {
+    @Label("Monitor")
+    public String monitor;
+
+    @Label("Changed")
+    @Description("Patch files created or modified")
+    public int changed;
+
+    @Label("Deleted")
+    @Description("Patch files deleted")
+    public int deleted;
+}
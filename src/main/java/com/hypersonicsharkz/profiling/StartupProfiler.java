@@ -0,0 +1,134 @@
+package com.hypersonicsharkz.profiling;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records timed spans while the server boots, and exports them as a Chrome trace
+ * (open in {@code chrome://tracing} or https://ui.perfetto.dev).
+ * <p>
+ * Spans are recorded per thread, and spans opened inside another span on the same thread show up nested under it.
+ * When the profiler isn't running, {@link #span} returns a shared no-op span, so instrumented code costs next to nothing.
+ */
+public final class StartupProfiler {
+    private static volatile StartupProfiler current;
+
+    private final long origin = System.nanoTime();
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+
+    private StartupProfiler() {}
+
+    public static void start() {
+        current = new StartupProfiler();
+    }
+
+    public static boolean isRunning() {
+        return current != null;
+    }
+
+    public static Span span(String name) {
+        return span(name, null);
+    }
+
+    /**
+     * Opens a span, which is recorded when closed. The detail is only turned into a string on export.
+     */
+    public static Span span(String name, Object detail) {
+        StartupProfiler profiler = current;
+        if (profiler == null)
+            return Span.NOOP;
+
+        return new Span(profiler, name, detail);
+    }
+
+    /**
+     * Stops the profiler, and writes everything recorded to the file. Does nothing if it wasn't running.
+     */
+    public static boolean finish(Path file) throws IOException {
+        StartupProfiler profiler = current;
+        current = null;
+        if (profiler == null)
+            return false;
+
+        profiler.export(file);
+        return true;
+    }
+
+    private void export(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+
+        try (Writer writer = Files.newBufferedWriter(file); JsonWriter json = new JsonWriter(writer)) {
+            json.beginObject();
+            json.name("displayTimeUnit").value("ms");
+            json.name("traceEvents").beginArray();
+
+            for (Event event : events) {
+                json.beginObject();
+                json.name("name").value(event.name);
+                json.name("cat").value("hytalor");
+                json.name("ph").value("X");
+                json.name("ts").value((event.start - origin) / 1000.0);
+                json.name("dur").value(event.duration / 1000.0);
+                json.name("pid").value(1);
+                json.name("tid").value(event.threadId);
+                if (event.detail != null) {
+                    json.name("args").beginObject().name("detail").value(event.detail.toString()).endObject();
+                }
+                json.endObject();
+            }
+
+            Map<Long, String> threadNames = new HashMap<>();
+            for (Event event : events) {
+                threadNames.putIfAbsent(event.threadId, event.threadName);
+            }
+
+            for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+                json.beginObject();
+                json.name("name").value("thread_name");
+                json.name("ph").value("M");
+                json.name("pid").value(1);
+                json.name("tid").value(thread.getKey());
+                json.name("args").beginObject().name("name").value(thread.getValue()).endObject();
+                json.endObject();
+            }
+
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    private record Event(String name, Object detail, long start, long duration, long threadId, String threadName) {}
+
+    public static class Span implements AutoCloseable {
+        private static final Span NOOP = new Span(null, null, null);
+
+        private final StartupProfiler profiler;
+        private final String name;
+        private final Object detail;
+        private final long start;
+
+        private Span(StartupProfiler profiler, String name, Object detail) {
+            this.profiler = profiler;
+            this.name = name;
+            this.detail = detail;
+            this.start = profiler != null ? System.nanoTime() : 0;
+        }
+
+        @Override
+        public void close() {
+            if (profiler == null)
+                return;
+
+            Thread thread = Thread.currentThread();
+            profiler.events.add(new Event(name, detail, start, System.nanoTime() - start, thread.threadId(), thread.getName()));
+        }
+    }
+}
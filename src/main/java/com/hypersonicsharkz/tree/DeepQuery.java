@@ -0,0 +1,121 @@
+package com.hypersonicsharkz.tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fast path for the deep scan queries patches use most, {@code $..Key} and {@code $..[?(@.Key == 'Value')]}.
+ * <p>
+ * JsonPath walks the whole tree for these. Here every object and array keeps a {@link KeySummary} of its subtree,
+ * and subtrees that can't contain the key, or key and value, are skipped. Trees are immutable, so a summary stays
+ * valid as long as its node exists, and a merged tree only has to summarize the nodes the merge replaced.
+ * Matches are found in the same order as JsonPath finds them.
+ */
+public final class DeepQuery {
+    private static final Pattern PROPERTY = Pattern.compile("\\$\\.\\.([A-Za-z_][A-Za-z0-9_]*)");
+    private static final Pattern FILTER = Pattern.compile(
+            "\\$\\.\\.\\[\\?\\(\\s*@\\.([A-Za-z_][A-Za-z0-9_]*)\\s*==\\s*(?:'([^'\\\\]*)'|\"([^\"\\\\]*)\")\\s*\\)]");
+
+    private static final Map<String, Optional<DeepQuery>> compiled = new ConcurrentHashMap<>();
+
+    private final String key;
+    private final String value; //Null for a property query
+    private final long keyBit;
+    private final long pairBits;
+
+    private DeepQuery(String key, String value) {
+        this.key = key;
+        this.value = value;
+        this.keyBit = KeySummary.keyBit(key);
+        this.pairBits = value != null ? KeySummary.pairBit(key, value) | KeySummary.otherPairBit(key) : 0;
+    }
+
+    /**
+     * Returns the fast path for the query, or null if it has to be run by JsonPath.
+     */
+    public static DeepQuery compile(String query) {
+        return compiled.computeIfAbsent(query, DeepQuery::parse).orElse(null);
+    }
+
+    private static Optional<DeepQuery> parse(String query) {
+        Matcher property = PROPERTY.matcher(query);
+        if (property.matches())
+            return Optional.of(new DeepQuery(property.group(1), null));
+
+        Matcher filter = FILTER.matcher(query);
+        if (filter.matches())
+            return Optional.of(new DeepQuery(filter.group(1), filter.group(2) != null ? filter.group(2) : filter.group(3)));
+
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the paths of all matches, in the format of {@link JsonTree#parsePath}. Returns null if a candidate
+     * compares a string to another kind of value, JsonPath converts between them and has to decide.
+     */
+    public List<List<Object>> find(TreeObject root) {
+        List<List<Object>> matches = new ArrayList<>();
+        return walk(root, new ArrayList<>(), matches) ? matches : null;
+    }
+
+    private boolean walk(TreeNode node, List<Object> path, List<List<Object>> matches) {
+        KeySummary summary = node.summary();
+        if (value == null ? (summary.keys & keyBit) == 0 : (summary.pairs & pairBits) == 0)
+            return true;
+
+        if (node.isObject()) {
+            TreeObject object = node.asObject();
+            if (!matchObject(object, path, matches))
+                return false;
+
+            for (int i = 0; i < object.size(); i++) {
+                path.add(object.keyAt(i));
+                boolean completed = walk(object.valueAt(i), path, matches);
+                path.removeLast();
+
+                if (!completed)
+                    return false;
+            }
+        } else {
+            TreeArray array = node.asArray();
+            for (int i = 0; i < array.size(); i++) {
+                path.add(i);
+                boolean completed = walk(array.get(i), path, matches);
+                path.removeLast();
+
+                if (!completed)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean matchObject(TreeObject object, List<Object> path, List<List<Object>> matches) {
+        TreeNode member = object.get(key);
+        if (member == null)
+            return true;
+
+        if (value == null) {
+            List<Object> match = new ArrayList<>(path);
+            match.add(key);
+            matches.add(match);
+            return true;
+        }
+
+        if (!member.isValue() || member.asValue().isNull())
+            return true;
+
+        if (!member.asValue().isString())
+            return false;
+
+        if (member.asValue().getAsString().equals(value)) {
+            matches.add(new ArrayList<>(path));
+        }
+        return true;
+    }
+}
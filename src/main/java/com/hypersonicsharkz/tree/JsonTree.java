@@ -0,0 +1,298 @@
+package com.hypersonicsharkz.tree;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Conversions between Gson and {@link TreeNode}, and path-copying updates on trees.
+ */
+public class JsonTree {
+    public static TreeNode fromGson(JsonElement element) {
+        if (element == null || element.isJsonNull())
+            return TreeValue.NULL;
+
+        if (element.isJsonObject())
+            return fromGson(element.getAsJsonObject());
+
+        if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            if (array.isEmpty())
+                return TreeArray.EMPTY;
+
+            List<TreeNode> elements = new ArrayList<>(array.size());
+            for (JsonElement child : array) {
+                elements.add(fromGson(child));
+            }
+            return TreeArray.of(elements);
+        }
+
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        return primitive.isString() ? TreeValue.of(StringPool.intern(primitive.getAsString())) : TreeValue.of(primitive);
+    }
+
+    public static TreeObject fromGson(JsonObject object) {
+        TreeObject.Builder builder = TreeObject.builder();
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            builder.put(StringPool.intern(entry.getKey()), fromGson(entry.getValue()));
+        }
+        return builder.build();
+    }
+
+    public static JsonElement toGson(TreeNode node) {
+        return node.toGson();
+    }
+
+    /**
+     * Reads the next value of the reader straight into a tree, without building a Gson tree first.
+     */
+    public static TreeNode read(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case BEGIN_OBJECT -> {
+                TreeObject.Builder builder = TreeObject.builder();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String key = StringPool.intern(reader.nextName());
+                    builder.put(key, read(reader));
+                }
+                reader.endObject();
+                return builder.build();
+            }
+            case BEGIN_ARRAY -> {
+                List<TreeNode> elements = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    elements.add(read(reader));
+                }
+                reader.endArray();
+                return TreeArray.of(elements);
+            }
+            case STRING -> {
+                return TreeValue.of(StringPool.intern(reader.nextString()));
+            }
+            case NUMBER -> {
+                return TreeValue.ofNumber(reader.nextString());
+            }
+            case BOOLEAN -> {
+                return TreeValue.of(reader.nextBoolean());
+            }
+            case NULL -> {
+                reader.nextNull();
+                return TreeValue.NULL;
+            }
+            default -> throw new IllegalStateException("Unexpected JSON token: " + token);
+        }
+    }
+
+    /**
+     * Writes a tree straight to the writer, without building a Gson tree first.
+     */
+    public static void write(TreeNode node, JsonWriter writer) throws IOException {
+        if (node.isObject()) {
+            TreeObject object = node.asObject();
+            writer.beginObject();
+            for (int i = 0; i < object.size(); i++) {
+                writer.name(object.keyAt(i));
+                write(object.valueAt(i), writer);
+            }
+            writer.endObject();
+        } else if (node.isArray()) {
+            writer.beginArray();
+            for (TreeNode element : node.asArray().asList()) {
+                write(element, writer);
+            }
+            writer.endArray();
+        } else {
+            TreeValue value = node.asValue();
+            if (value.isNull()) {
+                writer.nullValue();
+            } else if (value.isBoolean()) {
+                writer.value(value.getAsBoolean());
+            } else if (value.isNumber()) {
+                writer.value(value.getAsNumber());
+            } else {
+                writer.value(value.getAsString());
+            }
+        }
+    }
+
+    /**
+     * Parses a normalized JsonPath path, as returned with {@code Option.AS_PATH_LIST}, into its segments.
+     * Object keys become {@link String}s and array indexes become {@link Integer}s.
+     * <p>
+     * Example: {@code $['Clouds'][0]['Colors']}
+     */
+    public static List<Object> parsePath(String path) {
+        List<Object> segments = new ArrayList<>();
+
+        int i = path.startsWith("$") ? 1 : 0;
+        while (i < path.length()) {
+            if (path.charAt(i) != '[')
+                throw new IllegalArgumentException("Invalid normalized path: " + path);
+
+            i++;
+            if (path.charAt(i) == '\'') {
+                StringBuilder key = new StringBuilder();
+                i++;
+                while (path.charAt(i) != '\'') {
+                    char c = path.charAt(i);
+                    if (c == '\\') {
+                        i++;
+                        c = path.charAt(i);
+                    }
+                    key.append(c);
+                    i++;
+                }
+                segments.add(key.toString());
+                i += 2; // skip closing quote and bracket
+            } else {
+                int end = path.indexOf(']', i);
+                segments.add(Integer.parseInt(path.substring(i, end)));
+                i = end + 1;
+            }
+        }
+
+        return segments;
+    }
+
+    public static TreeNode getAt(TreeNode root, List<Object> path) {
+        TreeNode current = root;
+        for (Object segment : path) {
+            current = child(current, segment);
+            if (current == null)
+                return null;
+        }
+        return current;
+    }
+
+    /**
+     * Returns a copy of root with the update applied to the node at every path, in a single pass that copies each
+     * node once, however many of the paths go through it. The update is given null for a path whose last key
+     * doesn't exist yet, and returns null to remove the node. A node is updated before the paths below it, and
+     * those are skipped if the update removed them. Returns null if the root itself was removed.
+     */
+    public static TreeNode updateAll(TreeNode root, List<List<Object>> paths, UnaryOperator<TreeNode> update) {
+        //Sorted, paths through the same node are next to each other and a node comes before the paths below it
+        List<List<Object>> sorted = new ArrayList<>(paths);
+        sorted.sort(JsonTree::comparePaths);
+
+        return update(root, sorted, 0, sorted.size(), 0, update);
+    }
+
+    /**
+     * Updates the node that the paths from {@code from} to {@code to} all lead to or through, at the depth.
+     */
+    private static TreeNode update(TreeNode node, List<List<Object>> paths, int from, int to, int depth, UnaryOperator<TreeNode> update) {
+        if (paths.get(from).size() == depth) {
+            node = update.apply(node);
+            while (from < to && paths.get(from).size() == depth) {
+                from++; //Duplicates
+            }
+        }
+        if (node == null || from == to)
+            return node;
+
+        if (node.isObject()) {
+            TreeObject.Builder builder = node.asObject().toBuilder();
+            for (int start = from, end; start < to; start = end) {
+                end = groupEnd(paths, start, to, depth);
+                if (!(paths.get(start).get(depth) instanceof String key))
+                    continue;
+
+                TreeNode child = builder.get(key);
+                if (child == null && (end - start > 1 || paths.get(start).size() > depth + 1))
+                    continue;
+
+                TreeNode updated = update(child, paths, start, end, depth + 1, update);
+                if (updated != null) {
+                    builder.put(key, updated);
+                } else {
+                    builder.remove(key);
+                }
+            }
+            return builder.build();
+        }
+
+        if (node.isArray()) {
+            //Highest index first, so removing an element doesn't move the ones still to be updated
+            TreeArray.Builder builder = node.asArray().toBuilder();
+            for (int end = to, start; end > from; end = start) {
+                start = groupStart(paths, from, end, depth);
+                if (!(paths.get(start).get(depth) instanceof Integer index) || index < 0 || index >= builder.size())
+                    continue;
+
+                TreeNode updated = update(builder.get(index), paths, start, end, depth + 1, update);
+                if (updated != null) {
+                    builder.set(index, updated);
+                } else {
+                    builder.remove(index);
+                }
+            }
+            return builder.build();
+        }
+
+        return node;
+    }
+
+    private static int groupEnd(List<List<Object>> paths, int start, int to, int depth) {
+        Object segment = paths.get(start).get(depth);
+        int end = start + 1;
+        while (end < to && segment.equals(paths.get(end).get(depth))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static int groupStart(List<List<Object>> paths, int from, int end, int depth) {
+        Object segment = paths.get(end - 1).get(depth);
+        int start = end - 1;
+        while (start > from && segment.equals(paths.get(start - 1).get(depth))) {
+            start--;
+        }
+        return start;
+    }
+
+    private static int comparePaths(List<Object> a, List<Object> b) {
+        int length = Math.min(a.size(), b.size());
+        for (int i = 0; i < length; i++) {
+            Object segmentA = a.get(i);
+            Object segmentB = b.get(i);
+
+            int compared;
+            if (segmentA instanceof Integer indexA && segmentB instanceof Integer indexB) {
+                compared = Integer.compare(indexA, indexB);
+            } else if (segmentA instanceof String keyA && segmentB instanceof String keyB) {
+                compared = keyA.compareTo(keyB);
+            } else {
+                compared = segmentA instanceof Integer ? -1 : 1;
+            }
+
+            if (compared != 0)
+                return compared;
+        }
+        return Integer.compare(a.size(), b.size());
+    }
+
+    private static TreeNode child(TreeNode node, Object segment) {
+        if (segment instanceof Integer index) {
+            if (!node.isArray() || index < 0 || index >= node.asArray().size())
+                return null;
+            return node.asArray().get(index);
+        }
+
+        if (!node.isObject())
+            return null;
+        return node.asObject().get((String) segment);
+    }
+}
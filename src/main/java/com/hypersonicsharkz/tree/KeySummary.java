@@ -0,0 +1,44 @@
+package com.hypersonicsharkz.tree;
+
+/**
+ * Bloom filter of the keys, and of the key/value pairs with string values, anywhere in a subtree.
+ * <p>
+ * Each key or pair sets one of 64 bits, so a clear bit proves the subtree doesn't contain it, and deep queries can
+ * skip that subtree. Pairs with other primitive values set the bit of a marker value instead, since JsonPath
+ * compares them to strings with conversions.
+ */
+final class KeySummary {
+    static final KeySummary EMPTY = new KeySummary(0, 0);
+
+    private static final String NOT_A_STRING = "\u0000not a string";
+
+    final long keys;
+    final long pairs;
+
+    KeySummary(long keys, long pairs) {
+        this.keys = keys;
+        this.pairs = pairs;
+    }
+
+    static long keyBit(String key) {
+        return 1L << (TreeNode.hashString(key) >>> 58);
+    }
+
+    static long pairBit(String key, String value) {
+        return 1L << (TreeNode.mix(TreeNode.hashString(key), TreeNode.hashString(value)) >>> 58);
+    }
+
+    /**
+     * The bit a member sets, 0 for null since it never equals a string.
+     */
+    static long pairBit(String key, TreeValue value) {
+        if (value.isNull())
+            return 0;
+
+        return pairBit(key, value.isString() ? value.getAsString() : NOT_A_STRING);
+    }
+
+    static long otherPairBit(String key) {
+        return pairBit(key, NOT_A_STRING);
+    }
+}
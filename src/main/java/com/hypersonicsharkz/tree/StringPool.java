@@ -0,0 +1,35 @@
+package com.hypersonicsharkz.tree;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares equal strings between parsed trees. Assets use the same few hundred keys ({@code Id}, {@code Type},
+ * {@code Model}, ...) and many repeated short values, so every parsed tree would otherwise keep its own copies.
+ * <p>
+ * Only short strings are pooled, and the pool stops growing at a fixed size, so unusual assets can't fill it.
+ * Pooled keys also make most key lookups in {@link TreeObject} an identity comparison.
+ */
+public final class StringPool {
+    private static final int MAX_LENGTH = 64;
+    private static final int MAX_SIZE = 1 << 16;
+
+    private static final Map<String, String> pool = new ConcurrentHashMap<>();
+
+    private StringPool() {}
+
+    public static String intern(String value) {
+        if (value.length() > MAX_LENGTH)
+            return value;
+
+        String pooled = pool.get(value);
+        if (pooled != null)
+            return pooled;
+
+        if (pool.size() >= MAX_SIZE)
+            return value;
+
+        pooled = pool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+}
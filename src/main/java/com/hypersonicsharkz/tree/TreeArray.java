@@ -0,0 +1,231 @@
+package com.hypersonicsharkz.tree;
+
+import com.google.gson.JsonArray;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable JSON array.
+ */
+public final class TreeArray extends TreeNode {
+    public static final TreeArray EMPTY = new TreeArray(new TreeNode[0]);
+
+    private final TreeNode[] elements;
+    private volatile KeySummary summary; //Null until a deep query needs it
+
+    //The array is owned by this object and never modified after construction
+    private TreeArray(TreeNode[] elements) {
+        this.elements = elements;
+    }
+
+    public static TreeArray of(List<TreeNode> elements) {
+        if (elements.isEmpty())
+            return EMPTY;
+
+        return new TreeArray(elements.toArray(new TreeNode[0]));
+    }
+
+    @Override
+    public boolean isArray() {
+        return true;
+    }
+
+    @Override
+    public TreeArray asArray() {
+        return this;
+    }
+
+    public TreeNode get(int index) {
+        return elements[index];
+    }
+
+    public int size() {
+        return elements.length;
+    }
+
+    public boolean isEmpty() {
+        return elements.length == 0;
+    }
+
+    public List<TreeNode> asList() {
+        return new AbstractList<>() {
+            @Override
+            public TreeNode get(int index) {
+                return elements[index];
+            }
+
+            @Override
+            public int size() {
+                return elements.length;
+            }
+        };
+    }
+
+    public TreeArray with(int index, TreeNode value) {
+        if (elements[index] == value)
+            return this;
+
+        TreeNode[] copy = elements.clone();
+        copy[index] = value;
+        return new TreeArray(copy);
+    }
+
+    public TreeArray without(int index) {
+        TreeNode[] copy = new TreeNode[elements.length - 1];
+        System.arraycopy(elements, 0, copy, 0, index);
+        System.arraycopy(elements, index + 1, copy, index, elements.length - index - 1);
+        return new TreeArray(copy);
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    public static Builder builder() {
+        return new Builder(EMPTY);
+    }
+
+    public static Builder builder(int capacity) {
+        return new Builder(capacity);
+    }
+
+    @Override
+    public JsonArray toGson() {
+        JsonArray array = new JsonArray(elements.length);
+        for (TreeNode element : elements) {
+            array.add(element.toGson());
+        }
+        return array;
+    }
+
+    @Override
+    long computeContentHash() {
+        long hash = mix('[', elements.length);
+        for (TreeNode element : elements) {
+            hash = mix(hash, element.contentHash());
+        }
+        return hash;
+    }
+
+    @Override
+    KeySummary summary() {
+        KeySummary summary = this.summary;
+        if (summary == null) {
+            long keys = 0;
+            long pairs = 0;
+            for (TreeNode element : elements) {
+                KeySummary child = element.summary();
+                keys |= child.keys;
+                pairs |= child.pairs;
+            }
+
+            summary = keys == 0 ? KeySummary.EMPTY : new KeySummary(keys, pairs);
+            this.summary = summary;
+        }
+        return summary;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || (o instanceof TreeArray other && Arrays.equals(elements, other.elements));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(elements);
+    }
+
+    /**
+     * Collects changes to an array and produces a new {@link TreeArray}.
+     * The elements are only copied on the first change, and {@link #build()} returns the original array when nothing changed.
+     */
+    public static final class Builder {
+        private TreeArray original;
+        private TreeNode[] elements;
+        private int size;
+
+        private Builder(TreeArray original) {
+            this.original = original;
+        }
+
+        private Builder(int capacity) {
+            this.original = EMPTY;
+            this.elements = new TreeNode[capacity];
+        }
+
+        public TreeNode get(int index) {
+            if (elements == null)
+                return original.get(index);
+
+            if (index >= size)
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+            return elements[index];
+        }
+
+        public int size() {
+            return elements != null ? size : original.size();
+        }
+
+        public Builder set(int index, TreeNode value) {
+            if (get(index) == value)
+                return this;
+
+            mutable(0)[index] = value;
+            return this;
+        }
+
+        public Builder add(TreeNode value) {
+            TreeNode[] buffer = mutable(1);
+            buffer[size++] = value;
+            return this;
+        }
+
+        public Builder insert(int index, TreeNode value) {
+            if (index < 0 || index > size())
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+
+            TreeNode[] buffer = mutable(1);
+            System.arraycopy(buffer, index, buffer, index + 1, size - index);
+            buffer[index] = value;
+            size++;
+            return this;
+        }
+
+        public Builder remove(int index) {
+            if (index < 0 || index >= size())
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+
+            TreeNode[] buffer = mutable(0);
+            System.arraycopy(buffer, index + 1, buffer, index, size - index - 1);
+            buffer[--size] = null;
+            return this;
+        }
+
+        public TreeArray build() {
+            if (elements == null)
+                return original;
+
+            //The built array owns the elements now, further changes start a new copy
+            if (size == 0) {
+                original = EMPTY;
+            } else {
+                original = new TreeArray(size == elements.length ? elements : Arrays.copyOf(elements, size));
+            }
+            elements = null;
+            size = 0;
+            return original;
+        }
+
+        private TreeNode[] mutable(int extra) {
+            if (elements == null) {
+                size = original.size();
+                elements = Arrays.copyOf(original.elements, size + extra);
+            } else if (size + extra > elements.length) {
+                elements = Arrays.copyOf(elements, Math.max(size + extra, elements.length * 2));
+            }
+            return elements;
+        }
+    }
+}
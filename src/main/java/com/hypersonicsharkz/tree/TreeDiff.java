@@ -0,0 +1,124 @@
+package com.hypersonicsharkz.tree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structural diff between two trees.
+ * <p>
+ * Subtrees that are the same instance are skipped without being visited, so comparing a build result to
+ * the tree it was built from only walks the paths that the patches actually changed.
+ */
+public class TreeDiff {
+    public enum Kind {
+        ADDED("+"),
+        REMOVED("-"),
+        CHANGED("~");
+
+        private final String symbol;
+
+        Kind(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    public record Change(Kind kind, String path) {
+        @Override
+        public String toString() {
+            return kind.getSymbol() + " " + path;
+        }
+    }
+
+    public static List<Change> diff(TreeNode before, TreeNode after) {
+        List<Change> changes = new ArrayList<>();
+        diff(before, after, new StringBuilder("$"), changes);
+        return changes;
+    }
+
+    private static void diff(TreeNode before, TreeNode after, StringBuilder path, List<Change> changes) {
+        if (before == after)
+            return;
+
+        if (before.isObject() && after.isObject()) {
+            diffObjects(before.asObject(), after.asObject(), path, changes);
+        } else if (before.isArray() && after.isArray()) {
+            diffArrays(before.asArray(), after.asArray(), path, changes);
+        } else if (!before.equals(after)) {
+            changes.add(new Change(Kind.CHANGED, path.toString()));
+        }
+    }
+
+    private static void diffObjects(TreeObject before, TreeObject after, StringBuilder path, List<Change> changes) {
+        int length = path.length();
+
+        for (Map.Entry<String, TreeNode> entry : before.entrySet()) {
+            appendKey(path, entry.getKey());
+
+            TreeNode afterValue = after.get(entry.getKey());
+            if (afterValue == null) {
+                changes.add(new Change(Kind.REMOVED, path.toString()));
+            } else {
+                diff(entry.getValue(), afterValue, path, changes);
+            }
+
+            path.setLength(length);
+        }
+
+        for (Map.Entry<String, TreeNode> entry : after.entrySet()) {
+            if (before.has(entry.getKey()))
+                continue;
+
+            appendKey(path, entry.getKey());
+            changes.add(new Change(Kind.ADDED, path.toString()));
+            path.setLength(length);
+        }
+    }
+
+    private static void diffArrays(TreeArray before, TreeArray after, StringBuilder path, List<Change> changes) {
+        int length = path.length();
+        int shared = Math.min(before.size(), after.size());
+
+        for (int i = 0; i < shared; i++) {
+            path.append('[').append(i).append(']');
+            diff(before.get(i), after.get(i), path, changes);
+            path.setLength(length);
+        }
+
+        for (int i = shared; i < before.size(); i++) {
+            path.append('[').append(i).append(']');
+            changes.add(new Change(Kind.REMOVED, path.toString()));
+            path.setLength(length);
+        }
+
+        for (int i = shared; i < after.size(); i++) {
+            path.append('[').append(i).append(']');
+            changes.add(new Change(Kind.ADDED, path.toString()));
+            path.setLength(length);
+        }
+    }
+
+    private static void appendKey(StringBuilder path, String key) {
+        if (isSimpleKey(key)) {
+            path.append('.').append(key);
+        } else {
+            path.append("['").append(key.replace("'", "\\'")).append("']");
+        }
+    }
+
+    private static boolean isSimpleKey(String key) {
+        if (key.isEmpty())
+            return false;
+
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_')
+                return false;
+        }
+        return true;
+    }
+}
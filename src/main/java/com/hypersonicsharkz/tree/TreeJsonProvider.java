@@ -0,0 +1,166 @@
+package com.hypersonicsharkz.tree;
+
+import com.google.gson.JsonParser;
+import com.jayway.jsonpath.InvalidJsonException;
+import com.jayway.jsonpath.spi.json.AbstractJsonProvider;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-only JsonPath provider that evaluates queries directly on {@link TreeNode}s.
+ * <p>
+ * Updates are not done through the provider, since trees cannot be modified. Instead the matched paths are read
+ * with {@code Option.AS_PATH_LIST} and applied with {@link JsonTree#updateAll}. Arrays created by JsonPath itself,
+ * like result lists, are plain {@link ArrayList}s.
+ */
+public class TreeJsonProvider extends AbstractJsonProvider {
+    @Override
+    public Object parse(String json) throws InvalidJsonException {
+        try {
+            return JsonTree.fromGson(JsonParser.parseString(json));
+        } catch (Exception e) {
+            throw new InvalidJsonException(e.getMessage());
+        }
+    }
+
+    @Override
+    public Object parse(InputStream jsonStream, String charset) throws InvalidJsonException {
+        try {
+            return JsonTree.fromGson(JsonParser.parseReader(new InputStreamReader(jsonStream, Charset.forName(charset))));
+        } catch (Exception e) {
+            throw new InvalidJsonException(e.getMessage());
+        }
+    }
+
+    @Override
+    public String toJson(Object obj) {
+        if (obj instanceof TreeNode node)
+            return node.toString();
+
+        return String.valueOf(obj);
+    }
+
+    @Override
+    public Object createArray() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public Object createMap() {
+        throw new UnsupportedOperationException("Trees cannot be created through JsonPath");
+    }
+
+    @Override
+    public boolean isArray(Object obj) {
+        return obj instanceof TreeArray || obj instanceof List;
+    }
+
+    @Override
+    public boolean isMap(Object obj) {
+        return obj instanceof TreeObject;
+    }
+
+    @Override
+    public int length(Object obj) {
+        if (obj instanceof TreeArray array)
+            return array.size();
+        if (obj instanceof TreeObject object)
+            return object.size();
+        if (obj instanceof List<?> list)
+            return list.size();
+        if (obj instanceof TreeValue value && value.isString())
+            return value.getAsString().length();
+
+        throw new UnsupportedOperationException("Cannot get length of " + obj);
+    }
+
+    @Override
+    public Iterable<?> toIterable(Object obj) {
+        if (obj instanceof TreeArray array)
+            return array.asList();
+        if (obj instanceof List<?> list)
+            return list;
+
+        throw new UnsupportedOperationException("Cannot iterate " + obj);
+    }
+
+    @Override
+    public Collection<String> getPropertyKeys(Object obj) {
+        if (obj instanceof TreeObject object)
+            return object.keySet();
+
+        throw new UnsupportedOperationException("Cannot get property keys of " + obj);
+    }
+
+    @Override
+    public Object getArrayIndex(Object obj, int idx) {
+        if (obj instanceof TreeArray array)
+            return array.get(idx);
+
+        return ((List<?>) obj).get(idx);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void setArrayIndex(Object array, int index, Object newValue) {
+        if (!(array instanceof List))
+            throw new UnsupportedOperationException("Trees cannot be modified through JsonPath");
+
+        List<Object> list = (List<Object>) array;
+        if (index == list.size()) {
+            list.add(newValue);
+        } else {
+            list.set(index, newValue);
+        }
+    }
+
+    @Override
+    public Object getMapValue(Object obj, String key) {
+        TreeNode value = ((TreeObject) obj).get(key);
+        return value == null ? UNDEFINED : value;
+    }
+
+    @Override
+    public void setProperty(Object obj, Object key, Object value) {
+        throw new UnsupportedOperationException("Trees cannot be modified through JsonPath");
+    }
+
+    @Override
+    public void removeProperty(Object obj, Object key) {
+        throw new UnsupportedOperationException("Trees cannot be modified through JsonPath");
+    }
+
+    @Override
+    public Object unwrap(Object obj) {
+        if (!(obj instanceof TreeValue value))
+            return obj;
+
+        if (value.isNull())
+            return null;
+        if (value.isBoolean())
+            return value.getAsBoolean();
+        if (value.isNumber())
+            return unwrapNumber(value.getAsNumber());
+
+        return value.getAsString();
+    }
+
+    private static Number unwrapNumber(Number number) {
+        //Parsed numbers are lazy, so pick a concrete type for filter comparisons
+        String text = number.toString();
+        if (text.contains(".") || text.contains("e") || text.contains("E")) {
+            return number.doubleValue();
+        }
+
+        long value = number.longValue();
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            return (int) value;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,83 @@
+package com.hypersonicsharkz.tree;
+
+import com.google.gson.JsonElement;
+
+/**
+ * Immutable JSON node used by the merge engine.
+ * <p>
+ * Nodes are never modified after construction, so a subtree can be shared freely between a cached base asset,
+ * the patches applied to it and every output built from it. Updates copy only the nodes along the modified path.
+ */
+public abstract class TreeNode {
+    private volatile long contentHash; //0 until computed
+
+    TreeNode() {}
+
+    public boolean isObject() {
+        return false;
+    }
+
+    public boolean isArray() {
+        return false;
+    }
+
+    public boolean isValue() {
+        return false;
+    }
+
+    public TreeObject asObject() {
+        throw new IllegalStateException("Not a JSON object: " + this);
+    }
+
+    public TreeArray asArray() {
+        throw new IllegalStateException("Not a JSON array: " + this);
+    }
+
+    public TreeValue asValue() {
+        throw new IllegalStateException("Not a JSON value: " + this);
+    }
+
+    public abstract JsonElement toGson();
+
+    /**
+     * 64-bit hash of the node's content as it would be serialized, so key order and number formatting count.
+     * Nodes never change, so it is computed once per node and subtrees shared between trees are only hashed once.
+     */
+    public final long contentHash() {
+        long hash = contentHash;
+        if (hash == 0) {
+            hash = computeContentHash();
+            if (hash == 0)
+                hash = 1;
+            contentHash = hash;
+        }
+        return hash;
+    }
+
+    abstract long computeContentHash();
+
+    /**
+     * Summary of the keys in this subtree, computed on first use and kept like the content hash.
+     */
+    KeySummary summary() {
+        return KeySummary.EMPTY;
+    }
+
+    static long mix(long hash, long value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    static long hashString(String value) {
+        long hash = 0xCBF29CE484222325L; //FNV-1a
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash, value.length());
+    }
+
+    @Override
+    public String toString() {
+        return toGson().toString();
+    }
+}
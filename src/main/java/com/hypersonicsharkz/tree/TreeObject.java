@@ -0,0 +1,322 @@
+package com.hypersonicsharkz.tree;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable JSON object. Keys keep their insertion order.
+ * <p>
+ * Members are stored in two arrays instead of a map, most asset objects only have a few keys and are found by a
+ * linear scan. Objects with more keys get an open addressing table of positions on top.
+ */
+public final class TreeObject extends TreeNode {
+    private static final int SCAN_LIMIT = 8; //Up to this many keys, lookups scan the keys instead of hashing
+
+    public static final TreeObject EMPTY = new TreeObject(new LinkedHashMap<>());
+
+    private final String[] keys;
+    private final TreeNode[] values;
+    private final int[] table; //Null for small objects, otherwise position + 1 of each key, 0 for free slots
+    private volatile KeySummary summary; //Null until a deep query needs it
+
+    private TreeObject(LinkedHashMap<String, TreeNode> members) {
+        int size = members.size();
+        this.keys = new String[size];
+        this.values = new TreeNode[size];
+
+        int i = 0;
+        for (Map.Entry<String, TreeNode> entry : members.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+
+        this.table = size > SCAN_LIMIT ? buildTable(keys) : null;
+    }
+
+    private static int[] buildTable(String[] keys) {
+        int[] table = new int[Integer.highestOneBit(keys.length * 2 - 1) << 1]; //At most half full
+        int mask = table.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            int slot = spread(keys[i].hashCode()) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+        return table;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private int indexOf(String key) {
+        if (table == null) {
+            //Keys are pooled when parsed, so most lookups match by identity first
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key)
+                    return i;
+            }
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key))
+                    return i;
+            }
+            return -1;
+        }
+
+        int mask = table.length - 1;
+        for (int slot = spread(key.hashCode()) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int index = table[slot] - 1;
+            if (keys[index] == key || keys[index].equals(key))
+                return index;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean isObject() {
+        return true;
+    }
+
+    @Override
+    public TreeObject asObject() {
+        return this;
+    }
+
+    public TreeNode get(String key) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    public boolean has(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    /**
+     * Returns the key at the position, in insertion order. Iterates without the entries {@link #entrySet()} creates.
+     */
+    public String keyAt(int index) {
+        return keys[index];
+    }
+
+    public TreeNode valueAt(int index) {
+        return values[index];
+    }
+
+    public Set<String> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return Arrays.asList(keys).iterator();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String key && has(key);
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    public Set<Map.Entry<String, TreeNode>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, TreeNode>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, TreeNode> next() {
+                        if (next >= keys.length)
+                            throw new NoSuchElementException();
+
+                        Map.Entry<String, TreeNode> entry = new AbstractMap.SimpleImmutableEntry<>(keys[next], values[next]);
+                        next++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    public TreeObject with(String key, TreeNode value) {
+        if (get(key) == value)
+            return this;
+
+        return toBuilder().put(key, value).build();
+    }
+
+    public TreeObject without(String key) {
+        if (!has(key))
+            return this;
+
+        return toBuilder().remove(key).build();
+    }
+
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    public static Builder builder() {
+        return new Builder(EMPTY);
+    }
+
+    @Override
+    public JsonObject toGson() {
+        JsonObject object = new JsonObject();
+        for (int i = 0; i < keys.length; i++) {
+            object.add(keys[i], values[i].toGson());
+        }
+        return object;
+    }
+
+    @Override
+    long computeContentHash() {
+        long hash = mix('{', keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            hash = mix(hash, hashString(keys[i]));
+            hash = mix(hash, values[i].contentHash());
+        }
+        return hash;
+    }
+
+    @Override
+    KeySummary summary() {
+        KeySummary summary = this.summary;
+        if (summary == null) {
+            long keys = 0;
+            long pairs = 0;
+            for (int i = 0; i < this.keys.length; i++) {
+                keys |= KeySummary.keyBit(this.keys[i]);
+
+                TreeNode value = values[i];
+                if (value.isValue()) {
+                    pairs |= KeySummary.pairBit(this.keys[i], value.asValue());
+                } else {
+                    KeySummary child = value.summary();
+                    keys |= child.keys;
+                    pairs |= child.pairs;
+                }
+            }
+
+            summary = keys == 0 ? KeySummary.EMPTY : new KeySummary(keys, pairs);
+            this.summary = summary;
+        }
+        return summary;
+    }
+
+    /**
+     * Same as {@link Map#equals}, key order doesn't matter.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof TreeObject other) || other.keys.length != keys.length)
+            return false;
+
+        for (int i = 0; i < keys.length; i++) {
+            if (!values[i].equals(other.get(keys[i])))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < keys.length; i++) {
+            hash += keys[i].hashCode() ^ values[i].hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Collects changes to an object and produces a new {@link TreeObject}.
+     * The members are only copied on the first change, and {@link #build()} returns the original object when nothing changed.
+     */
+    public static final class Builder {
+        private TreeObject original;
+        private LinkedHashMap<String, TreeNode> members;
+
+        private Builder(TreeObject original) {
+            this.original = original;
+        }
+
+        public TreeNode get(String key) {
+            return members != null ? members.get(key) : original.get(key);
+        }
+
+        public boolean has(String key) {
+            return members != null ? members.containsKey(key) : original.has(key);
+        }
+
+        public Builder put(String key, TreeNode value) {
+            if (get(key) == value && has(key))
+                return this;
+
+            mutable().put(key, value);
+            return this;
+        }
+
+        public Builder remove(String key) {
+            if (!has(key))
+                return this;
+
+            mutable().remove(key);
+            return this;
+        }
+
+        public TreeObject build() {
+            if (members == null)
+                return original;
+
+            //Further changes start a new copy, so the built object stays the original of this builder
+            original = new TreeObject(members);
+            members = null;
+            return original;
+        }
+
+        private LinkedHashMap<String, TreeNode> mutable() {
+            if (members == null) {
+                members = LinkedHashMap.newLinkedHashMap(original.keys.length + 1);
+                for (int i = 0; i < original.keys.length; i++) {
+                    members.put(original.keys[i], original.values[i]);
+                }
+            }
+            return members;
+        }
+    }
+}
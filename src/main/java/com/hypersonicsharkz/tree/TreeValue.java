@@ -0,0 +1,272 @@
+package com.hypersonicsharkz.tree;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.internal.LazilyParsedNumber;
+
+import java.util.Objects;
+
+/**
+ * A JSON primitive (string, number, boolean) or null.
+ * <p>
+ * Whole numbers and doubles are stored unboxed. Parsed numbers are only unboxed when printing the unboxed value gives
+ * back the parsed text, others keep their text, so writing a tree never changes how its numbers are formatted.
+ * <p>
+ * Values of binary formats without a JSON equivalent keep their {@link #getOriginal() original value}, and act as
+ * the closest JSON value everywhere else, so they are written back as they were read.
+ */
+public final class TreeValue extends TreeNode {
+    private static final byte NULL_KIND = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte STRING = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte NUMBER = 6; //Any other number, kept as it is
+
+    public static final TreeValue NULL = new TreeValue(NULL_KIND, 0, null);
+    public static final TreeValue TRUE = new TreeValue(BOOLEAN, 1, null);
+    public static final TreeValue FALSE = new TreeValue(BOOLEAN, 0, null);
+
+    //Small whole numbers are shared, they are most of the numbers in assets
+    private static final int CACHE_LOW = -128;
+    private static final TreeValue[] SMALL_INTS = new TreeValue[1152];
+
+    static {
+        for (int i = 0; i < SMALL_INTS.length; i++) {
+            SMALL_INTS[i] = new TreeValue(INT, CACHE_LOW + i, null);
+        }
+    }
+
+    private final byte kind;
+    private final long bits; //The boolean, the whole number or the raw bits of the double
+    private final Object ref; //The String, or the Number of an unboxed kind
+    private final Object original; //The value as a binary format read it, if JSON has no equivalent
+
+    private TreeValue(byte kind, long bits, Object ref) {
+        this(kind, bits, ref, null);
+    }
+
+    private TreeValue(byte kind, long bits, Object ref, Object original) {
+        this.kind = kind;
+        this.bits = bits;
+        this.ref = ref;
+        this.original = original;
+    }
+
+    public static TreeValue of(JsonPrimitive primitive) {
+        if (primitive.isBoolean()) {
+            return primitive.getAsBoolean() ? TRUE : FALSE;
+        }
+        if (primitive.isString()) {
+            return of(primitive.getAsString());
+        }
+
+        return of(primitive.getAsNumber());
+    }
+
+    public static TreeValue of(String value) {
+        return new TreeValue(STRING, 0, value);
+    }
+
+    public static TreeValue of(Number value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte)
+            return ofInt(value.intValue());
+        if (value instanceof Long)
+            return new TreeValue(LONG, value.longValue(), null);
+        if (value instanceof Double)
+            return new TreeValue(DOUBLE, Double.doubleToRawLongBits(value.doubleValue()), null);
+        if (value instanceof LazilyParsedNumber)
+            return parse(value.toString(), value);
+
+        return new TreeValue(NUMBER, 0, value);
+    }
+
+    public static TreeValue of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    /**
+     * Returns the number written as the text, as read by a JSON parser.
+     */
+    public static TreeValue ofNumber(String text) {
+        return parse(text, null);
+    }
+
+    /**
+     * Returns the whole number as read by a JSON parser, the same as {@code ofNumber(Long.toString(value))}.
+     */
+    public static TreeValue ofNumber(long value) {
+        return value == (int) value ? ofInt((int) value) : new TreeValue(LONG, value, null);
+    }
+
+    private static TreeValue parse(String text, Number parsed) {
+        boolean whole = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '.' || c == 'e' || c == 'E') {
+                whole = false;
+                break;
+            }
+        }
+
+        try {
+            if (whole && text.length() < 19) { //Always fits a long
+                long value = Long.parseLong(text);
+                if (Long.toString(value).equals(text)) {
+                    return ofNumber(value);
+                }
+            } else if (!whole) {
+                double value = Double.parseDouble(text);
+                if (Double.toString(value).equals(text)) {
+                    return new TreeValue(DOUBLE, Double.doubleToRawLongBits(value), null);
+                }
+            }
+        } catch (NumberFormatException ignored) {
+            //Left to the number to fail when it is used, like Gson does
+        }
+
+        return new TreeValue(NUMBER, 0, parsed != null ? parsed : new LazilyParsedNumber(text));
+    }
+
+    /**
+     * Returns a value that acts as the JSON value, but keeps the original value for the codec that read it.
+     */
+    public static TreeValue ofOriginal(TreeValue json, Object original) {
+        return new TreeValue(json.kind, json.bits, json.ref, original);
+    }
+
+    private static TreeValue ofInt(int value) {
+        int index = value - CACHE_LOW;
+        if (index >= 0 && index < SMALL_INTS.length)
+            return SMALL_INTS[index];
+
+        return new TreeValue(INT, value, null);
+    }
+
+    @Override
+    public boolean isValue() {
+        return true;
+    }
+
+    @Override
+    public TreeValue asValue() {
+        return this;
+    }
+
+    public boolean isNull() {
+        return kind == NULL_KIND;
+    }
+
+    public boolean isString() {
+        return kind == STRING;
+    }
+
+    public boolean isNumber() {
+        return kind >= INT;
+    }
+
+    public boolean isBoolean() {
+        return kind == BOOLEAN;
+    }
+
+    public String getAsString() {
+        return switch (kind) {
+            case NULL_KIND -> throw new UnsupportedOperationException("JsonNull");
+            case BOOLEAN -> bits != 0 ? "true" : "false";
+            case STRING -> (String) ref;
+            case INT, LONG -> Long.toString(bits);
+            case DOUBLE -> Double.toString(Double.longBitsToDouble(bits));
+            default -> ref.toString();
+        };
+    }
+
+    public Number getAsNumber() {
+        return switch (kind) {
+            case INT -> (int) bits;
+            case LONG -> bits;
+            case DOUBLE -> Double.longBitsToDouble(bits);
+            case NUMBER -> (Number) ref;
+            case STRING -> new LazilyParsedNumber((String) ref);
+            default -> throw new UnsupportedOperationException("Not a number: " + this);
+        };
+    }
+
+    public int getAsInt() {
+        return switch (kind) {
+            case INT, LONG -> (int) bits;
+            case DOUBLE -> (int) Double.longBitsToDouble(bits);
+            case NUMBER -> ((Number) ref).intValue();
+            default -> Integer.parseInt(getAsString());
+        };
+    }
+
+    /**
+     * Returns the value as a binary format read it, or null for plain JSON values.
+     */
+    public Object getOriginal() {
+        return original;
+    }
+
+    public boolean getAsBoolean() {
+        return kind == BOOLEAN ? bits != 0 : Boolean.parseBoolean(getAsString());
+    }
+
+    @Override
+    public JsonElement toGson() {
+        return switch (kind) {
+            case NULL_KIND -> JsonNull.INSTANCE;
+            case BOOLEAN -> new JsonPrimitive(bits != 0);
+            case STRING -> new JsonPrimitive((String) ref);
+            default -> new JsonPrimitive(getAsNumber());
+        };
+    }
+
+    @Override
+    long computeContentHash() {
+        //Strings are marked, so they are told apart from numbers and booleans with the same text
+        long hash = kind == STRING ? mix('"', hashString((String) ref)) : hashString(kind == NULL_KIND ? "null" : getAsString());
+        return original != null ? mix(hash, hashString(original.toString())) : hash;
+    }
+
+    /**
+     * Same as {@link JsonPrimitive#equals}: whole numbers are compared exactly, other numbers by their double value.
+     * Values with an original value are only equal to values with the same original.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof TreeValue other))
+            return false;
+
+        if (!Objects.equals(original, other.original))
+            return false;
+
+        if (isNumber() && other.isNumber()) {
+            if (isWhole() && other.isWhole())
+                return bits == other.bits;
+
+            double value = getAsNumber().doubleValue();
+            double otherValue = other.getAsNumber().doubleValue();
+            return value == otherValue || (Double.isNaN(value) && Double.isNaN(otherValue));
+        }
+
+        return kind == other.kind && bits == other.bits && (ref == null ? other.ref == null : ref.equals(other.ref));
+    }
+
+    @Override
+    public int hashCode() {
+        if (isNumber()) {
+            double value = isWhole() ? bits : getAsNumber().doubleValue();
+            return value == 0 ? 0 : Double.hashCode(value); //Zero and negative zero are equal
+        }
+
+        return kind == STRING ? ref.hashCode() : kind * 31 + (int) bits;
+    }
+
+    private boolean isWhole() {
+        return kind == INT || kind == LONG;
+    }
+}
@@ -0,0 +1,248 @@
+package com.hypersonicsharkz.util;
+
+import java.util.BitSet;
+
+/**
+ * Matches asset paths against a {@code _BaseAssetPath} glob without going through regex.
+ * <ul>
+ *     <li>{@code *} matches any characters within one path segment.</li>
+ *     <li>{@code ?} matches one character within one path segment.</li>
+ *     <li>{@code **} as a whole segment matches one or more segments, otherwise it matches any characters, including {@code /}.</li>
+ * </ul>
+ * Every other character, regex metacharacters included, only matches itself.
+ * <p>
+ * The glob is split into segments once, and paths are matched segment by segment in place, without splitting them:
+ * literal segments are compared directly, paths not starting with the glob's literal prefix are rejected right away,
+ * and a glob without wildcards is a single string comparison.
+ */
+public final class GlobMatcher {
+    private final String glob;
+    private final String literalPrefix; //Every matching path starts with this
+    private final String[] segments;
+    private final boolean[] literal;
+    private final boolean segmentWise; //False when a ** is mixed into a segment, then the whole path is matched at once
+    private final boolean hasGlobstar;
+
+    private GlobMatcher(String glob) {
+        this.glob = glob;
+        this.segments = glob.split("/", -1);
+        this.literal = new boolean[segments.length];
+
+        boolean segmentWise = true;
+        boolean hasGlobstar = false;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            literal[i] = segment.indexOf('*') == -1 && segment.indexOf('?') == -1;
+
+            if (segment.equals("**")) {
+                hasGlobstar = true;
+            } else if (segment.contains("**")) {
+                segmentWise = false;
+            }
+        }
+        this.segmentWise = segmentWise;
+        this.hasGlobstar = hasGlobstar;
+
+        int wildcard = 0;
+        while (wildcard < glob.length() && glob.charAt(wildcard) != '*' && glob.charAt(wildcard) != '?') {
+            wildcard++;
+        }
+        this.literalPrefix = glob.substring(0, wildcard);
+    }
+
+    public static GlobMatcher compile(String glob) {
+        return new GlobMatcher(glob);
+    }
+
+    public String getGlob() {
+        return glob;
+    }
+
+    /**
+     * Returns the part of the glob before the first wildcard, every matching path starts with it.
+     */
+    public String getLiteralPrefix() {
+        return literalPrefix;
+    }
+
+    public boolean isLiteral() {
+        return literalPrefix.length() == glob.length();
+    }
+
+    public boolean matches(String path) {
+        if (isLiteral())
+            return glob.equals(path);
+
+        if (!path.startsWith(literalPrefix))
+            return false;
+
+        if (!segmentWise)
+            return matchPath(path);
+
+        if (hasGlobstar)
+            return matchSegments(path, segmentStarts(path));
+
+        //Without ** every glob segment matches exactly one path segment, so the path doesn't need to be split
+        int start = 0;
+        for (int i = 0; i < segments.length; i++) {
+            int end = path.indexOf('/', start);
+            boolean last = i == segments.length - 1;
+            if (last != (end == -1))
+                return false;
+            if (last)
+                end = path.length();
+
+            if (!matchSegment(i, path, start, end))
+                return false;
+            start = end + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the offset of every segment in the path, plus one past the end.
+     */
+    private static int[] segmentStarts(String path) {
+        int count = 1;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/')
+                count++;
+        }
+
+        int[] starts = new int[count + 1];
+        int segment = 1;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/')
+                starts[segment++] = i + 1;
+        }
+        starts[count] = path.length() + 1;
+        return starts;
+    }
+
+    private boolean matchSegments(String path, int[] starts) {
+        //Remember failed (glob segment, path segment) pairs, so backtracking over ** never repeats work
+        return matchSegments(0, path, starts, 0, new BitSet((segments.length + 1) * starts.length));
+    }
+
+    private boolean matchSegments(int globIndex, String path, int[] starts, int pathIndex, BitSet failed) {
+        int pathSegments = starts.length - 1;
+        int state = globIndex * starts.length + pathIndex;
+        if (failed.get(state))
+            return false;
+
+        while (globIndex < segments.length && !segments[globIndex].equals("**")) {
+            if (pathIndex >= pathSegments || !matchSegment(globIndex, path, starts[pathIndex], starts[pathIndex + 1] - 1)) {
+                failed.set(state);
+                return false;
+            }
+            globIndex++;
+            pathIndex++;
+        }
+
+        if (globIndex == segments.length) {
+            if (pathIndex == pathSegments)
+                return true;
+
+            failed.set(state);
+            return false;
+        }
+
+        //** takes one or more segments
+        for (int end = pathIndex + 1; end <= pathSegments; end++) {
+            if (matchSegments(globIndex + 1, path, starts, end, failed))
+                return true;
+        }
+
+        failed.set(state);
+        return false;
+    }
+
+    private boolean matchSegment(int index, String path, int start, int end) {
+        String segment = segments[index];
+        if (literal[index])
+            return segment.length() == end - start && path.startsWith(segment, start);
+
+        return matchWildcards(segment, path, start, end);
+    }
+
+    /**
+     * Matches one segment with {@code *} and {@code ?}, backtracking only to the last {@code *}.
+     */
+    private static boolean matchWildcards(String pattern, String text, int start, int end) {
+        int p = 0;
+        int t = start;
+        int star = -1;
+        int starText = start;
+
+        while (t < end) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == text.charAt(t))) {
+                p++;
+                t++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                starText = t;
+            } else if (star != -1) {
+                p = star + 1;
+                t = ++starText;
+            } else {
+                return false;
+            }
+        }
+
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    /**
+     * Matches the whole path at once, for globs where {@code **} is part of a segment and can match across {@code /}.
+     */
+    private boolean matchPath(String path) {
+        return matchPath(0, path, 0, new BitSet((glob.length() + 1) * (path.length() + 1)));
+    }
+
+    private boolean matchPath(int g, String path, int t, BitSet failed) {
+        int state = g * (path.length() + 1) + t;
+        if (failed.get(state))
+            return false;
+
+        while (g < glob.length()) {
+            char c = glob.charAt(g);
+
+            if (c == '*') {
+                boolean globstar = g + 1 < glob.length() && glob.charAt(g + 1) == '*';
+                int next = globstar ? g + 2 : g + 1;
+
+                for (int end = t; end <= path.length(); end++) {
+                    if (matchPath(next, path, end, failed))
+                        return true;
+                    if (end < path.length() && !globstar && path.charAt(end) == '/')
+                        break;
+                }
+
+                failed.set(state);
+                return false;
+            }
+
+            if (t >= path.length() || (c == '?' ? path.charAt(t) == '/' : path.charAt(t) != c)) {
+                failed.set(state);
+                return false;
+            }
+
+            g++;
+            t++;
+        }
+
+        if (t == path.length())
+            return true;
+
+        failed.set(state);
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return glob;
+    }
+}
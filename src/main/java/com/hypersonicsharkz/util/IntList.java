@@ -0,0 +1,68 @@
+package com.hypersonicsharkz.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints. Meant to be cleared and reused instead of reallocated.
+ */
+public class IntList {
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this(8);
+    }
+
+    public IntList(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public int get(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Sorts the values ascending and removes duplicates.
+     */
+    public void sortDistinct() {
+        if (size < 2)
+            return;
+
+        Arrays.sort(values, 0, size);
+
+        int unique = 1;
+        for (int i = 1; i < size; i++) {
+            if (values[i] != values[unique - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        size = unique;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(values, size));
+    }
+}
@@ -1,23 +1,35 @@
 package com.hypersonicsharkz.util;
 
 import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.stream.JsonReader;
-import com.hypersonicsharkz.HytalorPlugin;
+import com.hypersonicsharkz.HytalorLog;
+import com.hypersonicsharkz.codec.AssetCodecs;
+import com.hypersonicsharkz.diagnostics.DiagnosticKind;
+import com.hypersonicsharkz.profiling.MergeEvent;
+import com.hypersonicsharkz.tree.DeepQuery;
+import com.hypersonicsharkz.tree.JsonTree;
+import com.hypersonicsharkz.tree.TreeArray;
+import com.hypersonicsharkz.tree.TreeJsonProvider;
+import com.hypersonicsharkz.tree.TreeNode;
+import com.hypersonicsharkz.tree.TreeObject;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
 import com.jayway.jsonpath.PathNotFoundException;
-import com.jayway.jsonpath.spi.json.GsonJsonProvider;
 
 import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 
 public class JSONUtil {
@@ -30,12 +42,20 @@ public class JSONUtil {
             "blockymodel"
     );
 
-    private static final GsonJsonProvider provider = new GsonJsonProvider();
+    //Top level keys controlling how a patch is applied, see readPatchHeader
+    private static final Set<String> HEADER_KEYS = Set.of("_BaseAssetPath", "BaseAssetPath", "_priority");
+
+    private static final TreeJsonProvider provider = new TreeJsonProvider();
     private static final Configuration conf = Configuration
             .builder()
             .options(Option.ALWAYS_RETURN_LIST, Option.AS_PATH_LIST)
             .jsonProvider(provider)
             .build();
+    private static final Configuration valueConf = Configuration
+            .builder()
+            .options(Option.ALWAYS_RETURN_LIST)
+            .jsonProvider(provider)
+            .build();
 
     public static JsonObject readJSON(Path path) {
         try (
@@ -45,330 +65,630 @@ public class JSONUtil {
             return JsonParser.parseReader(reader).getAsJsonObject();
 
         } catch (Exception e) {
-            HytalorPlugin.get().getLogger()
-                    .at(Level.WARNING)
-                    .log("     ⚠ Failed to read JSON file at path: " + path, e);
+            HytalorLog.log(Level.WARNING, "     ⚠ Failed to read JSON file at path: " + path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads an asset into a tree, using the codec matching its file extension.
+     */
+    public static TreeObject readTree(Path path) {
+        try {
+            return AssetCodecs.read(path);
+        } catch (Exception e) {
+            HytalorLog.log(Level.WARNING, "     ⚠ Failed to read JSON file at path: " + path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads only the keys of a patch that say where and in which order it is applied ({@code _BaseAssetPath},
+     * the deprecated {@code BaseAssetPath} and {@code _priority}), skipping everything else without building it.
+     * The deprecated {@code BaseAssetPath} wins over {@code _BaseAssetPath} and may come anywhere, so reading only
+     * stops early once it and the priority are found, otherwise the rest of the patch is skipped through.
+     * Binary formats can't be skipped through, and are read whole.
+     */
+    public static TreeObject readPatchHeader(Path path) {
+        if (AssetCodecs.forPath(path) != AssetCodecs.JSON) {
+            TreeObject tree = readTree(path);
+            if (tree == null)
+                return null;
+
+            TreeObject.Builder header = TreeObject.builder();
+            for (String key : HEADER_KEYS) {
+                if (tree.has(key))
+                    header.put(key, tree.get(key));
+            }
+            return header.build();
+        }
+
+        try (JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)))) {
+            reader.setLenient(true);
+
+            TreeObject.Builder header = TreeObject.builder();
+            boolean deprecatedTarget = false;
+            boolean priority = false;
+
+            reader.beginObject();
+            while (!(deprecatedTarget && priority) && reader.hasNext()) {
+                String key = reader.nextName();
+                if (!HEADER_KEYS.contains(key)) {
+                    reader.skipValue();
+                    continue;
+                }
+
+                header.put(key, JsonTree.read(reader));
+                if (key.equals("_priority")) {
+                    priority = true;
+                } else if (key.equals("BaseAssetPath")) {
+                    deprecatedTarget = true;
+                }
+            }
+            return header.build();
+        } catch (Exception e) {
+            HytalorLog.log(Level.WARNING, "     ⚠ Failed to read JSON file at path: " + path, e);
             return null;
         }
     }
 
+    /**
+     * Replaces every reference object, {@code {"_ref": "Server/Item/X.json", "_path": "$.Stats.Damage"}}, in the patch
+     * with the value it points to. Without {@code _path} the whole asset is used. Assets are looked up by name through
+     * {@code assets}, and only the objects and arrays containing references are copied.
+     * References that can't be resolved are left out of the patch.
+     */
+    public static TreeObject resolveReferences(TreeObject patch, Function<String, TreeObject> assets, MergeContext context) {
+        return resolveReferences((TreeNode) patch, assets, context).asObject();
+    }
+
+    private static TreeNode resolveReferences(TreeNode node, Function<String, TreeObject> assets, MergeContext context) {
+        if (node.isObject()) {
+            TreeObject.Builder result = node.asObject().toBuilder();
+
+            for (Map.Entry<String, TreeNode> entry : node.asObject().entrySet()) {
+                TreeNode value = entry.getValue();
+                TreeNode resolved = isReference(value) ? resolveReference(value.asObject(), assets, context) : resolveReferences(value, assets, context);
+
+                if (resolved == null) {
+                    result.remove(entry.getKey());
+                } else {
+                    result.put(entry.getKey(), resolved);
+                }
+            }
+
+            return result.build();
+        } else if (node.isArray()) {
+            TreeArray array = node.asArray();
+            TreeArray.Builder result = array.toBuilder();
+
+            //Walk backwards so removing an unresolved reference doesn't shift the elements still to visit
+            for (int i = array.size() - 1; i >= 0; i--) {
+                TreeNode value = array.get(i);
+                TreeNode resolved = isReference(value) ? resolveReference(value.asObject(), assets, context) : resolveReferences(value, assets, context);
+
+                if (resolved == null) {
+                    result.remove(i);
+                } else {
+                    result.set(i, resolved);
+                }
+            }
+
+            return result.build();
+        }
+
+        return node;
+    }
+
+    private static TreeNode resolveReference(TreeObject reference, Function<String, TreeObject> assets, MergeContext context) {
+        String assetName = reference.get("_ref").asValue().getAsString();
+        TreeObject asset = assets.apply(assetName);
+        if (asset == null) {
+            context.diagnostics().record(DiagnosticKind.UNRESOLVED_REFERENCE, assetName);
+            return null;
+        }
+
+        TreeNode path = reference.get("_path");
+        if (path == null)
+            return asset;
+
+        String query = path.asValue().getAsString();
+        try {
+            context.countQuery();
+            List<String> paths = JsonPath.using(conf).parse(asset).read(query);
+            if (!paths.isEmpty()) {
+                TreeNode value = JsonTree.getAt(asset, JsonTree.parsePath(paths.getFirst()));
+                if (value != null)
+                    return value;
+            }
+        } catch (PathNotFoundException ignored) {
+        }
+
+        context.diagnostics().record(DiagnosticKind.UNRESOLVED_REFERENCE, assetName + " " + query);
+        return null;
+    }
+
+    /**
+     * Adds the names of all assets referenced in the patch to {@code references}.
+     */
+    public static void collectReferences(TreeNode node, Set<String> references) {
+        if (isReference(node)) {
+            references.add(node.asObject().get("_ref").asValue().getAsString());
+        } else if (node.isObject()) {
+            for (Map.Entry<String, TreeNode> entry : node.asObject().entrySet()) {
+                collectReferences(entry.getValue(), references);
+            }
+        } else if (node.isArray()) {
+            for (int i = 0; i < node.asArray().size(); i++) {
+                collectReferences(node.asArray().get(i), references);
+            }
+        }
+    }
+
+    private static boolean isReference(TreeNode node) {
+        if (!node.isObject())
+            return false;
+
+        TreeObject object = node.asObject();
+        TreeNode ref = object.get("_ref");
+        if (ref == null || !ref.isValue() || !ref.asValue().isString())
+            return false;
+
+        return object.size() == (object.has("_path") ? 2 : 1);
+    }
+
+    /**
+     * Merges source into target in place. Kept for callers working with Gson trees, the merge itself
+     * is done by {@link #deepMerge(TreeObject, TreeObject)}.
+     */
     public static void deepMerge(JsonObject source, JsonObject target) {
-        for (String key: source.keySet()) {
+        TreeObject merged = deepMerge(JsonTree.fromGson(source), JsonTree.fromGson(target));
+
+        target.entrySet().clear();
+        for (Map.Entry<String, TreeNode> entry : merged.entrySet()) {
+            target.add(entry.getKey(), entry.getValue().toGson());
+        }
+    }
+
+    public static JsonArray mergeArray(JsonArray sourceArray, JsonArray targetArray) {
+        return mergeArray(JsonTree.fromGson(sourceArray).asArray(), JsonTree.fromGson(targetArray).asArray()).toGson();
+    }
+
+    /**
+     * Applies source onto target and returns the result. Target is never modified, only the objects and arrays
+     * along modified paths are copied, and everything else is shared with target.
+     */
+    public static TreeObject deepMerge(TreeObject source, TreeObject target) {
+        return deepMerge(source, target, new MergeContext());
+    }
+
+    public static TreeObject deepMerge(TreeObject source, TreeObject target, MergeContext context) {
+        if (!MergeEvent.isRecording())
+            return mergeObject(source, target, context);
+
+        MergeEvent event = new MergeEvent();
+        event.begin();
+
+        TreeObject result = mergeObject(source, target, context);
+
+        commit(event, "deepMerge", null, context);
+        return result;
+    }
+
+    private static TreeObject mergeObject(TreeObject source, TreeObject target, MergeContext context) {
+        TreeObject.Builder result = target.toBuilder();
+
+        for (int i = 0; i < source.size(); i++) {
+            String key = source.keyAt(i);
             if (key.equals("BaseAssetPath") || key.equals("_BaseAssetPath") || key.equals("_priority"))
                 continue;
 
-            JsonElement sourceValue = source.get(key);
+            TreeNode sourceValue = source.valueAt(i);
 
             if (isQuery(key)) {
-                resolveQuery(key, sourceValue, target);
+                result = resolveQuery(key, sourceValue, result.build(), context).toBuilder();
                 continue;
             }
 
-            if (!target.has(key)) {
+            if (!result.has(key)) {
                 if (isPatch(sourceValue)) {
-                    HytalorPlugin.get().getLogger().at(Level.WARNING)
-                            .log("      Target Asset does not contain key: '" + key + "', But it was expected by the Patch");
+                    context.diagnostics().record(DiagnosticKind.MISSING_KEY, key);
                     continue;
                 }
 
-                addNewField(target, key, sourceValue);
+                result.put(key, newField(sourceValue, context));
                 continue;
             }
 
-            JsonElement targetValue = target.get(key);
+            TreeNode targetValue = result.get(key);
 
             // existing value for "key" - recursively deep merge:
-            if (sourceValue.isJsonObject() && targetValue.isJsonObject()) {
-                if (isRemoveOperation(sourceValue.getAsJsonObject())) {
-                    target.remove(key);
-                    return;
+            if (sourceValue.isObject() && targetValue.isObject()) {
+                if (isRemoveOperation(sourceValue.asObject(), context)) {
+                    result.remove(key);
+                    return result.build();
                 }
 
-                deepMerge(sourceValue.getAsJsonObject(), targetValue.getAsJsonObject());
-            } else if (sourceValue.isJsonArray() && targetValue.isJsonArray()) {
-                target.add(key, mergeArray(sourceValue.getAsJsonArray(), targetValue.getAsJsonArray()));
+                result.put(key, deepMerge(sourceValue.asObject(), targetValue.asObject(), context));
+            } else if (sourceValue.isArray() && targetValue.isArray()) {
+                result.put(key, mergeArray(sourceValue.asArray(), targetValue.asArray(), context));
             } else {
-                target.add(key, sourceValue);
+                result.put(key, sourceValue);
             }
         }
+
+        return result.build();
     }
 
-    private static boolean isRemoveOperation(JsonObject patch) {
-        JsonElement op = patch.get("_op");
-        if (op != null && op.isJsonPrimitive() && op.getAsJsonPrimitive().isString()) {
-            String opString = op.getAsString();
+    private static boolean isRemoveOperation(TreeObject patch, MergeContext context) {
+        TreeNode op = patch.get("_op");
+        if (op != null && op.isValue() && op.asValue().isString()) {
+            String opString = op.asValue().getAsString();
             if (opString.equals("remove")) {
                 return true;
             } else {
-                HytalorPlugin.get().getLogger().at(Level.WARNING)
-                        .log("      Operation " + opString + " is not valid for a Json Object patch");
+                context.diagnostics().record(DiagnosticKind.INVALID_OBJECT_OP, opString);
             }
         }
         return false;
     }
 
-    private static void addNewField(JsonObject target, String key, JsonElement value) {
-        if (value.isJsonArray() && isArrayPatch(value.getAsJsonArray())) {
-            JsonArray newArray = mergeArray(value.getAsJsonArray(), new JsonArray());
-            target.add(key, newArray);
-            return;
+    private static TreeNode newField(TreeNode value, MergeContext context) {
+        if (value.isArray() && isArrayPatch(value.asArray())) {
+            return mergeArray(value.asArray(), TreeArray.EMPTY, context);
         }
 
-        target.add(key, value);
+        return value;
     }
 
-    public static JsonArray mergeArray(JsonArray sourceArray, JsonArray targetArray) {
-        JsonArray newArray = targetArray.deepCopy();
+    public static TreeArray mergeArray(TreeArray sourceArray, TreeArray targetArray) {
+        return mergeArray(sourceArray, targetArray, new MergeContext());
+    }
 
-        for (JsonElement sourceElement : sourceArray) {
-            if (!sourceElement.isJsonObject()) {
-                newArray.add(sourceElement);
-                continue; //Not a valid array patch element
-            }
+    /**
+     * Applies each element of sourceArray to targetArray in order.
+     * <p>
+     * When one element selects several indexes (a list of {@code _index} values or {@code _findAll}), all of them
+     * refer to positions in the array before that element is applied. Duplicates are ignored, and the operation is
+     * applied once per selected element, so removing or inserting at several matches never hits a shifted element.
+     */
+    public static TreeArray mergeArray(TreeArray sourceArray, TreeArray targetArray, MergeContext context) {
+        if (!MergeEvent.isRecording())
+            return mergeArrayElements(sourceArray, targetArray, context);
+
+        MergeEvent event = new MergeEvent();
+        event.begin();
+
+        TreeArray result = mergeArrayElements(sourceArray, targetArray, context);
+
+        commit(event, "mergeArray", null, context);
+        return result;
+    }
+
+    private static TreeArray mergeArrayElements(TreeArray sourceArray, TreeArray targetArray, MergeContext context) {
+        TreeArray.Builder newArray = targetArray.toBuilder();
+        IntList indexes = context.acquireIndexes();
+
+        try {
+            for (TreeNode sourceElement : sourceArray.asList()) {
+                if (!sourceElement.isObject()) {
+                    newArray.add(sourceElement);
+                    continue; //Not a valid array patch element
+                }
 
-            JsonObject sourceObject = sourceElement.getAsJsonObject();
+                TreeObject sourceObject = sourceElement.asObject();
 
-            int[] indexes = resolveIndex(sourceObject, newArray);
+                indexes.clear();
+                resolveIndex(sourceObject, newArray, indexes, context);
+                indexes.sortDistinct();
 
-            String op = sourceObject.has("_op")
-                    ? sourceObject.get("_op").getAsString()
-                    : "merge";
+                String op = sourceObject.has("_op")
+                        ? sourceObject.get("_op").asValue().getAsString()
+                        : "merge";
 
-            for (int index : indexes) {
                 switch (op) {
-                    case "add" -> newArray = handleAddOperation(sourceObject, newArray, index);
-                    case "addBefore" -> newArray = handleAddOperation(sourceObject, newArray, index == -1 ? 0 : index);
-                    case "addAfter" -> newArray = handleAddOperation(sourceObject, newArray, index == -1 ? -1 : index + 1);
-                    case "remove" -> handleRemoveOperation(newArray, index);
-                    case "replace" -> handleReplaceOperation(sourceObject, newArray, index);
-                    case "merge" -> handleMergeOperation(sourceObject, newArray, index);
-                    case "upsert" -> newArray = handleUpsertOperation(sourceObject, newArray, index);
-                    default ->
-                        //Unknown operation
-                        HytalorPlugin.get().getLogger()
-                                .at(Level.WARNING)
-                                .log("      Unknown array merge operation: " + op);
+                    case "add", "addBefore", "addAfter", "remove" ->
+                            newArray = handleStructuralOperation(op, sourceObject, newArray, indexes);
+                    case "replace" -> {
+                        for (int i = 0; i < indexes.size(); i++) {
+                            handleReplaceOperation(sourceObject, newArray, indexes.get(i));
+                        }
+                    }
+                    case "merge" -> {
+                        for (int i = 0; i < indexes.size(); i++) {
+                            handleMergeOperation(sourceObject, newArray, indexes.get(i), context);
+                        }
+                    }
+                    case "upsert" -> {
+                        for (int i = 0; i < indexes.size(); i++) {
+                            handleUpsertOperation(sourceObject, newArray, indexes.get(i), context);
+                        }
+                    }
+                    default -> context.diagnostics().record(DiagnosticKind.UNKNOWN_OP, op);
                 }
             }
+        } finally {
+            context.releaseIndexes();
         }
 
-        return newArray;
+        return newArray.build();
     }
 
-    private static JsonArray handleUpsertOperation(JsonObject sourceObject, JsonArray targetArray, int index) {
-        if (index >= 0 && index < targetArray.size()) { //Found index, perform merge
-            JsonObject targetElement = targetArray.get(index).getAsJsonObject();
-            JsonObject cleanedSource = getCleanedObject(sourceObject).getAsJsonObject();
-            deepMerge(cleanedSource, targetElement);
+    /**
+     * Inserts or removes at every selected index in a single pass over the array.
+     * Indexes must be sorted and distinct, and refer to positions before any change is made.
+     */
+    private static TreeArray.Builder handleStructuralOperation(String op, TreeObject sourceObject, TreeArray.Builder targetArray, IntList indexes) {
+        boolean remove = op.equals("remove");
+        boolean after = op.equals("addAfter");
+        TreeNode newElement = remove ? null : getCleanedObject(sourceObject);
+
+        int size = targetArray.size();
+        int cursor = 0;
+        int atFront = 0;
+        int atEnd = 0;
+
+        //Negative indexes mean no index was specified, or nothing was found
+        while (cursor < indexes.size() && indexes.get(cursor) < 0) {
+            if (!remove) {
+                if (op.equals("addBefore") && indexes.get(cursor) == -1) {
+                    atFront++;
+                } else {
+                    atEnd++;
+                }
+            }
+            cursor++;
+        }
 
-            return targetArray;
-        } else { //Index not found, perform add
-            int indexToInsert = getUpsertIndex(sourceObject);
-            return handleAddOperation(sourceObject, targetArray, indexToInsert);
+        TreeArray.Builder result = TreeArray.builder(remove ? size : size + indexes.size());
+
+        for (int i = 0; i < atFront; i++) {
+            result.add(newElement);
         }
-    }
 
-    private static JsonArray handleAddOperation(JsonObject sourceObject, JsonArray targetArray, int index) {
-        JsonArray newArray = targetArray.deepCopy();
+        for (int position = 0; position < size; position++) {
+            boolean selected = cursor < indexes.size() && indexes.get(cursor) == position;
+            if (selected)
+                cursor++;
 
-        JsonElement newElement = getCleanedObject(sourceObject);
+            if (selected && remove)
+                continue;
 
-        if (index >= 0) {
-            if (index < newArray.size()) {
-                newArray = insertAt(newArray, index, newElement);
-            } else { //Index out of bounds, add to the end
-                newArray.add(newElement);
-            }
-        } else { //No index specified, add to the end
-            newArray.add(newElement);
+            if (selected && !after)
+                result.add(newElement);
+
+            result.add(targetArray.get(position));
+
+            if (selected && after)
+                result.add(newElement);
+        }
+
+        //Indexes out of bounds, add to the end
+        if (!remove) {
+            atEnd += indexes.size() - cursor;
+        }
+
+        for (int i = 0; i < atEnd; i++) {
+            result.add(newElement);
         }
 
-        return newArray;
+        return result;
     }
 
-    private static void handleRemoveOperation(JsonArray targetArray, int index) {
-        if (index < 0 || index >= targetArray.size())
-            return;
+    private static void handleUpsertOperation(TreeObject sourceObject, TreeArray.Builder targetArray, int index, MergeContext context) {
+        if (index >= 0 && index < targetArray.size()) { //Found index, perform merge
+            TreeObject targetElement = targetArray.get(index).asObject();
+            TreeObject cleanedSource = getCleanedObject(sourceObject).asObject();
+            targetArray.set(index, deepMerge(cleanedSource, targetElement, context));
+        } else { //Index not found, perform add
+            int indexToInsert = getUpsertIndex(sourceObject);
+            handleAddOperation(sourceObject, targetArray, indexToInsert);
+        }
+    }
 
-        targetArray.remove(index);
+    private static void handleAddOperation(TreeObject sourceObject, TreeArray.Builder targetArray, int index) {
+        TreeNode newElement = getCleanedObject(sourceObject);
+
+        if (index >= 0 && index < targetArray.size()) {
+            targetArray.insert(index, newElement);
+        } else { //No index specified, or index out of bounds, add to the end
+            targetArray.add(newElement);
+        }
     }
 
-    private static void handleReplaceOperation(JsonObject sourceObject, JsonArray targetArray, int index) {
+    private static void handleReplaceOperation(TreeObject sourceObject, TreeArray.Builder targetArray, int index) {
         if (index < 0 || index >= targetArray.size())
             return;
 
-        JsonElement newElement = getCleanedObject(sourceObject);
+        TreeNode newElement = getCleanedObject(sourceObject);
 
         targetArray.set(index, newElement);
     }
 
-    private static void handleMergeOperation(JsonObject sourceObject, JsonArray targetArray, int index) {
+    private static void handleMergeOperation(TreeObject sourceObject, TreeArray.Builder targetArray, int index, MergeContext context) {
         if (index < 0 || index >= targetArray.size())
             return;
 
-        JsonElement targetElement = targetArray.get(index);
-        if (!targetElement.isJsonObject())
+        TreeNode targetElement = targetArray.get(index);
+        if (!targetElement.isObject())
             return;
 
-        JsonElement newElement = getCleanedObject(sourceObject);
-        if (!newElement.isJsonObject()) {
+        TreeNode newElement = getCleanedObject(sourceObject);
+        if (!newElement.isObject()) {
             handleReplaceOperation(sourceObject, targetArray, index);
             return;
         }
 
-        deepMerge(newElement.getAsJsonObject(), targetElement.getAsJsonObject());
+        targetArray.set(index, deepMerge(newElement.asObject(), targetElement.asObject(), context));
     }
 
-    private static JsonElement getCleanedObject(JsonObject sourceObject) {
+    private static TreeNode getCleanedObject(TreeObject sourceObject) {
         if (sourceObject.get("_value") != null) {
             return sourceObject.get("_value");
         }
 
-        JsonObject newElement = sourceObject.deepCopy();
-        newElement.remove("_index");
-        newElement.remove("_op");
-        newElement.remove("_value");
-        newElement.remove("_find");
-        newElement.remove("_findAll");
-        return newElement;
+        return sourceObject.toBuilder()
+                .remove("_index")
+                .remove("_op")
+                .remove("_value")
+                .remove("_find")
+                .remove("_findAll")
+                .build();
     }
 
-    private static JsonArray insertAt(JsonArray array, int index, JsonElement element) {
-        JsonArray newArray = new JsonArray();
-        for (int i = 0; i < array.size(); i++) {
-            if (i == index) {
-                newArray.add(element);
-            }
-            newArray.add(array.get(i));
-        }
-        if (index >= array.size()) {
-            newArray.add(element);
-        }
-
-        return newArray;
-    }
-
-    private static int[] resolveIndex(JsonObject sourceObject, JsonArray targetArray) {
+    private static void resolveIndex(TreeObject sourceObject, TreeArray.Builder targetArray, IntList indexes, MergeContext context) {
         boolean findFirst = sourceObject.has("_find");
         boolean findAll = sourceObject.has("_findAll");
 
         if (findFirst && findAll) {
-            HytalorPlugin.get().getLogger()
-                    .at(Level.WARNING)
-                    .log("      Array merge object cannot have both _find and _findAll properties:\n" + sourceObject);
-            return new int[]{-1};
-        }
-
-        if (findFirst || findAll) {
-            return resolveFind(sourceObject, targetArray);
+            context.diagnostics().record(DiagnosticKind.CONFLICTING_FIND, sourceObject);
+        } else if (findFirst || findAll) {
+            resolveFind(sourceObject, targetArray, indexes, context);
+        } else if (sourceObject.has("_index")) {
+            getIndexes(sourceObject.get("_index"), indexes);
         }
 
-        if (sourceObject.has("_index")) {
-            return getIndexes(sourceObject.get("_index"));
+        if (indexes.isEmpty()) {
+            indexes.add(-1); //Default to -1 (no index specified, or nothing found)
         }
-
-        return new int[]{-1};
     }
 
-    private static int[] resolveFind(JsonObject sourceObject, JsonArray targetArray) {
+    private static void resolveFind(TreeObject sourceObject, TreeArray.Builder targetArray, IntList indexes, MergeContext context) {
         boolean findFirst = sourceObject.has("_find");
 
-        JsonElement findElement = sourceObject.get(findFirst ? "_find" : "_findAll");
+        TreeNode findElement = sourceObject.get(findFirst ? "_find" : "_findAll");
 
-        if (findElement.isJsonObject()) {
-            JsonArray indexesArray = new JsonArray();
+        if (findElement.isObject()) {
             for (int i = 0; i < targetArray.size(); i++) {
-                JsonElement candidateElement = targetArray.get(i);
-                if (matchesFindObject(findElement.getAsJsonObject(), candidateElement)) {
-                    indexesArray.add(i);
+                TreeNode candidateElement = targetArray.get(i);
+                if (matchesFindObject(findElement.asObject(), candidateElement)) {
+                    indexes.add(i);
 
-                    if (findFirst)
-                        break;
+                    if (findFirst) {
+                        context.countScanned(i + 1);
+                        return;
+                    }
                 }
             }
-            return getIndexes(indexesArray);
+            context.countScanned(targetArray.size());
+            return;
         }
 
-        if (isQuery(findElement.getAsString())) {
-            return queryIndexes(findElement, targetArray, findFirst);
+        if (isQuery(findElement.asValue().getAsString())) {
+            queryIndexes(findElement, targetArray, findFirst, indexes, context);
         }
-
-        return new int[]{-1};
     }
 
-    private static boolean matchesFindObject(JsonObject findObject, JsonElement candidateElement) {
-        if (!candidateElement.isJsonObject())
+    private static boolean matchesFindObject(TreeObject findObject, TreeNode candidateElement) {
+        if (!candidateElement.isObject())
             return false;
 
-        JsonObject candidateObject = candidateElement.getAsJsonObject();
+        TreeObject candidateObject = candidateElement.asObject();
 
-        for (String key : findObject.keySet()) {
-            if (!candidateObject.has(key))
+        for (Map.Entry<String, TreeNode> entry : findObject.entrySet()) {
+            TreeNode candidateValue = candidateObject.get(entry.getKey());
+            if (candidateValue == null)
                 return false;
 
-            JsonElement findValue = findObject.get(key);
-            JsonElement candidateValue = candidateObject.get(key);
-
-            if (!findValue.equals(candidateValue))
+            if (!entry.getValue().equals(candidateValue))
                 return false;
         }
 
         return true;
     }
 
-    private static void resolveQuery(String query, JsonElement value, JsonObject targetObject) {
-        try {
-            var pathsDoc = JsonPath.using(conf).parse(targetObject);
-            var objectDoc = JsonPath.using(provider).parse(targetObject);
+    private static TreeObject resolveQuery(String query, TreeNode value, TreeObject targetObject, MergeContext context) {
+        if (!MergeEvent.isRecording())
+            return applyQuery(query, value, targetObject, context);
 
-            JsonArray matches = pathsDoc.read(query);
+        MergeEvent event = new MergeEvent();
+        event.begin();
+
+        TreeObject result = applyQuery(query, value, targetObject, context);
+
+        commit(event, "query", query, context);
+        return result;
+    }
+
+    private static TreeObject applyQuery(String query, TreeNode value, TreeObject targetObject, MergeContext context) {
+        try {
+            List<List<Object>> matches = queryPaths(query, targetObject, context);
             if (matches.isEmpty()) {
                 throw new PathNotFoundException();
             }
 
-            for (JsonElement match : matches) {
-                String jsonPath = match.getAsString();
+            //Object and array patches are applied to the first match, values are set on every match in one pass
+            UnaryOperator<TreeNode> update;
+            if (value.isObject()) {
+                matches = matches.subList(0, 1);
+                if (isRemoveOperation(value.asObject(), context)) {
+                    update = match -> null;
+                } else {
+                    update = match -> deepMerge(value.asObject(), match.asObject(), context);
+                }
+            } else if (value.isArray() && isArrayPatch(value.asArray())) {
+                matches = matches.subList(0, 1);
+                update = match -> mergeArray(value.asArray(), match.asArray(), context);
+            } else {
+                update = match -> value;
+            }
 
-                if (value.isJsonObject()) {
-                    if (isRemoveOperation(value.getAsJsonObject())) {
-                        objectDoc.delete(jsonPath);
-                        return;
-                    }
+            TreeNode result = JsonTree.updateAll(targetObject, matches, update);
+            return result != null && result.isObject() ? result.asObject() : targetObject;
+        } catch (PathNotFoundException e) {
+            context.diagnostics().record(DiagnosticKind.NO_QUERY_MATCH, query);
+            return targetObject;
+        }
+    }
 
-                    JsonObject matchObject = objectDoc.read(jsonPath);
-                    deepMerge(value.getAsJsonObject(), matchObject);
-                    objectDoc.set(jsonPath, matchObject);
-                    return;
-                }
+    private static void commit(MergeEvent event, String operation, String query, MergeContext context) {
+        if (!event.shouldCommit())
+            return;
 
-                if (value.isJsonArray() && isArrayPatch(value.getAsJsonArray())) {
-                    JsonArray matchArray = objectDoc.read(jsonPath);
-                    matchArray = mergeArray(value.getAsJsonArray(), matchArray);
-                    objectDoc.set(jsonPath, matchArray);
-                    return;
-                }
+        Object patch = context.diagnostics().getPatch();
+        event.operation = operation;
+        event.base = context.diagnostics().getBase();
+        event.patch = patch != null ? patch.toString() : null;
+        event.query = query;
+        event.commit();
+    }
 
-                objectDoc.set(query, value).jsonString();
-            }
-        } catch (PathNotFoundException e) {
-            HytalorPlugin.get().getLogger().at(Level.WARNING).log(
-                    "       Query did not match any elements: " + query
-            );
+    /**
+     * Returns the paths matched by the query. Deep scans the {@link DeepQuery} fast path supports skip the parts of
+     * the tree that can't match, everything else is run by JsonPath.
+     */
+    private static List<List<Object>> queryPaths(String query, TreeObject targetObject, MergeContext context) {
+        context.countQuery();
+
+        DeepQuery deepQuery = DeepQuery.compile(query);
+        if (deepQuery != null) {
+            List<List<Object>> paths = deepQuery.find(targetObject);
+            if (paths != null)
+                return paths;
         }
+
+        List<String> matches = JsonPath.using(conf).parse(targetObject).read(query);
+        List<List<Object>> paths = new ArrayList<>(matches.size());
+        for (String match : matches) {
+            paths.add(JsonTree.parsePath(match));
+        }
+        return paths;
     }
 
     private static boolean isQuery(String key) {
         return key.startsWith("$") && !key.equals("$Comment");
     }
 
-    private static int[] queryIndexes(JsonElement findElement, JsonArray targetArray, boolean firstOnly) {
-        JsonArray indexesArray = new JsonArray();
+    private static void queryIndexes(TreeNode findElement, TreeArray.Builder targetArray, boolean firstOnly, IntList indexes, MergeContext context) {
+        String query = findElement.asValue().getAsString();
 
         for (int i = 0; i < targetArray.size(); i++) {
-            JsonElement candidateElement = targetArray.get(i);
+            TreeNode candidateElement = targetArray.get(i);
+            context.countScanned(1);
+            context.countQuery();
 
             try {
-                JsonArray queryResults = JsonPath.using(provider).parse(candidateElement).read(findElement.getAsString());
+                List<Object> queryResults = JsonPath.using(valueConf).parse(candidateElement).read(query);
                 if (queryResults == null || queryResults.isEmpty())
                     continue;
 
@@ -376,74 +696,67 @@ public class JSONUtil {
                 continue;
             }
 
-            indexesArray.add(i);
+            indexes.add(i);
             if (firstOnly) {
-                return getIndexes(indexesArray);
+                return;
             }
         }
-
-        return getIndexes(indexesArray);
     }
 
-    private static int[] getIndexes(JsonElement indexElement) {
-        int[] indexes = new int[] { -1 }; //Default to -1 (no index specified)
-
-        if (indexElement != null) {
-            if (indexElement.isJsonArray() && !indexElement.getAsJsonArray().isEmpty()) {
-                indexes = new int[indexElement.getAsJsonArray().size()];
-                for (int i = 0; i < indexElement.getAsJsonArray().size(); i++) {
-                    indexes[i] = indexElement.getAsJsonArray().get(i).getAsInt();
-                }
-            } else if (indexElement.isJsonPrimitive() && indexElement.getAsJsonPrimitive().isNumber()) {
-                indexes = new int[] { indexElement.getAsInt() };
+    private static void getIndexes(TreeNode indexElement, IntList indexes) {
+        if (indexElement.isArray()) {
+            TreeArray indexArray = indexElement.asArray();
+            for (int i = 0; i < indexArray.size(); i++) {
+                indexes.add(indexArray.get(i).asValue().getAsInt());
             }
+        } else if (indexElement.isValue() && indexElement.asValue().isNumber()) {
+            indexes.add(indexElement.asValue().getAsInt());
         }
-        return indexes;
     }
 
-    private static int getUpsertIndex(JsonObject sourceElement) {
-        JsonElement indexElement = sourceElement.get("_index");
+    private static int getUpsertIndex(TreeObject sourceElement) {
+        TreeNode indexElement = sourceElement.get("_index");
 
-        if (indexElement != null && indexElement.isJsonPrimitive()) {
-            return indexElement.getAsInt();
+        if (indexElement != null && indexElement.isValue()) {
+            return indexElement.asValue().getAsInt();
         }
 
         return -1; //Default to -1 (no index specified)
     }
 
-    private static boolean isArrayPatch(JsonArray array) {
+    private static boolean isArrayPatch(TreeArray array) {
         if (array.isEmpty())
             return false;
 
-        JsonElement firstElement = array.get(0);
-        if (!firstElement.isJsonObject())
+        TreeNode firstElement = array.get(0);
+        if (!firstElement.isObject())
             return false;
 
-        return isObjectAPatch(firstElement.getAsJsonObject());
+        return isObjectAPatch(firstElement.asObject());
     }
 
-    private static boolean isObjectAPatch(JsonObject jsonObject) {
-        return jsonObject.getAsJsonObject().has("_op") ||
-                jsonObject.getAsJsonObject().has("_index") ||
-                jsonObject.getAsJsonObject().has("_find") ||
-                jsonObject.getAsJsonObject().has("_findAll");
+    private static boolean isObjectAPatch(TreeObject object) {
+        return object.has("_op") ||
+                object.has("_index") ||
+                object.has("_find") ||
+                object.has("_findAll");
     }
 
-    private static boolean isPatch(JsonElement jsonElement) {
-        if (!jsonElement.isJsonObject())
+    private static boolean isPatch(TreeNode node) {
+        if (!node.isObject())
             return false;
 
-        JsonObject jsonObject = jsonElement.getAsJsonObject();
+        TreeObject object = node.asObject();
 
-        if (isObjectAPatch(jsonObject))
+        if (isObjectAPatch(object))
             return true;
 
-        for (Map.Entry<String, JsonElement> element : jsonObject.entrySet()) {
-            if (element.getValue().isJsonObject())
-                return isObjectAPatch(element.getValue().getAsJsonObject());
+        for (Map.Entry<String, TreeNode> element : object.entrySet()) {
+            if (element.getValue().isObject())
+                return isObjectAPatch(element.getValue().asObject());
 
-            if (element.getValue().isJsonArray())
-                return isArrayPatch(element.getValue().getAsJsonArray());
+            if (element.getValue().isArray())
+                return isArrayPatch(element.getValue().asArray());
         }
 
         return false;
@@ -0,0 +1,64 @@
+package com.hypersonicsharkz.util;
+
+import com.hypersonicsharkz.diagnostics.PatchDiagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-build state for {@link JSONUtil} merges.
+ * <p>
+ * Holds the index buffers used by array operations. Merges recurse into nested arrays, so there is one buffer per
+ * nesting depth, and they are reused for every patch merged with the same context. Problems found while merging
+ * are recorded into the context's {@link PatchDiagnostics}, and the work done is counted so it can be attributed to
+ * the patch being merged. A context must only be used by one thread at a time.
+ */
+public class MergeContext {
+    private final List<IntList> indexBuffers = new ArrayList<>();
+    private final PatchDiagnostics diagnostics;
+    private int depth;
+    private long queries; //JsonPath evaluations
+    private long elementsScanned; //Array elements tested by _find and _findAll
+
+    public MergeContext() {
+        this(new PatchDiagnostics());
+    }
+
+    public MergeContext(PatchDiagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
+    public PatchDiagnostics diagnostics() {
+        return diagnostics;
+    }
+
+    public long getQueries() {
+        return queries;
+    }
+
+    public long getElementsScanned() {
+        return elementsScanned;
+    }
+
+    void countQuery() {
+        queries++;
+    }
+
+    void countScanned(int elements) {
+        elementsScanned += elements;
+    }
+
+    IntList acquireIndexes() {
+        if (depth == indexBuffers.size()) {
+            indexBuffers.add(new IntList());
+        }
+
+        IntList indexes = indexBuffers.get(depth++);
+        indexes.clear();
+        return indexes;
+    }
+
+    void releaseIndexes() {
+        depth--;
+    }
+}
@@ -0,0 +1,89 @@
+package com.hypersonicsharkz.util;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Matches many {@code _BaseAssetPath} patterns against the asset catalogue in one pass.
+ * <p>
+ * Literal patterns are looked up by path. Globs are placed in a trie under the directories of their literal prefix,
+ * so walking a path down the trie only tests the globs that can match it. Regex patterns can't be indexed and are
+ * tested against every path.
+ */
+public class PatternResolver<T> {
+    private final Map<String, List<T>> literals = new HashMap<>();
+    private final Node<T> root = new Node<>();
+    private final List<Matcher<T>> regexes = new ArrayList<>();
+
+    public void add(String pattern, T target) {
+        if (pattern.startsWith("regex:")) {
+            regexes.add(new Matcher<>(Pattern.compile(pattern.substring("regex:".length())).asMatchPredicate(), target));
+            return;
+        }
+
+        GlobMatcher glob = GlobMatcher.compile(pattern);
+        if (glob.isLiteral()) {
+            literals.computeIfAbsent(pattern, k -> new ArrayList<>()).add(target);
+            return;
+        }
+
+        //Index the glob under the directories before its first wildcard
+        String prefix = glob.getLiteralPrefix();
+        Node<T> node = root;
+        int start = 0;
+        for (int end = prefix.indexOf('/'); end != -1; end = prefix.indexOf('/', start)) {
+            node = node.children.computeIfAbsent(prefix.substring(start, end), k -> new Node<>());
+            start = end + 1;
+        }
+        node.matchers.add(new Matcher<>(glob::matches, target));
+    }
+
+    /**
+     * Walks each path once, and calls {@code onMatch} for every target with a pattern matching it. A target with
+     * several patterns matching the same path is reported once per pattern.
+     */
+    public void resolve(Iterable<String> paths, BiConsumer<T, String> onMatch) {
+        for (String path : paths) {
+            List<T> literalTargets = literals.get(path);
+            if (literalTargets != null) {
+                for (T target : literalTargets) {
+                    onMatch.accept(target, path);
+                }
+            }
+
+            for (Matcher<T> regex : regexes) {
+                regex.test(path, onMatch);
+            }
+
+            Node<T> node = root;
+            int start = 0;
+            while (node != null) {
+                for (Matcher<T> matcher : node.matchers) {
+                    matcher.test(path, onMatch);
+                }
+
+                int end = path.indexOf('/', start);
+                if (end == -1 || node.children.isEmpty())
+                    break;
+
+                node = node.children.get(path.substring(start, end));
+                start = end + 1;
+            }
+        }
+    }
+
+    private static final class Node<T> {
+        private final Map<String, Node<T>> children = new HashMap<>();
+        private final List<Matcher<T>> matchers = new ArrayList<>();
+    }
+
+    private record Matcher<T>(Predicate<String> predicate, T target) {
+        void test(String path, BiConsumer<T, String> onMatch) {
+            if (predicate.test(path)) {
+                onMatch.accept(target, path);
+            }
+        }
+    }
+}
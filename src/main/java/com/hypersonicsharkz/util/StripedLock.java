@@ -0,0 +1,23 @@
+package com.hypersonicsharkz.util;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared between keys by hash. Keys on different stripes never wait for each other,
+ * without needing one lock per key.
+ */
+public class StripedLock {
+    private final ReentrantLock[] locks;
+
+    public StripedLock(int stripes) {
+        locks = new ReentrantLock[Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock get(Object key) {
+        int hash = key.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & (locks.length - 1)];
+    }
+}
@@ -0,0 +1,54 @@
+package com.hypersonicsharkz;
+
+import com.hypersonicsharkz.tree.TreeObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetCacheTest {
+
+    @Test
+    void rereadsFilesChangedWithinTheSameMillisecond() throws IOException {
+        Path file = Files.createTempFile("hytalor-cache", ".json");
+        Instant modified = Instant.parse("2026-01-01T00:00:00.000100Z");
+        write(file, "{ \"Value\": 1 }", modified);
+
+        AssetCache cache = new AssetCache(16);
+        TreeObject first = cache.get(file);
+        assertSame(first, cache.get(file));
+
+        //Same size, same millisecond
+        write(file, "{ \"Value\": 2 }", modified.plusNanos(200_000));
+        assertEquals(2, cache.get(file).get("Value").asValue().getAsInt());
+    }
+
+    @Test
+    void keepsOnlyTheMostRecentlyUsedFiles() throws IOException {
+        Path a = Files.createTempFile("hytalor-cache", ".json");
+        Path b = Files.createTempFile("hytalor-cache", ".json");
+        Path c = Files.createTempFile("hytalor-cache", ".json");
+        for (Path path : new Path[]{a, b, c}) {
+            Files.writeString(path, "{ \"Value\": 1 }");
+        }
+
+        AssetCache cache = new AssetCache(2);
+        TreeObject treeA = cache.get(a);
+        TreeObject treeB = cache.get(b);
+        cache.get(a);
+        cache.get(c);
+
+        assertSame(treeA, cache.get(a));
+        assertNotSame(treeB, cache.get(b));
+    }
+
+    private static void write(Path path, String content, Instant modified) throws IOException {
+        Files.writeString(path, content);
+        Files.setLastModifiedTime(path, FileTime.from(modified));
+    }
+}
@@ -0,0 +1,31 @@
+package com.hypersonicsharkz;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetCatalogueTest {
+
+    @Test
+    void readsBackOnlyForTheSameKey() throws IOException {
+        Path cache = Files.createTempDirectory("hytalor-catalogue");
+        Path file = AssetCatalogue.pathFor(cache, "Hytale:Hytale");
+        List<String> paths = List.of(
+                "Server/Item/Items/Weapon/Sword/Weapon_Sword_Iron.json",
+                "Common/Blocks/Rock.blockymodel",
+                "Server/Item/Items/Weapon/Sword/Weapon_Sword_Copper.json",
+                "Server/Item/Items/Weapon/Axe/Weapon_Axe_Iron.json"
+        );
+
+        AssetCatalogue.write(file, "Hytale:Hytale|1.0.0", paths);
+
+        assertEquals(paths.stream().sorted().toList(), AssetCatalogue.read(file, "Hytale:Hytale|1.0.0"));
+        assertNull(AssetCatalogue.read(file, "Hytale:Hytale|1.0.1"));
+        assertNull(AssetCatalogue.read(AssetCatalogue.pathFor(cache, "Other:Pack"), "Hytale:Hytale|1.0.0"));
+    }
+}
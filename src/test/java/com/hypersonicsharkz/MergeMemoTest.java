@@ -0,0 +1,115 @@
+package com.hypersonicsharkz;
+
+import com.hypersonicsharkz.codec.AssetCodecs;
+import com.hypersonicsharkz.diagnostics.DiagnosticKind;
+import com.hypersonicsharkz.diagnostics.PatchDiagnostics;
+import com.hypersonicsharkz.tree.TreeObject;
+import com.hypersonicsharkz.util.MergeContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MergeMemoTest {
+
+    @Test
+    void keysEqualByContent() {
+        MergeMemo.Key key = new MergeMemo.Key(AssetCodecs.JSON, 1, new long[]{2, 3});
+
+        assertEquals(key, new MergeMemo.Key(AssetCodecs.JSON, 1, new long[]{2, 3}));
+        assertEquals(key.hashCode(), new MergeMemo.Key(AssetCodecs.JSON, 1, new long[]{2, 3}).hashCode());
+        assertNotEquals(key, new MergeMemo.Key(AssetCodecs.JSON, 1, new long[]{3, 2}));
+        assertNotEquals(key, new MergeMemo.Key(AssetCodecs.JSON, 4, new long[]{2, 3}));
+        assertNotEquals(key, new MergeMemo.Key(AssetCodecs.BSON, 1, new long[]{2, 3}));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedOverTheByteLimit() {
+        MergeMemo memo = new MergeMemo(10);
+        MergeMemo.Key a = key(1);
+        MergeMemo.Key b = key(2);
+        MergeMemo.Key c = key(3);
+
+        memo.put(a, entry(4));
+        memo.put(b, entry(4));
+        assertNotNull(memo.get(a));
+
+        memo.put(c, entry(4));
+        assertNotNull(memo.get(a));
+        assertNull(memo.get(b));
+        assertNotNull(memo.get(c));
+
+        //Larger than the whole memo, never stored
+        memo.put(key(4), entry(11));
+        assertNull(memo.get(key(4)));
+        assertNotNull(memo.get(a));
+    }
+
+    @Test
+    void hitReplaysTheDiagnosticsOfTheMerge() throws IOException {
+        //Unique content, so no other test's merge is in the memo
+        String name = UUID.randomUUID().toString();
+        Path root = Files.createTempDirectory("hytalor-memo");
+        write(root.resolve("Server/Item/Items/First.json"), "{ \"Name\": \"" + name + "\" }");
+        write(root.resolve("Server/Item/Items/Second.json"), "{ \"Name\": \"" + name + "\" }");
+        write(root.resolve("Server/Patch/Patch.json"), """
+                { "_BaseAssetPath": "Server/Item/Items/*.json", "Level": 2, "Missing": { "_op": "merge", "Deep": 1 } }
+                """);
+
+        PatchManager manager = PatchManager.get();
+        Path previousOutput = manager.getOutputPath();
+        try {
+            manager.clear();
+            manager.setOutputPath(root.resolve("Out"));
+            manager.loadPack(root);
+
+            PatchDiagnostics first = build(manager, "Server/Item/Items/First.json");
+            PatchDiagnostics second = build(manager, "Server/Item/Items/Second.json");
+
+            assertEquals(0, first.count(DiagnosticKind.MERGE_REUSED));
+            assertEquals(1, second.count(DiagnosticKind.MERGE_REUSED));
+            assertEquals(1, second.count(DiagnosticKind.MISSING_KEY));
+            assertEquals(mergeEvents(first, "Server/Item/Items/Second.json"), mergeEvents(second, "Server/Item/Items/Second.json"));
+            assertEquals(Files.readString(root.resolve("Out/Server/Item/Items/First.json")),
+                    Files.readString(root.resolve("Out/Server/Item/Items/Second.json")));
+        } finally {
+            manager.clear();
+            manager.setOutputPath(previousOutput);
+        }
+    }
+
+    private static PatchDiagnostics build(PatchManager manager, String baseName) {
+        PatchDiagnostics diagnostics = new PatchDiagnostics();
+        Path basePath = manager.getPatchedBaseAssets(baseName).getFirst().getValue();
+        manager.applyPatches(baseName, basePath, new MergeContext(diagnostics));
+        return diagnostics;
+    }
+
+    /**
+     * Returns what the merge recorded, as if it was recorded for the given base.
+     */
+    private static List<PatchDiagnostics.Event> mergeEvents(PatchDiagnostics diagnostics, String baseName) {
+        return diagnostics.getEvents().stream()
+                .filter(event -> event.kind() != DiagnosticKind.MERGE_REUSED && event.kind() != DiagnosticKind.BASE_BUILT)
+                .map(event -> new PatchDiagnostics.Event(event.kind(), baseName, event.patch(), event.detail()))
+                .toList();
+    }
+
+    private static MergeMemo.Key key(long baseHash) {
+        return new MergeMemo.Key(AssetCodecs.JSON, baseHash, new long[0]);
+    }
+
+    private static MergeMemo.Entry entry(int bytes) {
+        return new MergeMemo.Entry(TreeObject.builder().build(), new byte[bytes], List.of());
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+}
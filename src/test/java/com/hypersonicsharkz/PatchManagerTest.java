@@ -0,0 +1,188 @@
+package com.hypersonicsharkz;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.hypersonicsharkz.diagnostics.PatchDiagnostics;
+import com.hypersonicsharkz.tree.TreeObject;
+import com.hypersonicsharkz.tree.TreeValue;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatchManagerTest {
+    private static final String BASE = "Server/Item/Items/Test.json";
+
+    @Test
+    void diffResolvesReferencesOfPatchesNotYetBuilt() throws IOException {
+        Path root = Files.createTempDirectory("hytalor-manager");
+        write(root.resolve(BASE), "{ \"Name\": \"Base\" }");
+        write(root.resolve("Server/Item/Items/Other.json"), "{ \"Value\": 5 }");
+        write(root.resolve("Server/Patch/Ref.json"), """
+                { "_BaseAssetPath": "Server/Item/Items/Test.json", "Ref": { "_ref": "Server/Item/Items/Other.json", "_path": "$.Value" } }
+                """);
+
+        PatchManager manager = PatchManager.get();
+        manager.clear();
+        manager.loadPack(root);
+
+        List<TreeObject> built = manager.buildAllPatched(manager.getPatchedBaseAssets(BASE), new PatchDiagnostics()).join();
+
+        assertEquals(5, built.getFirst().get("Ref").asValue().getAsInt());
+    }
+
+    @Test
+    void memoryPatchesRebuildTheAssetsTheyTarget() throws IOException {
+        Path root = Files.createTempDirectory("hytalor-manager");
+        write(root.resolve("Server/Item/Items/First.json"), "{ \"Name\": \"First\" }");
+        write(root.resolve("Server/Item/Items/Second.json"), "{ \"Name\": \"Second\" }");
+
+        PatchManager manager = PatchManager.get();
+        Path previousOutput = manager.getOutputPath();
+        try {
+            manager.clear();
+            manager.setOutputPath(root.resolve("Out"));
+            manager.loadPack(root);
+
+            manager.registerPatch("test:level", patch("Server/Item/Items/First.json", "\"Level\": 2"));
+            assertTrue(manager.hasPatch("test:level"));
+            assertNull(output(manager, root, "Server/Item/Items/First.json").get("Level"), "Registered patches wait for the initial build");
+
+            manager.applyAllPatches();
+            assertEquals(2, output(manager, root, "Server/Item/Items/First.json").get("Level").asValue().getAsInt());
+
+            //Registering the same id again replaces the patch
+            manager.registerPatch("test:level", patch("Server/Item/Items/First.json", "\"Level\": 3"));
+            assertEquals(3, output(manager, root, "Server/Item/Items/First.json").get("Level").asValue().getAsInt());
+
+            //The asset it no longer targets is rebuilt without it
+            manager.registerPatch("test:level", patch("Server/Item/Items/Second.json", "\"Level\": 4"));
+            assertNull(output(manager, root, "Server/Item/Items/First.json").get("Level"));
+            assertEquals(4, output(manager, root, "Server/Item/Items/Second.json").get("Level").asValue().getAsInt());
+
+            manager.removePatch("test:level");
+            assertFalse(manager.hasPatch("test:level"));
+            assertEquals(TreeObject.builder().put("Name", TreeValue.of("Second")).build(), output(manager, root, "Server/Item/Items/Second.json"));
+        } finally {
+            manager.removePatch("test:level");
+            manager.clear();
+            manager.setOutputPath(previousOutput);
+        }
+    }
+
+    @Test
+    void snapshotsStayConsistentWhilePatchesChangeDuringRebuilds() throws Exception {
+        Path root = Files.createTempDirectory("hytalor-manager");
+        write(root.resolve("Server/Item/Items/First.json"), "{ \"Name\": \"First\" }");
+        write(root.resolve("Server/Item/Items/Second.json"), "{ \"Name\": \"Second\" }");
+
+        PatchManager manager = PatchManager.get();
+        Path previousOutput = manager.getOutputPath();
+        int threads = 4;
+        int patchesPerThread = 50;
+        try {
+            manager.clear();
+            manager.setOutputPath(root.resolve("Out"));
+            manager.loadPack(root);
+            manager.applyAllPatches();
+
+            //Every patch targets both bases, so a snapshot with a patch on only one of them saw half a change
+            AtomicBoolean running = new AtomicBoolean(true);
+            List<String> problems = Collections.synchronizedList(new ArrayList<>());
+            Thread checker = Thread.ofPlatform().start(() -> {
+                while (running.get()) {
+                    PatchManager.Snapshot snapshot = manager.snapshot();
+                    Set<PatchSource> first = sources(snapshot.patches().get("Server/Item/Items/First.json"));
+                    Set<PatchSource> second = sources(snapshot.patches().get("Server/Item/Items/Second.json"));
+                    if (!first.equals(second))
+                        problems.add("Version " + snapshot.version() + ": " + first + " != " + second);
+                }
+            });
+            Thread rebuilder = Thread.ofPlatform().start(() -> {
+                while (running.get()) {
+                    manager.applyPatches("Server/Item/Items/*.json");
+                }
+            });
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> changes = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                changes.add(executor.submit(() -> {
+                    for (int i = 0; i < patchesPerThread; i++) {
+                        String id = "test:concurrent-" + thread + "-" + i;
+                        manager.registerPatch(id, patch("Server/Item/Items/*.json", "\"P" + thread + "_" + i + "\": " + i));
+                        if (i % 2 == 1) {
+                            manager.removePatch(id);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> change : changes) {
+                change.get();
+            }
+            executor.shutdown();
+
+            running.set(false);
+            checker.join();
+            rebuilder.join();
+            assertEquals(List.of(), problems);
+
+            //Each patch left is loaded exactly once, and the outputs were built from all of them
+            manager.applyPatches("Server/Item/Items/*.json");
+            for (String baseName : List.of("Server/Item/Items/First.json", "Server/Item/Items/Second.json")) {
+                List<PatchSource> loaded = new ArrayList<>();
+                manager.snapshot().patches().get(baseName).forEach(entry -> loaded.add(entry.source()));
+                assertEquals(threads * patchesPerThread / 2, loaded.size());
+                assertEquals(loaded.size(), new HashSet<>(loaded).size());
+
+                TreeObject output = output(manager, root, baseName);
+                for (int t = 0; t < threads; t++) {
+                    for (int i = 0; i < patchesPerThread; i++) {
+                        assertEquals(i % 2 == 0, output.has("P" + t + "_" + i), baseName + " P" + t + "_" + i);
+                    }
+                }
+            }
+        } finally {
+            for (int t = 0; t < threads; t++) {
+                for (int i = 0; i < patchesPerThread; i++) {
+                    manager.removePatch("test:concurrent-" + t + "-" + i);
+                }
+            }
+            manager.clear();
+            manager.setOutputPath(previousOutput);
+        }
+    }
+
+    private static Set<PatchSource> sources(PatchOrder order) {
+        Set<PatchSource> sources = new HashSet<>();
+        if (order != null)
+            order.forEach(entry -> sources.add(entry.source()));
+        return sources;
+    }
+
+    private static JsonObject patch(String baseAssetPath, String fields) {
+        return JsonParser.parseString("{ \"_BaseAssetPath\": \"" + baseAssetPath + "\", " + fields + " }").getAsJsonObject();
+    }
+
+    private static TreeObject output(PatchManager manager, Path root, String baseName) {
+        return manager.getCurrentOutput(baseName, root.resolve(baseName));
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+}
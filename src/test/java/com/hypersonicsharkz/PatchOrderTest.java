@@ -0,0 +1,83 @@
+package com.hypersonicsharkz;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatchOrderTest {
+
+    @Test
+    void ordersByPriorityThenLoadSequence() {
+        PatchOrder order = PatchOrder.EMPTY
+                .with(entry(0, 1))
+                .with(entry(10, 2))
+                .with(entry(0, 0))
+                .with(entry(-5, 3))
+                .with(entry(10, 4));
+
+        assertEquals(List.of(entry(10, 2), entry(10, 4), entry(0, 0), entry(0, 1), entry(-5, 3)), list(order));
+        assertEquals(5, order.size());
+    }
+
+    @Test
+    void withoutRemovesOnlyThatEntry() {
+        PatchOrder order = PatchOrder.EMPTY.with(entry(1, 0)).with(entry(2, 1)).with(entry(1, 2));
+        PatchOrder removed = order.without(entry(1, 0));
+
+        assertEquals(List.of(entry(2, 1), entry(1, 2)), list(removed));
+        assertEquals(3, order.size(), "Versions are persistent");
+        assertSame(removed, removed.without(entry(1, 0)));
+        assertTrue(removed.without(entry(2, 1)).without(entry(1, 2)).isEmpty());
+    }
+
+    @Test
+    void staysBalancedUnderManyInsertsAndRemoves() {
+        Random random = new Random(42);
+        List<PatchOrder.Entry> expected = new ArrayList<>();
+        PatchOrder order = PatchOrder.EMPTY;
+
+        //Sorted inserts are the worst case for an unbalanced tree
+        for (int i = 0; i < 5000; i++) {
+            PatchOrder.Entry entry = entry(0, i);
+            order = order.with(entry);
+            expected.add(entry);
+        }
+        for (int i = 5000; i < 10000; i++) {
+            PatchOrder.Entry entry = entry(random.nextInt(20), i);
+            order = order.with(entry);
+            expected.add(entry);
+        }
+        assertBalanced(order);
+
+        Collections.shuffle(expected, random);
+        for (PatchOrder.Entry entry : List.copyOf(expected.subList(0, 7000))) {
+            order = order.without(entry);
+            expected.remove(entry);
+        }
+        assertBalanced(order);
+
+        Collections.sort(expected);
+        assertEquals(expected, list(order));
+        assertEquals(expected.size(), order.size());
+    }
+
+    private static void assertBalanced(PatchOrder order) {
+        double bound = 1.45 * Math.log(order.size() + 2) / Math.log(2);
+        assertTrue(order.height() <= bound, "height " + order.height() + " for " + order.size() + " entries");
+    }
+
+    private static PatchOrder.Entry entry(int priority, long sequence) {
+        return new PatchOrder.Entry(priority, sequence, new PatchSource.MemoryPatch("patch-" + sequence));
+    }
+
+    private static List<PatchOrder.Entry> list(PatchOrder order) {
+        List<PatchOrder.Entry> entries = new ArrayList<>();
+        order.forEach(entries::add);
+        return entries;
+    }
+}
@@ -0,0 +1,176 @@
+package com.hypersonicsharkz;
+
+import com.hypersonicsharkz.diagnostics.DiagnosticKind;
+import com.hypersonicsharkz.diagnostics.PatchDiagnostics;
+import com.hypersonicsharkz.tree.TreeObject;
+import com.hypersonicsharkz.tree.TreeValue;
+import com.hypersonicsharkz.util.MergeContext;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixCheckpointsTest {
+    private static final String BASE = "Server/Item/Items/Test.json";
+
+    @Test
+    void resumedMergeMatchesFullMerge() throws IOException {
+        Path root = writePack("""
+                { "_BaseAssetPath": "Server/Item/Items/Test.json", "_priority": 20, "Level": 2 }
+                """);
+        PrefixCheckpoints checkpoints = new PrefixCheckpoints(8);
+        build(checkpoints, new PatchDiagnostics());
+
+        changeLastPatch(root);
+
+        PatchDiagnostics resumedDiagnostics = new PatchDiagnostics();
+        TreeObject resumed = build(checkpoints, resumedDiagnostics);
+        PatchDiagnostics fullDiagnostics = new PatchDiagnostics();
+        TreeObject full = build(new PrefixCheckpoints(0), fullDiagnostics);
+
+        assertEquals(2, resumedEvent(resumedDiagnostics).detail());
+        assertEquals(full, resumed);
+        assertEquals("Changed", resumed.get("Name").asValue().getAsString());
+        assertEquals(1, resumedDiagnostics.count(DiagnosticKind.MISSING_KEY));
+        assertEquals(mergeEvents(fullDiagnostics), mergeEvents(resumedDiagnostics));
+    }
+
+    @Test
+    void checkpointsStopBeforeTheFirstReference() throws IOException {
+        Path root = writePack("""
+                { "_BaseAssetPath": "Server/Item/Items/Test.json", "_priority": 20, "Ref": { "_ref": "Server/Item/Items/Other.json", "_path": "$.Value" } }
+                """);
+        PrefixCheckpoints checkpoints = new PrefixCheckpoints(8);
+        build(checkpoints, new PatchDiagnostics());
+
+        changeLastPatch(root);
+
+        PatchDiagnostics diagnostics = new PatchDiagnostics();
+        TreeObject resumed = build(checkpoints, diagnostics);
+
+        assertEquals(1, resumedEvent(diagnostics).detail());
+        assertEquals(5, resumed.get("Ref").asValue().getAsInt());
+        assertEquals(build(new PrefixCheckpoints(0), new PatchDiagnostics()), resumed);
+    }
+
+    @Test
+    void thinsCheckpointsOfLongPrefixes() {
+        int patches = PrefixCheckpoints.MAX_PER_BASE * 3;
+        long[] chain = chain(patches);
+        List<PrefixCheckpoints.Checkpoint> added = new ArrayList<>();
+        for (int length = 1; length <= patches; length++) {
+            added.add(checkpoint(chain, length));
+        }
+
+        PrefixCheckpoints checkpoints = new PrefixCheckpoints(8);
+        checkpoints.put("base", chain, added);
+
+        //The longest checkpoint within each prefix shows which ones were kept
+        Set<Integer> kept = new HashSet<>();
+        for (int length = 1; length <= patches; length++) {
+            PrefixCheckpoints.Checkpoint found = checkpoints.find("base", Arrays.copyOf(chain, length + 1));
+            if (found != null)
+                kept.add(found.length());
+        }
+
+        assertTrue(kept.size() <= PrefixCheckpoints.MAX_PER_BASE, kept.toString());
+        assertTrue(kept.size() >= PrefixCheckpoints.MAX_PER_BASE / 2, kept.toString());
+        assertTrue(kept.contains(patches), kept.toString());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBases() {
+        long[] chain = chain(2);
+        PrefixCheckpoints checkpoints = new PrefixCheckpoints(2);
+        checkpoints.put("a", chain, List.of(checkpoint(chain, 1)));
+        checkpoints.put("b", chain, List.of(checkpoint(chain, 1)));
+
+        assertNotNull(checkpoints.find("a", chain));
+        checkpoints.put("c", chain, List.of(checkpoint(chain, 1)));
+
+        assertNotNull(checkpoints.find("a", chain));
+        assertNull(checkpoints.find("b", chain));
+        assertNotNull(checkpoints.find("c", chain));
+    }
+
+    /**
+     * Writes a pack with a base asset and three patches applied in order, the second one given.
+     */
+    private static Path writePack(String secondPatch) throws IOException {
+        Path root = Files.createTempDirectory("hytalor-checkpoints");
+        write(root.resolve(BASE), """
+                { "Name": "Base", "Stats": { "Damage": 1 } }
+                """);
+        write(root.resolve("Server/Item/Items/Other.json"), """
+                { "Value": 5 }
+                """);
+        write(root.resolve("Server/Patch/First.json"), """
+                { "_BaseAssetPath": "Server/Item/Items/Test.json", "_priority": 30, "Stats": { "Damage": 2 }, "Missing": { "_op": "merge", "Deep": 1 } }
+                """);
+        write(root.resolve("Server/Patch/Second.json"), secondPatch);
+        write(root.resolve("Server/Patch/Third.json"), """
+                { "_BaseAssetPath": "Server/Item/Items/Test.json", "_priority": 10, "Name": "Third" }
+                """);
+
+        PatchManager manager = PatchManager.get();
+        manager.clear();
+        manager.loadPack(root);
+        return root;
+    }
+
+    private static void changeLastPatch(Path root) throws IOException {
+        Path third = root.resolve("Server/Patch/Third.json");
+        write(third, """
+                { "_BaseAssetPath": "Server/Item/Items/Test.json", "_priority": 10, "Name": "Changed" }
+                """);
+        PatchManager.get().loadPatch(third, false);
+    }
+
+    private static TreeObject build(PrefixCheckpoints checkpoints, PatchDiagnostics diagnostics) {
+        PatchManager manager = PatchManager.get();
+        Path basePath = manager.getPatchedBaseAssets(BASE).getFirst().getValue();
+
+        TreeObject built = manager.buildPatched(BASE, basePath, new MergeContext(diagnostics), checkpoints);
+        assertNotNull(built);
+        return built;
+    }
+
+    private static PatchDiagnostics.Event resumedEvent(PatchDiagnostics diagnostics) {
+        return diagnostics.getEvents().stream()
+                .filter(event -> event.kind() == DiagnosticKind.MERGE_RESUMED)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Merge was not resumed"));
+    }
+
+    private static List<PatchDiagnostics.Event> mergeEvents(PatchDiagnostics diagnostics) {
+        return diagnostics.getEvents().stream()
+                .filter(event -> event.kind() != DiagnosticKind.MERGE_RESUMED && event.kind() != DiagnosticKind.BASE_BUILT)
+                .toList();
+    }
+
+    private static long[] chain(int patches) {
+        long[] chain = new long[patches + 1];
+        chain[0] = 17;
+        for (int i = 0; i < patches; i++) {
+            chain[i + 1] = PrefixCheckpoints.chain(chain[i], i);
+        }
+        return chain;
+    }
+
+    private static PrefixCheckpoints.Checkpoint checkpoint(long[] chain, int length) {
+        return new PrefixCheckpoints.Checkpoint(length, chain[length], TreeObject.builder().put("Length", TreeValue.ofNumber(length)).build(), List.of());
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+}
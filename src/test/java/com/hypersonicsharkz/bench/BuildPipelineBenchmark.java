@@ -0,0 +1,104 @@
+package com.hypersonicsharkz.bench;
+
+import com.google.gson.JsonParser;
+import com.hypersonicsharkz.BuildPipeline;
+import com.hypersonicsharkz.codec.AssetCodecs;
+import com.hypersonicsharkz.tree.JsonTree;
+import com.hypersonicsharkz.tree.TreeObject;
+import com.hypersonicsharkz.util.JSONUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Compares building assets on virtual threads against a fixed pool of platform threads.
+ * Every task reads a base asset, merges a patch into it and writes it back, with an optional simulated latency per
+ * file access to stand in for slow disks or network mounts.
+ * <p>
+ * Run with: {@code BuildPipelineBenchmark [assets=2000] [latencyMillis=2] [rounds=5]}
+ */
+public class BuildPipelineBenchmark {
+    private static final String BASE = """
+            {
+              "Id": "Asset",
+              "Stats": { "Damage": 5, "Durability": 100, "Speed": 1.2 },
+              "Tags": { "Type": ["Weapon"], "Family": ["Sword"] },
+              "Recipe": { "Input": [ { "Item": "Ingot", "Quantity": 3 }, { "Item": "Stick", "Quantity": 1 } ] }
+            }""";
+    private static final String PATCH = """
+            {
+              "Stats": { "Damage": 7 },
+              "Recipe": { "Input": [ { "_index": 0, "Quantity": 4 }, { "_op": "add", "Item": "Gem", "Quantity": 1 } ] }
+            }""";
+
+    public static void main(String[] args) throws Exception {
+        int assets = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 2;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int cpus = Runtime.getRuntime().availableProcessors();
+
+        Path directory = Files.createTempDirectory("hytalor-bench");
+        List<Path> paths = new ArrayList<>(assets);
+        for (int i = 0; i < assets; i++) {
+            Path path = directory.resolve("Asset_" + i + ".json");
+            Files.writeString(path, BASE);
+            paths.add(path);
+        }
+
+        TreeObject patch = JsonTree.fromGson(JsonParser.parseString(PATCH).getAsJsonObject());
+
+        System.out.printf("%d assets, %d ms latency per file access, %d cores%n", assets, latency, cpus);
+
+        BuildPipeline platform = BuildPipeline.platformThreads(cpus * 2, cpus, 64);
+        BuildPipeline virtual = BuildPipeline.virtualThreads(cpus, 64);
+
+        for (int round = 0; round < rounds; round++) {
+            long platformTime = run(platform, paths, directory, patch, latency);
+            long virtualTime = run(virtual, paths, directory, patch, latency);
+            System.out.printf("round %d: platform threads %6d ms | virtual threads %6d ms%n", round, platformTime / 1_000_000, virtualTime / 1_000_000);
+        }
+
+        platform.shutdown();
+        virtual.shutdown();
+    }
+
+    private static long run(BuildPipeline pipeline, List<Path> paths, Path directory, TreeObject patch, long latency) {
+        long start = System.nanoTime();
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            Path output = directory.resolve("out").resolve(path.getFileName());
+
+            tasks.add(pipeline.submit(() -> {
+                TreeObject base = pipeline.io(() -> {
+                    sleep(latency);
+                    return AssetCodecs.read(path);
+                });
+
+                TreeObject merged = pipeline.cpu(() -> JSONUtil.deepMerge(patch, base));
+
+                pipeline.io(() -> {
+                    sleep(latency);
+                    Files.createDirectories(output.getParent());
+                    AssetCodecs.write(merged, output);
+                    return null;
+                });
+            }));
+        }
+
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        return System.nanoTime() - start;
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+}
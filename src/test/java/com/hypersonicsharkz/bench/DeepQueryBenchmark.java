@@ -0,0 +1,91 @@
+package com.hypersonicsharkz.bench;
+
+import com.hypersonicsharkz.tree.DeepQuery;
+import com.hypersonicsharkz.tree.TreeArray;
+import com.hypersonicsharkz.tree.TreeJsonProvider;
+import com.hypersonicsharkz.tree.TreeNode;
+import com.hypersonicsharkz.tree.TreeObject;
+import com.hypersonicsharkz.tree.TreeValue;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.Option;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares {@link DeepQuery} against JsonPath for {@code $..[?(@.Id == '...')]} queries, on a generated asset with
+ * nested interaction lists. Summaries are built by the first query, like in a build where several patches query the
+ * same asset.
+ * <p>
+ * Run with: {@code DeepQueryBenchmark [interactions=200] [queries=2000] [rounds=5]}
+ */
+public class DeepQueryBenchmark {
+    private static final Configuration CONF = Configuration
+            .builder()
+            .options(Option.ALWAYS_RETURN_LIST, Option.AS_PATH_LIST)
+            .jsonProvider(new TreeJsonProvider())
+            .build();
+
+    public static void main(String[] args) {
+        int interactions = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        TreeObject asset = generateAsset(interactions);
+        System.out.printf("%d interactions, %d queries%n", interactions, queries);
+
+        for (int round = 0; round < rounds; round++) {
+            long jsonPathMatches = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                List<String> paths = JsonPath.using(CONF).parse(asset).read(query(i, interactions));
+                jsonPathMatches += paths.size();
+            }
+            long jsonPathTime = System.nanoTime() - start;
+
+            long deepMatches = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                deepMatches += DeepQuery.compile(query(i, interactions)).find(asset).size();
+            }
+            long deepTime = System.nanoTime() - start;
+
+            if (jsonPathMatches != deepMatches)
+                throw new IllegalStateException("Queries disagree: " + jsonPathMatches + " vs " + deepMatches);
+
+            System.out.printf("round %d: jsonpath %5d ms | deep query %5d ms | %d matches%n", round, jsonPathTime / 1_000_000, deepTime / 1_000_000, deepMatches);
+        }
+    }
+
+    private static String query(int i, int interactions) {
+        return "$..[?(@.Id == 'Effect_" + (i * 7919 % interactions) + "_1')]";
+    }
+
+    private static TreeObject generateAsset(int interactions) {
+        TreeObject.Builder root = TreeObject.builder();
+        for (int i = 0; i < 30; i++) {
+            root.put("Property" + i, TreeValue.of("Value" + i));
+        }
+
+        List<TreeNode> list = new ArrayList<>(interactions);
+        for (int i = 0; i < interactions; i++) {
+            List<TreeNode> effects = new ArrayList<>();
+            for (int j = 0; j < 4; j++) {
+                effects.add(TreeObject.builder()
+                        .put("Id", TreeValue.of("Effect_" + i + "_" + j))
+                        .put("Amount", TreeValue.of(j * 1.5))
+                        .put("Target", TreeValue.of(j % 2 == 0 ? "Self" : "Other"))
+                        .build());
+            }
+
+            list.add(TreeObject.builder()
+                    .put("Id", TreeValue.of("Interaction_" + i))
+                    .put("Cooldown", TreeValue.of(i % 10))
+                    .put("Effects", TreeArray.of(effects))
+                    .build());
+        }
+        root.put("Interactions", TreeArray.of(list));
+        return root.build();
+    }
+}
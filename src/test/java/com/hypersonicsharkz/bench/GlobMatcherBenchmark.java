@@ -0,0 +1,77 @@
+package com.hypersonicsharkz.bench;
+
+import com.hypersonicsharkz.util.GlobMatcher;
+import com.hypersonicsharkz.util.BaselineGlob;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Compares {@link GlobMatcher} against matching the regex from {@link BaselineGlob}, on a catalogue of
+ * generated asset paths.
+ * <p>
+ * Run with: {@code GlobMatcherBenchmark [paths=100000] [rounds=5]}
+ */
+public class GlobMatcherBenchmark {
+    private static final String[] GLOBS = {
+            "Server/Item/Items/Category_7/Item_7_42.json",
+            "Server/Item/Items/Category_1*/*.json",
+            "Server/Item/Items/*/Item_*_9.json",
+            "Server/Weathers/Zone2/*",
+            "Server/**/Item_3_1?.json",
+            "Server/Item/**",
+            "**/Zone?_Sunny_*.json",
+            "Server/NPC/**Trork*.json"
+    };
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        List<String> paths = generatePaths(count);
+        System.out.printf("%d paths, %d globs%n", paths.size(), GLOBS.length);
+
+        for (int round = 0; round < rounds; round++) {
+            long regexMatches = 0;
+            long start = System.nanoTime();
+            for (String glob : GLOBS) {
+                Pattern pattern = BaselineGlob.toRegex(glob);
+                for (String path : paths) {
+                    if (pattern.matcher(path).matches())
+                        regexMatches++;
+                }
+            }
+            long regexTime = System.nanoTime() - start;
+
+            long globMatches = 0;
+            start = System.nanoTime();
+            for (String glob : GLOBS) {
+                GlobMatcher matcher = GlobMatcher.compile(glob);
+                for (String path : paths) {
+                    if (matcher.matches(path))
+                        globMatches++;
+                }
+            }
+            long globTime = System.nanoTime() - start;
+
+            if (regexMatches != globMatches)
+                throw new IllegalStateException("Matchers disagree: " + regexMatches + " vs " + globMatches);
+
+            System.out.printf("round %d: regex %5d ms | glob %5d ms | %d matches%n", round, regexTime / 1_000_000, globTime / 1_000_000, globMatches);
+        }
+    }
+
+    private static List<String> generatePaths(int count) {
+        List<String> paths = new ArrayList<>(count);
+        for (int i = 0; paths.size() < count; i++) {
+            switch (i % 4) {
+                case 0 -> paths.add("Server/Item/Items/Category_" + (i % 50) + "/Item_" + (i % 50) + "_" + (i / 50) + ".json");
+                case 1 -> paths.add("Server/Weathers/Zone" + (i % 5) + "/Zone" + (i % 5) + "_Sunny_" + i + ".json");
+                case 2 -> paths.add("Server/NPC/Roles/Faction_" + (i % 20) + "/Sub_" + (i % 7) + "/" + (i % 3 == 0 ? "Trork_" : "Goblin_") + i + ".json");
+                default -> paths.add("Common/Models/Model_" + i + ".blockymodel");
+            }
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,88 @@
+package com.hypersonicsharkz.bench;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.hypersonicsharkz.tree.JsonTree;
+import com.hypersonicsharkz.tree.TreeNode;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap held by cached assets, on a generated pack of item assets that share most of their keys.
+ * Each representation is kept alone on the heap and measured after a few garbage collections.
+ * <p>
+ * Run with: {@code HeapFootprintBenchmark [assets=20000]}, ideally with {@code -XX:+UseSerialGC} for stable numbers.
+ */
+public class HeapFootprintBenchmark {
+    public static void main(String[] args) throws IOException {
+        int assets = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+
+        List<String> pack = new ArrayList<>(assets);
+        long textBytes = 0;
+        for (int i = 0; i < assets; i++) {
+            String asset = generateAsset(i);
+            pack.add(asset);
+            textBytes += asset.length();
+        }
+        System.out.printf("%d assets, %d KiB of JSON%n", assets, textBytes / 1024);
+
+        long baseline = usedHeap();
+        List<JsonElement> gson = new ArrayList<>(assets);
+        for (String asset : pack) {
+            gson.add(JsonParser.parseString(asset));
+        }
+        report("gson", usedHeap() - baseline, assets);
+        gson = null;
+
+        baseline = usedHeap();
+        List<TreeNode> trees = new ArrayList<>(assets);
+        for (String asset : pack) {
+            trees.add(JsonTree.read(new JsonReader(new StringReader(asset))));
+        }
+        report("tree", usedHeap() - baseline, assets);
+
+        //Keep the trees reachable until they are measured
+        if (trees.size() != assets)
+            throw new IllegalStateException();
+    }
+
+    private static void report(String name, long bytes, int assets) {
+        System.out.printf("%-5s %8d KiB | %5d bytes per asset%n", name, bytes / 1024, bytes / assets);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String generateAsset(int i) {
+        return """
+                {
+                  "Id": "Item_%1$d",
+                  "Type": "%2$s",
+                  "Model": "Items/%2$s/Model_%3$d.blockymodel",
+                  "Quality": "%4$s",
+                  "MaxStack": %5$d,
+                  "Weight": %6$s,
+                  "Stats": { "Damage": %7$d, "Durability": %8$d, "Speed": 1.2, "Range": 2.5 },
+                  "Tags": { "Type": ["%2$s"], "Family": ["Family_%3$d"] },
+                  "Recipe": {
+                    "TimeSeconds": 3,
+                    "Input": [ { "ItemId": "Ingredient_%3$d", "Quantity": %9$d }, { "ItemId": "Stick", "Quantity": 1 } ],
+                    "BenchRequirement": [ { "Type": "Crafting", "Id": "Workbench", "Categories": ["%2$s"] } ]
+                  },
+                  "Interactions": {
+                    "Primary": { "Type": "Simple", "Cooldown": 0.5, "Effects": [ { "Id": "Hit", "Amount": %7$d } ] },
+                    "Secondary": { "Type": "Charge", "Cooldown": 1.0, "Effects": [ { "Id": "Block", "Amount": 0.75 } ] }
+                  }
+                }""".formatted(i, i % 3 == 0 ? "Weapon" : i % 3 == 1 ? "Tool" : "Armor", i % 50,
+                i % 5 == 0 ? "Rare" : "Common", i % 4 == 0 ? 1 : 64, (i % 20) / 4.0, 5 + i % 30, 100 + i % 400, 1 + i % 6);
+    }
+}
@@ -0,0 +1,153 @@
+package com.hypersonicsharkz.bench;
+
+import com.hypersonicsharkz.codec.AssetCodecs;
+import com.hypersonicsharkz.tree.TreeArray;
+import com.hypersonicsharkz.tree.TreeNode;
+import com.hypersonicsharkz.tree.TreeObject;
+import com.hypersonicsharkz.tree.TreeValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares reading JSON assets through a buffered reader against parsing them from memory mapped bytes, and from bytes
+ * read into the heap, on generated models of several sizes. Each size is read until about the same number of bytes went through both.
+ * <p>
+ * Run with: {@code MappedReadBenchmark [rounds=5]}
+ */
+public class MappedReadBenchmark {
+    private static final int[] SIZES_KIB = {4, 64, 256, 1024, 8192};
+    private static final long BYTES_PER_ROUND = 128L * 1024 * 1024;
+
+    public static void main(String[] args) throws IOException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        Path directory = Files.createTempDirectory("hytalor-mapped-read");
+        List<Path> files = new ArrayList<>();
+        for (int sizeKiB : SIZES_KIB) {
+            Path file = directory.resolve("Model_" + sizeKiB + ".blockymodel");
+            AssetCodecs.write(generateModel(sizeKiB * 1024L), file);
+            files.add(file);
+
+            TreeObject buffered = readBuffered(file);
+            if (!buffered.equals(readMapped(file)) || !buffered.equals(readBytes(file)))
+                throw new IllegalStateException("Readers disagree on " + file);
+        }
+
+        for (int round = 0; round < rounds; round++) {
+            System.out.printf("round %d%n", round);
+            for (Path file : files) {
+                long size = Files.size(file);
+                int reads = (int) Math.max(1, BYTES_PER_ROUND / size);
+
+                long start = System.nanoTime();
+                for (int i = 0; i < reads; i++) {
+                    readBuffered(file);
+                }
+                long bufferedTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < reads; i++) {
+                    readMapped(file);
+                }
+                long mappedTime = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int i = 0; i < reads; i++) {
+                    readBytes(file);
+                }
+                long bytesTime = System.nanoTime() - start;
+
+                System.out.printf("  %6d KiB x %5d: buffered %6.1f MiB/s | mapped %6.1f MiB/s | read bytes %6.1f MiB/s%n",
+                        size / 1024, reads, throughput(size * reads, bufferedTime), throughput(size * reads, mappedTime),
+                        throughput(size * reads, bytesTime));
+            }
+        }
+    }
+
+    private static double throughput(long bytes, long nanos) {
+        return bytes / 1024.0 / 1024.0 / (nanos / 1e9);
+    }
+
+    private static TreeObject readBuffered(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return AssetCodecs.JSON.read(input);
+        }
+    }
+
+    private static TreeObject readMapped(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return AssetCodecs.JSON.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private static TreeObject readBytes(Path file) throws IOException {
+        return AssetCodecs.JSON.read(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    /**
+     * Generates a model with a tree of nodes, like a .blockymodel, of about the given size when pretty printed.
+     */
+    private static TreeObject generateModel(long bytes) {
+        List<TreeNode> nodes = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, bytes / 700); i++) {
+            nodes.add(generateNode(i));
+        }
+
+        return TreeObject.builder()
+                .put("format", TreeValue.of("prop"))
+                .put("lod", TreeValue.of("auto"))
+                .put("nodes", TreeArray.of(nodes))
+                .build();
+    }
+
+    private static TreeNode generateNode(int i) {
+        TreeObject.Builder shape = TreeObject.builder()
+                .put("type", TreeValue.of(i % 3 == 0 ? "quad" : "box"))
+                .put("offset", vector(i * 0.25, -i % 7, 0.5))
+                .put("stretch", vector(1, 1, 1))
+                .put("settings", TreeObject.builder()
+                        .put("isPiece", TreeValue.of(i % 5 == 0))
+                        .put("size", vector(i % 16, 4, 2.75))
+                        .build())
+                .put("textureLayout", TreeObject.builder()
+                        .put("front", TreeObject.builder()
+                                .put("offset", TreeObject.builder().put("x", TreeValue.of(i % 64)).put("y", TreeValue.of(i % 32)).build())
+                                .put("mirror", TreeObject.builder().put("x", TreeValue.of(false)).put("y", TreeValue.of(false)).build())
+                                .put("angle", TreeValue.of(0))
+                                .build())
+                        .build())
+                .put("unwrapMode", TreeValue.of("custom"))
+                .put("visible", TreeValue.of(true))
+                .put("doubleSided", TreeValue.of(false))
+                .put("shadingMode", TreeValue.of("flat"));
+
+        return TreeObject.builder()
+                .put("id", TreeValue.of(Integer.toString(i)))
+                .put("name", TreeValue.of(i % 11 == 0 ? "Blätter \"" + i + "\"" : "Node_" + i))
+                .put("position", vector(i * 1.5, 0, -3.125))
+                .put("orientation", TreeObject.builder()
+                        .put("x", TreeValue.of(0))
+                        .put("y", TreeValue.of(0.7071067811865476))
+                        .put("z", TreeValue.of(0))
+                        .put("w", TreeValue.of(0.7071067811865476))
+                        .build())
+                .put("shape", shape.build())
+                .build();
+    }
+
+    private static TreeObject vector(double x, double y, double z) {
+        return TreeObject.builder()
+                .put("x", TreeValue.of(x))
+                .put("y", TreeValue.of(y))
+                .put("z", TreeValue.of(z))
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.hypersonicsharkz.cli;
+
+import com.hypersonicsharkz.PatchManager;
+import com.hypersonicsharkz.PrebuiltPack;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HytalorBuildTest {
+    private static final String BASE = "Server/Item/Items/Test.json";
+    private static final String PATCH = "Server/Patch/Level.json";
+
+    @Test
+    void startupUsesPrebuiltOverridesOfUnchangedInputs() throws IOException {
+        Path root = writePack();
+        Path prebuilt = build(root);
+
+        String output = startup(root, prebuilt);
+
+        assertTrue(output.contains("Prebuilt"), output);
+    }
+
+    @Test
+    void startupAppliesPatchesAfterAPatchChanged() throws IOException {
+        Path root = writePack();
+        Path prebuilt = build(root);
+        write(root.resolve(PATCH), "{ \"_BaseAssetPath\": \"" + BASE + "\", \"Level\": 3 }");
+
+        String output = startup(root, prebuilt);
+
+        assertFalse(output.contains("Prebuilt"), output);
+        assertTrue(output.contains("\"Level\": 3"), output);
+    }
+
+    @Test
+    void startupAppliesPatchesAfterABaseChanged() throws IOException {
+        Path root = writePack();
+        Path prebuilt = build(root);
+        write(root.resolve(BASE), "{ \"Name\": \"Changed\" }");
+
+        String output = startup(root, prebuilt);
+
+        assertFalse(output.contains("Prebuilt"), output);
+        assertTrue(output.contains("Changed"), output);
+    }
+
+    private static Path writePack() throws IOException {
+        Path root = Files.createTempDirectory("hytalor-build");
+        write(root.resolve(BASE), "{ \"Name\": \"Base\" }");
+        write(root.resolve(PATCH), "{ \"_BaseAssetPath\": \"" + BASE + "\", \"Level\": 2 }");
+        return root;
+    }
+
+    /**
+     * Builds the pack offline, and marks the built override so a startup that uses it can be told apart from one
+     * that applies the patches again.
+     */
+    private static Path build(Path root) throws IOException {
+        Path prebuilt = root.resolveSibling(root.getFileName() + "-prebuilt");
+        PatchManager manager = PatchManager.get();
+        Path previousOutput = manager.getOutputPath();
+        try {
+            manager.clear();
+            assertEquals(0, HytalorBuild.run(new String[]{"--assets", root.toString(), "--out", prebuilt.toString()}));
+        } finally {
+            manager.setOutputPath(previousOutput);
+        }
+
+        assertNotNull(PrebuiltPack.readFingerprint(prebuilt));
+        Path override = prebuilt.resolve(BASE);
+        Files.writeString(override, Files.readString(override).replace("Base", "Prebuilt"));
+        return prebuilt;
+    }
+
+    /**
+     * Loads the pack like a server boots, and returns the override it ends up with.
+     */
+    private static String startup(Path root, Path prebuilt) throws IOException {
+        Path out = root.resolveSibling(root.getFileName() + "-overrides");
+        PatchManager manager = PatchManager.get();
+        Path previousOutput = manager.getOutputPath();
+        try {
+            manager.clear();
+            manager.setOutputPath(out);
+            manager.loadPack(root);
+            manager.applyPrebuiltOrAllPatches(prebuilt);
+            return Files.readString(out.resolve(BASE));
+        } finally {
+            manager.clear();
+            manager.setOutputPath(previousOutput);
+        }
+    }
+
+    private static void write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+}
@@ -0,0 +1,36 @@
+package com.hypersonicsharkz.codec;
+
+import com.hypersonicsharkz.tree.TreeObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetCodecsTest {
+
+    @Test
+    void bytesAreReadLikeTheReader() throws IOException {
+        List<String> documents = List.of(
+                "{ \"Id\": \"Sword\", \"Damage\": 5, \"Speed\": 1.25, \"Big\": 12345678901234567890, \"Small\": -0, \"Exp\": 1e3 }",
+                "﻿{ \"Name\": \"Blätter \\\"\\u00e4\\n\", \"Tags\": [ \"a\", true, null, { } , [] ] }",
+                "// Comment\n{ \"A\": 1, /* inline */ \"B\": [1, 2] # trailing\n }",
+                "{ Unquoted: 'single', \"Trailing\": [1, 2,], \"Keyword\": TRUE }",
+                "{ \"Number\": 012, \"Word\": nullable } trailing content"
+        );
+
+        for (String document : documents) {
+            byte[] bytes = document.getBytes(StandardCharsets.UTF_8);
+            TreeObject read = AssetCodecs.JSON.read(new ByteArrayInputStream(bytes));
+
+            assertEquals(read, AssetCodecs.JSON.read(ByteBuffer.wrap(bytes)), document);
+            assertEquals(read, AssetCodecs.JSON.read(ByteBuffer.allocateDirect(bytes.length).put(bytes).flip()), document);
+        }
+
+        assertThrows(IOException.class, () -> AssetCodecs.JSON.read(ByteBuffer.wrap("{ \"A\": ".getBytes(StandardCharsets.UTF_8))));
+    }
+}
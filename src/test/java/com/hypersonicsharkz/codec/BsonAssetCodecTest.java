@@ -0,0 +1,73 @@
+package com.hypersonicsharkz.codec;
+
+import com.hypersonicsharkz.tree.TreeObject;
+import com.hypersonicsharkz.tree.TreeValue;
+import com.hypersonicsharkz.util.JSONUtil;
+import org.bson.*;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BsonAssetCodecTest {
+
+    @Test
+    void typesWithoutJsonEquivalentSurvivePatching() throws IOException {
+        BsonDocument document = new BsonDocument()
+                .append("Name", new BsonString("Sword"))
+                .append("Damage", new BsonInt32(5))
+                .append("Created", new BsonDateTime(1_700_000_000_000L))
+                .append("Id", new BsonObjectId(new ObjectId("65a1b2c3d4e5f60718293a4b")))
+                .append("Data", new BsonBinary(BsonBinarySubType.UUID_STANDARD, new byte[16]))
+                .append("Price", new BsonDecimal128(new Decimal128(new BigDecimal("12.50"))))
+                .append("Stamp", new BsonTimestamp(42, 7))
+                .append("Pattern", new BsonRegularExpression("^Sword_.*", "i"))
+                .append("Low", new BsonMinKey())
+                .append("High", new BsonMaxKey())
+                .append("Pointer", new BsonDbPointer("items", new ObjectId("65a1b2c3d4e5f60718293a4c")))
+                .append("Script", new BsonJavaScriptWithScope("x + 1", new BsonDocument("x", new BsonInt32(1))))
+                .append("Symbol", new BsonSymbol("sym"))
+                .append("Nested", new BsonDocument("Binary", new BsonBinary(new byte[] {1, 2, 3})));
+
+        TreeObject tree = AssetCodecs.BSON.read(ByteBuffer.wrap(encode(document)));
+        assertEquals("65a1b2c3d4e5f60718293a4b", tree.get("Id").asValue().getAsString());
+        assertEquals(1_700_000_000_000L, tree.get("Created").asValue().getAsNumber().longValue());
+        assertTrue(tree.get("Low").asValue().isNull());
+
+        TreeObject patch = TreeObject.builder().put("Damage", TreeValue.of(8)).build();
+        TreeObject patched = JSONUtil.deepMerge(patch, tree);
+
+        BsonDocument expected = document.clone().append("Damage", new BsonInt32(8));
+        assertEquals(expected, decode(write(patched)));
+        assertEquals(document, decode(write(tree)));
+    }
+
+    private static byte[] encode(BsonDocument document) {
+        try (BasicOutputBuffer buffer = new BasicOutputBuffer(); BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            new BsonDocumentCodec().encode(writer, document, EncoderContext.builder().build());
+            return buffer.toByteArray();
+        }
+    }
+
+    private static byte[] write(TreeObject tree) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AssetCodecs.BSON.write(tree, output);
+        return output.toByteArray();
+    }
+
+    private static BsonDocument decode(byte[] bytes) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(bytes))) {
+            return new BsonDocumentCodec().decode(reader, DecoderContext.builder().build());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.hypersonicsharkz.codec;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.hypersonicsharkz.tree.JsonTree;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonAssetCodecTest {
+
+    @Test
+    void writesLikePrettyPrintingGson() throws IOException {
+        JsonObject object = JsonParser.parseString(
+                "{ \"Text\": \"<b>Tom & Jerry's</b> = 1\", \"Numbers\": [1, 2.5, 1e3], \"Empty\": {}, \"Null\": null, \"Nested\": { \"List\": [] } }"
+        ).getAsJsonObject();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AssetCodecs.JSON.write(JsonTree.fromGson(object), output);
+
+        String expected = new GsonBuilder().setPrettyPrinting().create().toJson(object);
+        assertEquals(expected, output.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,19 @@
+package com.hypersonicsharkz.commands;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopPatchesCommandTest {
+
+    @Test
+    void formatsPayloadsInTheLargestWholeUnit() {
+        assertEquals("0 B", TopPatchesCommand.formatBytes(0));
+        assertEquals("1023 B", TopPatchesCommand.formatBytes(1023));
+        assertEquals("1.0 KiB", TopPatchesCommand.formatBytes(1024));
+        assertEquals("1.5 KiB", TopPatchesCommand.formatBytes(1536));
+        assertEquals("1023.0 KiB", TopPatchesCommand.formatBytes(1023 * 1024));
+        assertEquals("1.0 MiB", TopPatchesCommand.formatBytes(1024 * 1024));
+        assertEquals("2.5 MiB", TopPatchesCommand.formatBytes(5 * 512 * 1024));
+    }
+}
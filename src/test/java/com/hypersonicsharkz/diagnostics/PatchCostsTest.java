@@ -0,0 +1,60 @@
+package com.hypersonicsharkz.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatchCostsTest {
+
+    @Test
+    void topOrdersByMergeTimeAndKeepsTheLimit() {
+        PatchCosts costs = new PatchCosts();
+        costs.recordMerge("cheap", 10, 1, 1);
+        costs.recordMerge("expensive", 300, 1, 1);
+        costs.recordMerge("middle", 100, 1, 1);
+        //Adds up over every target
+        costs.recordMerge("cheap", 150, 2, 5);
+
+        assertEquals(List.of("expensive", "cheap", "middle"), patches(costs.top(10)));
+        assertEquals(List.of("expensive", "cheap"), patches(costs.top(2)));
+        assertTrue(costs.top(0).isEmpty());
+
+        PatchCosts.Summary cheap = costs.top(10).get(1);
+        assertEquals(160, cheap.mergeNanos());
+        assertEquals(2, cheap.targets());
+        assertEquals(3, cheap.queries());
+        assertEquals(6, cheap.elementsScanned());
+    }
+
+    @Test
+    void keepsThePayloadOfPatchesNotMergedYet() {
+        PatchCosts costs = new PatchCosts();
+        costs.setPayloadBytes("loaded", 512);
+        costs.recordMerge("loaded", 20, 0, 0);
+        costs.setPayloadBytes("loaded", 2048);
+
+        PatchCosts.Summary summary = costs.top(1).get(0);
+        assertEquals(2048, summary.payloadBytes());
+        assertEquals(1, summary.targets());
+    }
+
+    @Test
+    void removeDropsOnlyThatPatch() {
+        PatchCosts costs = new PatchCosts();
+        costs.recordMerge("kept", 10, 0, 0);
+        costs.recordMerge("removed", 20, 0, 0);
+
+        costs.remove("removed");
+        assertEquals(List.of("kept"), patches(costs.top(10)));
+
+        //Costs recorded after a reload start from zero
+        costs.recordMerge("removed", 5, 0, 0);
+        assertEquals(5, costs.top(10).get(1).mergeNanos());
+    }
+
+    private static List<Object> patches(List<PatchCosts.Summary> summaries) {
+        return summaries.stream().map(PatchCosts.Summary::patch).toList();
+    }
+}
@@ -0,0 +1,42 @@
+package com.hypersonicsharkz.memfs;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryFileSystemTest {
+
+    @Test
+    void writesAndWalksLikeADirectory() throws IOException {
+        try (MemoryFileSystem fileSystem = MemoryFileSystem.create("walk-test")) {
+            Path file = fileSystem.root().resolve("Server/Item/Sword.json");
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, "{ \"Damage\": 5 }");
+
+            assertEquals("{ \"Damage\": 5 }", Files.readString(file));
+            assertTrue(Files.isRegularFile(file));
+            assertEquals("Server/Item/Sword.json", fileSystem.root().relativize(file).toString());
+
+            List<String> walked;
+            try (Stream<Path> paths = Files.walk(fileSystem.root())) {
+                walked = paths.map(Path::toString).toList();
+            }
+            assertEquals(List.of("/", "/Server", "/Server/Item", "/Server/Item/Sword.json"), walked);
+
+            assertThrows(DirectoryNotEmptyException.class, () -> Files.delete(file.getParent()));
+
+            fileSystem.clear();
+            assertFalse(Files.exists(file));
+            assertTrue(Files.isDirectory(fileSystem.root()));
+            assertThrows(NoSuchFileException.class, () -> Files.readString(file));
+        }
+    }
+}
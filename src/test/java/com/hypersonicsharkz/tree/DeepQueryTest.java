@@ -0,0 +1,71 @@
+package com.hypersonicsharkz.tree;
+
+import com.google.gson.JsonParser;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.PathNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeepQueryTest {
+    private static final Configuration CONF = Configuration
+            .builder()
+            .options(Option.ALWAYS_RETURN_LIST, Option.AS_PATH_LIST)
+            .jsonProvider(new TreeJsonProvider())
+            .build();
+
+    private static final TreeObject ASSET = JsonTree.fromGson(JsonParser.parseString("""
+            {
+              "Id": "Root",
+              "Stats": { "Damage": 5, "Id": "Stats" },
+              "Interactions": [
+                { "Id": "Swing", "Effects": [{ "Id": "Bleed", "Damage": 2 }, { "Id": "Swing" }] },
+                [{ "Id": "Nested" }, "Swing", 3],
+                { "Id": null, "Damage": { "Id": "Swing" } }
+              ],
+              "Empty": {},
+              "Tags": ["Swing", "Root"]
+            }
+            """).getAsJsonObject());
+
+    @Test
+    void findsSameAsJsonPath() {
+        List<String> queries = List.of(
+                "$..Id",
+                "$..Damage",
+                "$..Missing",
+                "$..[?(@.Id == 'Swing')]",
+                "$..[?(@.Id=='Root')]",
+                "$..[?(@.Id == \"Bleed\")]",
+                "$..[?(@.Id == 'Missing')]"
+        );
+
+        for (String query : queries) {
+            DeepQuery deepQuery = DeepQuery.compile(query);
+            assertNotNull(deepQuery, query);
+
+            //JsonPath throws for property scans without results, the merge treats that like no matches
+            List<List<Object>> expected = new ArrayList<>();
+            try {
+                for (String path : JsonPath.using(CONF).parse(ASSET).<List<String>>read(query)) {
+                    expected.add(JsonTree.parsePath(path));
+                }
+            } catch (PathNotFoundException ignored) {
+            }
+
+            assertEquals(expected, deepQuery.find(ASSET), query);
+        }
+    }
+
+    @Test
+    void leavesConversionsToJsonPath() {
+        assertNull(DeepQuery.compile("$..[?(@.Damage == '5')]").find(ASSET));
+        assertNull(DeepQuery.compile("$..[?(@.Damage > 1)]"));
+        assertNull(DeepQuery.compile("$.Stats.Damage"));
+    }
+}
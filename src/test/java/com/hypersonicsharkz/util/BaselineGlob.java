@@ -0,0 +1,37 @@
+package com.hypersonicsharkz.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * The glob to regex translation asset paths were matched with before {@link GlobMatcher}, kept as it was so the
+ * matcher can be checked and benchmarked against it.
+ */
+public final class BaselineGlob {
+    private BaselineGlob() {}
+
+    public static Pattern toRegex(String glob) {
+        StringBuilder regex = new StringBuilder("^");
+
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+
+            switch (c) {
+                case '*' -> {
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        regex.append(".*");
+                        i++; // skip second *
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                }
+                case '?' -> regex.append('.');
+                case '.' -> regex.append("\\.");
+                case '/' -> regex.append("/");
+                default -> regex.append(String.valueOf(c));
+            }
+        }
+
+        regex.append("$");
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,99 @@
+package com.hypersonicsharkz.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobMatcherTest {
+    private static final List<String> PATHS = List.of(
+            "Server/Item/Items/Bench/Bench_Arcane.json",
+            "Server/Item/Items/Bench/Bench_Arcane.json.bak",
+            "Server/Item/Items/Weapon/Sword/Weapon_Sword_Iron.json",
+            "Server/Weathers/Zone1/Zone1_Sunny.json",
+            "Server/Weathers/Zone2/Cave/Zone2_Sunny.json",
+            "Server/Weathers/Zone1_Sunny.json",
+            "Server/Item/Items/Misc/Potion (Large)+1.json",
+            "Server/Item/Items/Misc/Potion X+1.json"
+    );
+
+    private static final List<String> GLOBS = List.of(
+            "Server/Item/Items/Bench/Bench_Arcane.json",
+            "Server/Item/Items/*/*.json",
+            "Server/Item/**",
+            "Server/**/*.json",
+            "Server/Weathers/**/Zone?_Sunny.json",
+            "Server/Weathers/Zone1/*",
+            "Server/Weathers/**Sunny.json",
+            "**/Weapon_*_Iron.json",
+            "Server/Item/Items/Misc/Potion (Large)+1.json",
+            "Server/Item/Items/Misc/Potion*+1.json"
+    );
+
+    //Where the baseline regex was wrong: it read regex metacharacters in globs as regex, and let ? match a /
+    private static final Map<String, Boolean> DIFFERENCES = Map.of(
+            "Server/Item/Items/Misc/Potion (Large)+1.json on Server/Item/Items/Misc/Potion (Large)+1.json", true,
+            "Server/Item/Items/Misc/Potion*+1.json on Server/Item/Items/Misc/Potion (Large)+1.json", true,
+            "Server/Item/Items/Misc/Potion*+1.json on Server/Item/Items/Misc/Potion X+1.json", true,
+            "Server/Item/Items/Misc/Potion X+1.json on Server/Item/Items/Misc/Potion XX1.json", false,
+            "Server/Weathers/Zone1?Zone1_Sunny.json on Server/Weathers/Zone1/Zone1_Sunny.json", false
+    );
+
+    @Test
+    void matchesSameAsBaselineRegex() {
+        for (String glob : GLOBS) {
+            GlobMatcher matcher = GlobMatcher.compile(glob);
+            var regex = BaselineGlob.toRegex(glob);
+
+            for (String path : PATHS) {
+                if (DIFFERENCES.containsKey(glob + " on " + path))
+                    continue;
+
+                assertEquals(regex.matcher(path).matches(), matcher.matches(path), glob + " on " + path);
+            }
+        }
+    }
+
+    @Test
+    void differsFromBaselineRegexOnlyWhereIntended() {
+        DIFFERENCES.forEach((pair, matches) -> {
+            String[] parts = pair.split(" on ", 2);
+
+            assertEquals(matches, GlobMatcher.compile(parts[0]).matches(parts[1]), pair);
+            assertEquals(!matches, BaselineGlob.toRegex(parts[0]).matcher(parts[1]).matches(), pair);
+        });
+    }
+
+    @Test
+    void resolverMatchesEveryPatternAtOnce() {
+        PatternResolver<String> resolver = new PatternResolver<>();
+        for (String glob : GLOBS) {
+            resolver.add(glob, glob);
+        }
+        resolver.add("regex:Server/Weathers/Zone[12]/.*Sunny.json", "regex");
+
+        Set<String> resolved = new HashSet<>();
+        resolver.resolve(PATHS, (glob, path) -> assertTrue(resolved.add(glob + " -> " + path), "Reported twice: " + path));
+
+        Set<String> expected = new HashSet<>();
+        for (String glob : GLOBS) {
+            GlobMatcher matcher = GlobMatcher.compile(glob);
+            PATHS.stream().filter(matcher::matches).forEach(path -> expected.add(glob + " -> " + path));
+        }
+        expected.add("regex -> Server/Weathers/Zone1/Zone1_Sunny.json");
+        expected.add("regex -> Server/Weathers/Zone2/Cave/Zone2_Sunny.json");
+
+        assertEquals(expected, resolved);
+    }
+
+    @Test
+    void metacharactersAreLiteral() {
+        assertTrue(GlobMatcher.compile("Server/Item/Items/Misc/Potion (Large)+1.json").matches("Server/Item/Items/Misc/Potion (Large)+1.json"));
+        assertFalse(GlobMatcher.compile("Server/Item/Items/Misc/Potion X+1.json").matches("Server/Item/Items/Misc/Potion XX1.json"));
+        assertFalse(GlobMatcher.compile("Server/Item/Bench.json").matches("Server/Item/Bench_json"));
+    }
+}
@@ -1,12 +1,22 @@
 package com.hypersonicsharkz.util;
 
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.hypersonicsharkz.HytalorPlugin;
+import com.hypersonicsharkz.diagnostics.DiagnosticKind;
+import com.hypersonicsharkz.tree.JsonTree;
+import com.hypersonicsharkz.tree.TreeObject;
 import com.hypixel.hytale.logger.backend.HytaleLogManager;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -104,6 +114,145 @@ class JSONUtilTest {
 
         assertEquals(expected, source);
     }
+
+    @Test
+    void findAllShiftPatch() throws URISyntaxException {
+        TestFiles testFiles = new TestFiles("findAllShiftPatch");
+        JsonObject patch = testFiles.patch;
+        JsonObject source = testFiles.source;
+        JsonObject expected = testFiles.expected;
+
+        JSONUtil.deepMerge(patch, source);
+
+        assertEquals(expected, source);
+    }
+
+    @Test
+    void treeMergeSharesUnmodifiedSubtrees() throws URISyntaxException {
+        TestFiles testFiles = new TestFiles("nestedArrayPatch");
+        TreeObject patch = JsonTree.fromGson(testFiles.patch);
+        TreeObject source = JsonTree.fromGson(testFiles.source);
+        TreeObject sourceBefore = JsonTree.fromGson(testFiles.source);
+
+        TreeObject merged = JSONUtil.deepMerge(patch, source);
+
+        assertEquals(JsonTree.fromGson(testFiles.expected), merged);
+        assertEquals(sourceBefore, source); //Base is left untouched
+        assertSame( //Second element is not patched, so it is shared
+                source.get("ObjectArray").asArray().get(1),
+                merged.get("ObjectArray").asArray().get(1)
+        );
+    }
+
+    @Test
+    void diagnosticsAreRecorded() throws URISyntaxException {
+        TestFiles testFiles = new TestFiles("simpleKeyValuePatch");
+        JsonObject patch = testFiles.patch.deepCopy();
+        patch.addProperty("$.DoesNotExist", "Value");
+        patch.add("Missing", JsonParser.parseString("{ \"_op\": \"remove\" }"));
+
+        MergeContext context = new MergeContext();
+        JSONUtil.deepMerge(JsonTree.fromGson(patch), JsonTree.fromGson(testFiles.source), context);
+
+        assertEquals(1, context.diagnostics().count(DiagnosticKind.NO_QUERY_MATCH));
+        assertEquals(1, context.diagnostics().count(DiagnosticKind.MISSING_KEY));
+    }
+
+    @Test
+    void referencesAreResolved() {
+        TreeObject referenced = JsonTree.fromGson(JsonParser.parseString(
+                "{ \"Stats\": { \"Damage\": 12 }, \"Tags\": [\"Sword\"] }").getAsJsonObject());
+        TreeObject patch = JsonTree.fromGson(JsonParser.parseString(
+                "{ \"Damage\": { \"_ref\": \"Server/Item/Sword.json\", \"_path\": \"$.Stats.Damage\" },"
+                        + " \"Tags\": [{ \"_ref\": \"Server/Item/Sword.json\", \"_path\": \"$.Tags[0]\" }],"
+                        + " \"Missing\": { \"_ref\": \"Server/Item/Missing.json\" } }").getAsJsonObject());
+
+        MergeContext context = new MergeContext();
+        TreeObject resolved = JSONUtil.resolveReferences(patch, name -> name.equals("Server/Item/Sword.json") ? referenced : null, context);
+
+        assertEquals(JsonParser.parseString("{ \"Damage\": 12, \"Tags\": [\"Sword\"] }"), resolved.toGson());
+        assertEquals(1, context.diagnostics().count(DiagnosticKind.UNRESOLVED_REFERENCE));
+    }
+
+    @Test
+    void queryPatchesFirstMatchAndSetsEveryMatch() {
+        TreeObject source = JsonTree.fromGson(JsonParser.parseString(
+                "{ \"Items\": [{ \"Id\": \"A\", \"V\": 1 }, { \"Id\": \"B\" }, { \"Id\": \"A\", \"Nested\": { \"Id\": \"A\" } }] }").getAsJsonObject());
+
+        TreeObject merged = JSONUtil.deepMerge(JsonTree.fromGson(JsonParser.parseString(
+                "{ \"$..[?(@.Id == 'A')]\": { \"V\": 2 } }").getAsJsonObject()), source);
+        assertEquals(JsonParser.parseString(
+                "{ \"Items\": [{ \"Id\": \"A\", \"V\": 2 }, { \"Id\": \"B\" }, { \"Id\": \"A\", \"Nested\": { \"Id\": \"A\" } }] }"), merged.toGson());
+
+        TreeObject removed = JSONUtil.deepMerge(JsonTree.fromGson(JsonParser.parseString(
+                "{ \"$.Items[?(@.Id == 'A')]\": { \"_op\": \"remove\" } }").getAsJsonObject()), source);
+        assertEquals(JsonParser.parseString(
+                "{ \"Items\": [{ \"Id\": \"B\" }, { \"Id\": \"A\", \"Nested\": { \"Id\": \"A\" } }] }"), removed.toGson());
+
+        TreeObject set = JSONUtil.deepMerge(JsonTree.fromGson(JsonParser.parseString(
+                "{ \"$..[?(@.Id == 'A')].Id\": \"C\" }").getAsJsonObject()), source);
+        assertEquals(JsonParser.parseString(
+                "{ \"Items\": [{ \"Id\": \"C\", \"V\": 1 }, { \"Id\": \"B\" }, { \"Id\": \"C\", \"Nested\": { \"Id\": \"C\" } }] }"), set.toGson());
+    }
+
+    @Test
+    void contentHashFollowsSerializedContent() {
+        TreeObject tree = JsonTree.fromGson(JsonParser.parseString("{ \"A\": 1, \"B\": [\"x\", true] }").getAsJsonObject());
+        TreeObject same = JsonTree.fromGson(JsonParser.parseString("{ \"A\": 1, \"B\": [\"x\", true] }").getAsJsonObject());
+        TreeObject reordered = JsonTree.fromGson(JsonParser.parseString("{ \"B\": [\"x\", true], \"A\": 1 }").getAsJsonObject());
+        TreeObject quoted = JsonTree.fromGson(JsonParser.parseString("{ \"A\": \"1\", \"B\": [\"x\", true] }").getAsJsonObject());
+
+        assertEquals(tree.contentHash(), same.contentHash());
+        assertNotEquals(tree.contentHash(), reordered.contentHash());
+        assertNotEquals(tree.contentHash(), quoted.contentHash());
+    }
+
+    @Test
+    void patchHeaderStopsAfterControlKeys() throws IOException {
+        Path file = Files.createTempFile("patch", ".json");
+        try {
+            //The body is never reached, so it doesn't have to be valid
+            Files.writeString(file, "{ \"BaseAssetPath\": \"Item/Sword\", \"_priority\": 5, \"Body\": { oops");
+
+            TreeObject header = JSONUtil.readPatchHeader(file);
+
+            assertEquals(JsonParser.parseString("{ \"BaseAssetPath\": \"Item/Sword\", \"_priority\": 5 }"), header.toGson());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void patchHeaderKeepsDeprecatedTargetAfterControlKeys() throws IOException {
+        Path file = Files.createTempFile("patch", ".json");
+        try {
+            Files.writeString(file, "{ \"_BaseAssetPath\": \"Server/Item/Shield.json\", \"_priority\": 5, \"Body\": { \"A\": [1, 2] }, "
+                    + "\"BaseAssetPath\": \"Item/Sword\" }");
+
+            TreeObject header = JSONUtil.readPatchHeader(file);
+
+            assertEquals(JsonParser.parseString("{ \"_BaseAssetPath\": \"Server/Item/Shield.json\", \"_priority\": 5, "
+                    + "\"BaseAssetPath\": \"Item/Sword\" }"), header.toGson());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void compactTreesKeepNumberFormatting() throws IOException {
+        String json = "{\"A\":5,\"B\":1.50,\"C\":1e3,\"D\":-0,\"E\":12345678901234567890,\"F\":0.25,\"G\":5000000000,\"H\":\"5\","
+                + "\"I\":1,\"J\":2,\"K\":3,\"L\":4,\"M\":[true,null]}";
+        TreeObject tree = JsonTree.read(new JsonReader(new StringReader(json))).asObject();
+
+        StringWriter written = new StringWriter();
+        JsonTree.write(tree, new JsonWriter(written));
+
+        assertEquals(json, written.toString());
+        assertEquals(5, tree.get("A").asValue().getAsInt());
+        assertEquals(JsonTree.fromGson(JsonParser.parseString(json)), tree);
+        assertNotEquals(tree.get("A"), tree.get("H"));
+    }
+
     private static class TestFiles {
         JsonObject patch;
         JsonObject source;
@@ -0,0 +1,83 @@
+package com.hypersonicsharkz.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatternResolverTest {
+    private static final List<String> PATHS = List.of(
+            "Server/Item/Items/Bench/Bench_Arcane.json",
+            "Server/Item/Items/Bench/Bench_Alchemy.json",
+            "Server/Item/Items/Weapon/Sword/Weapon_Sword_Iron.json",
+            "Server/Item/Items/Weapon/Sword/Weapon_Sword_Copper.json",
+            "Server/Item/Items/Weapon/Axe/Weapon_Axe_Iron.json",
+            "Server/Item/Recipes/Bench_Arcane.json",
+            "Server/Weathers/Zone1/Zone1_Sunny.json",
+            "Server/Weathers/Zone2/Cave/Zone2_Sunny.json",
+            "Server/Weathers/Zone1_Sunny.json",
+            "Server/NPC/Roles/Trork_Warrior.json",
+            "Root.json"
+    );
+
+    //Target name -> pattern, several patterns share prefixes and match the same paths
+    private static final List<String[]> PATTERNS = List.of(
+            new String[]{"literal", "Server/Item/Items/Bench/Bench_Arcane.json"},
+            new String[]{"literal twice", "Server/Item/Items/Bench/Bench_Arcane.json"},
+            new String[]{"missing literal", "Server/Item/Items/Bench/Bench_Missing.json"},
+            new String[]{"root literal", "Root.json"},
+            new String[]{"bench", "Server/Item/Items/Bench/*.json"},
+            new String[]{"items", "Server/Item/Items/**"},
+            new String[]{"item", "Server/Item/**"},
+            new String[]{"iron", "Server/Item/Items/Weapon/**/*_Iron.json"},
+            new String[]{"bench prefix", "Server/Item/Items/Bench/Bench_A*"},
+            new String[]{"anywhere", "**/Bench_Arcane.json"},
+            new String[]{"zone", "Server/Weathers/Zone?/*.json"},
+            new String[]{"mixed globstar", "Server/Weathers/**Sunny.json"},
+            new String[]{"top level", "*.json"},
+            new String[]{"regex", "regex:Server/Weathers/Zone[12]/.*Sunny\\.json"},
+            new String[]{"regex anything", "regex:.*Iron.*"},
+            new String[]{"multi", "Server/NPC/**"},
+            new String[]{"multi", "regex:Server/NPC/Roles/Trork_.*"}
+    );
+
+    @Test
+    void resolvesSameAsMatchingEachPattern() {
+        PatternResolver<String> resolver = new PatternResolver<>();
+        for (String[] pattern : PATTERNS) {
+            resolver.add(pattern[1], pattern[0]);
+        }
+
+        List<String> resolved = new ArrayList<>();
+        resolver.resolve(PATHS, (target, path) -> resolved.add(target + " -> " + path));
+
+        //What every pattern matched on its own walk over the catalogue, before the resolver
+        List<String> expected = new ArrayList<>();
+        for (String[] pattern : PATTERNS) {
+            for (String path : PATHS) {
+                if (matches(pattern[1], path)) {
+                    expected.add(pattern[0] + " -> " + path);
+                }
+            }
+        }
+
+        resolved.sort(null);
+        expected.sort(null);
+        assertEquals(expected, resolved);
+
+        assertTrue(resolved.contains("literal twice -> Server/Item/Items/Bench/Bench_Arcane.json"));
+        assertTrue(resolved.contains("anywhere -> Server/Item/Recipes/Bench_Arcane.json"));
+        assertEquals(2, resolved.stream().filter(match -> match.equals("multi -> Server/NPC/Roles/Trork_Warrior.json")).count());
+        assertFalse(resolved.stream().anyMatch(match -> match.startsWith("missing literal")));
+    }
+
+    private static boolean matches(String pattern, String path) {
+        if (pattern.startsWith("regex:"))
+            return Pattern.compile(pattern.substring("regex:".length())).matcher(path).matches();
+
+        return GlobMatcher.compile(pattern).matches(path);
+    }
+}